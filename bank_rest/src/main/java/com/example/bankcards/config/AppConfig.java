@@ -1,14 +1,21 @@
 package com.example.bankcards.config;
 
-import com.example.bankcards.util.DataMasker;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.Random;
 
 @Configuration
+@EnableAsync
+@EnableScheduling
 public class AppConfig implements WebMvcConfigurer {
 
     /**
@@ -26,4 +33,23 @@ public class AppConfig implements WebMvcConfigurer {
     public Random random() {
         return new Random();
     }
+
+    /**
+     * Модуль Jackson, заменяющий рефлексивный доступ к полям DTO сгенерированными лямбдами
+     */
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * DTO помечены @JsonFilter для параметра fields. Если фильтр не задан запросом,
+     * сериализуются все поля.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsetFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                .setFailOnUnknownId(false));
+    }
 }
\ No newline at end of file
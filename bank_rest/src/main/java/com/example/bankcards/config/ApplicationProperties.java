@@ -39,6 +39,12 @@ public class ApplicationProperties {
     @NotNull(message = "Конфигурация маскирования данных не может быть null")
     private DataMasking dataMasking = new DataMasking();
 
+    @NotNull(message = "Конфигурация ограничения частоты запросов не может быть null")
+    private RateLimit rateLimit = new RateLimit();
+
+    @NotNull(message = "Конфигурация ограничения одновременных запросов не может быть null")
+    private AdmissionControl admissionControl = new AdmissionControl();
+
     @Getter
     @Setter
     public static class Jwt {
@@ -90,6 +96,18 @@ public class ApplicationProperties {
         @Positive(message = "Минимальная сумма перевода должна быть положительной")
         private double minTransferAmount = 0.01;
 
+        @Positive(message = "Дневной лимит переводов по карте должен быть положительным")
+        private double dailyTransferLimitPerCard = 300000.0;
+
+        @Positive(message = "Дневной лимит переводов пользователя должен быть положительным")
+        private double dailyTransferLimitPerUser = 1000000.0;
+
+        @Positive(message = "Лимит числа переводов по карте в минуту должен быть положительным")
+        private int maxTransfersPerMinutePerCard = 5;
+
+        @Positive(message = "Лимит числа переводов пользователя в минуту должен быть положительным")
+        private int maxTransfersPerMinutePerUser = 10;
+
         private int cardExpiryYears = 4;
 
         private boolean allowInternationalTransfers = false;
@@ -113,9 +131,28 @@ public class ApplicationProperties {
 
         private boolean requireSpecialChars = true;
 
+        @Positive(message = "Максимальное число попыток входа должно быть положительным")
         private int maxLoginAttempts = 5;
 
-        private int accountLockoutDuration = 30;
+        @Positive(message = "Максимальное число попыток входа с одного IP должно быть положительным")
+        private int maxLoginAttemptsPerIp = 50;
+
+        // Длительность блокировки входа в миллисекундах
+        @Positive(message = "Длительность блокировки аккаунта должна быть положительной")
+        private long accountLockDuration = 900000;
+
+        @Positive(message = "Емкость журнала попыток входа должна быть положительной")
+        private int loginAttemptsCapacity = 100000;
+
+        @Positive(message = "Число потоков хеширования паролей должно быть положительным")
+        private int passwordHashingThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+        @Min(value = 0, message = "Емкость очереди хеширования паролей не может быть отрицательной")
+        private int passwordHashingQueueCapacity = 32;
+
+        // Максимальное ожидание результата хеширования в миллисекундах
+        @Positive(message = "Таймаут хеширования пароля должен быть положительным")
+        private long passwordHashingTimeout = 5000;
 
         private boolean enableHttps = false;
 
@@ -189,4 +226,74 @@ public class ApplicationProperties {
 
         private String phoneMask = "*** *** ## ##";
     }
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+        private boolean enabled = true;
+
+        // Вход и обновление токена - по IP, корзина маленькая: подбор пароля упирается в нее раньше блокировки
+        @NotNull(message = "Лимит запросов входа не может быть null")
+        private Limit login = new Limit(10, 20);
+
+        @NotNull(message = "Лимит переводов не может быть null")
+        private Limit transfer = new Limit(10, 30);
+
+        @NotNull(message = "Лимит изменяющих запросов не может быть null")
+        private Limit write = new Limit(30, 120);
+
+        @NotNull(message = "Лимит запросов чтения не может быть null")
+        private Limit read = new Limit(100, 600);
+
+        @Getter
+        @Setter
+        public static class Limit {
+            @Positive(message = "Емкость корзины запросов должна быть положительной")
+            private int capacity;
+
+            @Positive(message = "Скорость пополнения корзины запросов должна быть положительной")
+            private int refillPerMinute;
+
+            public Limit() {
+            }
+
+            public Limit(int capacity, int refillPerMinute) {
+                this.capacity = capacity;
+                this.refillPerMinute = refillPerMinute;
+            }
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class AdmissionControl {
+        private boolean enabled = true;
+
+        // Предел на класс эндпоинтов; стартует с размера пула Hikari и подстраивается по задержке
+        @Positive(message = "Начальный предел одновременных запросов должен быть положительным")
+        private int initialLimit = 10;
+
+        @Positive(message = "Минимальный предел одновременных запросов должен быть положительным")
+        private int minLimit = 2;
+
+        @Positive(message = "Максимальный предел одновременных запросов должен быть положительным")
+        private int maxLimit = 50;
+
+        // Общий предел всех классов: суммарный maximum-pool-size пулов Hikari, умноженный на это число.
+        // Запас сверх пула покрывает запросы, которые большую часть времени не держат соединение
+        @Positive(message = "Число запросов на соединение пула должно быть положительным")
+        private int requestsPerConnection = 2;
+
+        // Явный общий предел всех классов; если не задан, выводится из размера пулов
+        @Positive(message = "Общий предел одновременных запросов должен быть положительным")
+        private Integer globalLimit;
+
+        // Доля нового значения предела при каждом пересчете
+        @Positive(message = "Коэффициент сглаживания предела должен быть положительным")
+        private double smoothing = 0.2;
+
+        // Число замеров, за которое долгое среднее задержки забывает старые значения
+        @Positive(message = "Окно долгой задержки должно быть положительным")
+        private int longWindow = 600;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.example.bankcards.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Периодически измеряет отставание реплики. Пока отставание не измерено или превышает
+ * допустимое, реплика считается непригодной и чтение идет на основную базу.
+ * После записи, за которой следует сброс кеша второго уровня, чтение на время окна
+ * устаревания закрепляется за основной базой, иначе кеш заполнился бы строкой с реплики,
+ * еще не получившей изменение.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final long primaryPinMillis;
+
+    private volatile boolean replicaUsable;
+    private volatile double lastLagSeconds = Double.NaN;
+    private volatile long primaryPinnedUntil;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, double maxLagSeconds,
+                             long primaryPinMillis, MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        this.primaryPinMillis = primaryPinMillis;
+        Gauge.builder("datasource.replica.lag.seconds", this, monitor -> monitor.lastLagSeconds)
+                .description("Отставание реплики по последнему замеру")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .description("Направляются ли read-only транзакции на реплику")
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * Можно ли сейчас направить read-only транзакцию на реплику: реплика пригодна
+     * и не действует закрепление за основной базой после записи.
+     */
+    public boolean isReplicaReadable() {
+        return replicaUsable && System.currentTimeMillis() >= primaryPinnedUntil;
+    }
+
+    public void pinPrimaryAfterWrite() {
+        primaryPinnedUntil = System.currentTimeMillis() + primaryPinMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:5000}")
+    public void checkLag() {
+        boolean usable;
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(lagQuery, Double.class);
+            lastLagSeconds = lag != null ? lag : 0.0;
+            usable = lastLagSeconds <= maxLagSeconds;
+        } catch (Exception e) {
+            log.warn("Не удалось измерить отставание реплики: {}", e.getMessage());
+            lastLagSeconds = Double.NaN;
+            usable = false;
+        }
+        if (usable != replicaUsable) {
+            log.info(usable ? "Чтение переключено на реплику (отставание {} с)"
+                    : "Чтение переключено на основную базу (отставание {} с)", lastLagSeconds);
+        }
+        replicaUsable = usable;
+    }
+}
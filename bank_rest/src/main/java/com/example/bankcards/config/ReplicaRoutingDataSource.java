@@ -0,0 +1,38 @@
+package com.example.bankcards.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Направляет read-only транзакции на реплику, все остальное - на основную базу.
+ * Если реплика отстала, недоступна или чтение закреплено за основной базой после записи,
+ * оно тоже уходит на основную базу.
+ * Должен оборачиваться в LazyConnectionDataSourceProxy: признак readOnly выставляется
+ * уже после начала транзакции, и соединение нужно брать только при первом запросе.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaLagMonitor.isReplicaReadable()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
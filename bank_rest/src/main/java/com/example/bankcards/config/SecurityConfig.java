@@ -1,8 +1,17 @@
 package com.example.bankcards.config;
 
+import com.example.bankcards.security.AdmissionControlFilter;
+import com.example.bankcards.security.AdmissionController;
+import com.example.bankcards.security.BoundedPasswordEncoder;
 import com.example.bankcards.security.CustomUserDetailsService;
 import com.example.bankcards.security.JwtAuthenticationFilter;
 import com.example.bankcards.security.JwtTokenProvider;
+import com.example.bankcards.security.RateLimitFilter;
+import com.example.bankcards.security.RequestRateLimiter;
+import com.example.bankcards.security.TokenRevocationList;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -32,15 +41,24 @@ public class SecurityConfig {
     private final CustomUserDetailsService customUserDetailsService;
     private final JwtTokenProvider tokenProvider;
     private final ApplicationProperties applicationProperties;
+    private final RequestRateLimiter requestRateLimiter;
+    private final AdmissionController admissionController;
+    private final TokenRevocationList tokenRevocationList;
+    private final ObjectMapper objectMapper;
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(tokenProvider, customUserDetailsService);
+        return new JwtAuthenticationFilter(tokenProvider, customUserDetailsService, tokenRevocationList);
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        ApplicationProperties.Security security = applicationProperties.getSecurity();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(),
+                security.getPasswordHashingThreads(),
+                security.getPasswordHashingQueueCapacity(),
+                security.getPasswordHashingTimeout(),
+                meterRegistry);
     }
 
     @Bean
@@ -56,16 +74,23 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Завершение потоковых ответов: исходный запрос уже прошел авторизацию
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**")
                         .permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .requestMatchers("/api/cards/my/**").hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/api/transfers/my/**").hasAnyRole("USER", "ADMIN")
                         .anyRequest().authenticated()
                 )
                 .userDetailsService(customUserDetailsService)
-                .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
+                // Не @Bean: иначе Boot зарегистрирует фильтр в контейнере до цепочки, без аутентификации
+                .addFilterAfter(new RateLimitFilter(requestRateLimiter, objectMapper), JwtAuthenticationFilter.class)
+                .addFilterAfter(new AdmissionControlFilter(admissionController, objectMapper), RateLimitFilter.class);
         return http.build();
     }
 
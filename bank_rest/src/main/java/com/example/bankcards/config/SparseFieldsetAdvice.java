@@ -0,0 +1,66 @@
+package com.example.bankcards.config;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Поддержка параметра fields (например, ?fields=id,balance): у DTO с @JsonFilter(FILTER_ID)
+ * сериализуются только перечисленные поля, конверт ApiResponse и PageResponse остается полным.
+ * Без параметра ответ не меняется.
+ */
+@RestControllerAdvice
+public class SparseFieldsetAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    public static final String FILTER_ID = "sparseFieldset";
+    public static final String FIELDS_PARAMETER = "fields";
+
+    private static final int MAX_CACHED_FILTERS = 256;
+
+    // Клиенты запрашивают небольшое число одинаковых наборов полей, поэтому фильтры переиспользуются
+    private final Map<String, FilterProvider> filterCache = new ConcurrentHashMap<>();
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String fields = servletRequest.getServletRequest().getParameter(FIELDS_PARAMETER);
+        if (fields == null || fields.isBlank()) {
+            return;
+        }
+        FilterProvider filters = filterCache.get(fields);
+        if (filters == null) {
+            filters = createFilters(fields);
+            if (filterCache.size() < MAX_CACHED_FILTERS) {
+                filterCache.putIfAbsent(fields, filters);
+            }
+        }
+        bodyContainer.setFilters(filters);
+    }
+
+    private static FilterProvider createFilters(String fields) {
+        Set<String> names = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+        return new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.ApiResponse;
+import com.example.bankcards.dto.TransactionRollupDTO;
+import com.example.bankcards.entity.CardType;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.service.TransactionAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static globalConstants.AuthorizationConstants.HAS_ROLE_ADMIN;
+import static globalConstants.EndpointConstants.TRANSACTION_ANALYTICS_ENDPOINT;
+import static globalConstants.MessageConstants.GET_TRANSACTION_ANALYTICS_MESSAGE;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+@Tag(name = "Аналитика", description = "API отчетов по операциям для администратора")
+@SecurityRequirement(name = "bearerAuth")
+public class AnalyticsController {
+
+    private static final int DEFAULT_PERIOD_DAYS = 30;
+
+    private final TransactionAnalyticsService analyticsService;
+
+    @GetMapping("/transactions")
+    @Operation(summary = "Сводка по операциям",
+            description = "Число операций и отказов, доля отказов, объем и комиссия по дням, валютам и типам карт "
+                    + "(доступно только ADMIN). По умолчанию - последние 30 дней")
+    @PreAuthorize(HAS_ROLE_ADMIN)
+    public ResponseEntity<ApiResponse> getTransactionAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Currency currency,
+            @RequestParam(required = false) CardType cardType) {
+        LocalDate periodEnd = to != null ? to : LocalDate.now();
+        LocalDate periodStart = from != null ? from : periodEnd.minusDays(DEFAULT_PERIOD_DAYS - 1);
+        List<TransactionRollupDTO> rollups = analyticsService.getDailyRollups(periodStart, periodEnd,
+                currency, cardType);
+        return ResponseEntity.ok(ApiResponse.success(GET_TRANSACTION_ANALYTICS_MESSAGE, rollups,
+                TRANSACTION_ANALYTICS_ENDPOINT));
+    }
+}
@@ -9,6 +9,7 @@ import com.example.bankcards.exception.ValidationException;
 import com.example.bankcards.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -30,8 +31,9 @@ public class AuthController {
 
     @PostMapping("/login")
     @Operation(summary = "Вход в систему", description = "Аутентификация пользователя и получение JWT токена")
-    public ResponseEntity<ApiResponse> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        LoginResponse loginResponse = authService.authenticate(loginRequest);
+    public ResponseEntity<ApiResponse> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                        HttpServletRequest request) {
+        LoginResponse loginResponse = authService.authenticate(loginRequest, request.getRemoteAddr());
         return ResponseEntity.ok(ApiResponse.success(LOGIN_SUCCESS_MESSAGE, loginResponse,
                 LOGIN_ENDPOINT));
     }
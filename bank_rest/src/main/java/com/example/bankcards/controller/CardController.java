@@ -1,6 +1,7 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.*;
+import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.security.UserPrincipal;
 import com.example.bankcards.service.CardService;
 import com.example.bankcards.security.CardSecurity;
@@ -13,18 +14,20 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static globalConstants.AuthorizationConstants.CARD_OWNER_OR_ADMIN;
 import static globalConstants.AuthorizationConstants.HAS_ROLE_ADMIN;
-import static globalConstants.CardStatusConstants.*;
 import static globalConstants.EndpointConstants.*;
 import static globalConstants.MessageConstants.*;
 
@@ -49,10 +52,15 @@ public class CardController {
     @GetMapping
     @Operation(summary = "Получение всех карт пользователя",
             description = "Получение списка всех карт текущего пользователя")
-    public ResponseEntity<ApiResponse> getUserCards(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<ApiResponse> getUserCards(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                                    WebRequest webRequest) {
         Long currentUserId = userPrincipal.getId();
+        String eTag = cardService.getUserCardsETag(currentUserId);
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
         List<CardDTO> cards = cardService.getUserCards(currentUserId);
-        return ResponseEntity.ok(ApiResponse.success(GET_USERS_CARDS_SUCCESS_MESSAGE, cards,
+        return conditionalOk(eTag).body(ApiResponse.success(GET_USERS_CARDS_SUCCESS_MESSAGE, cards,
                 CARDS_BASE_PATH));
     }
 
@@ -87,35 +95,31 @@ public class CardController {
             description = "Получение детального статуса карты (Активна, Заблокирована, Истек срок)")
     @PreAuthorize(CARD_OWNER_OR_ADMIN)
     public ResponseEntity<ApiResponse> getCardStatus(@PathVariable Long id) {
-        CardDTO cardDTO = cardService.getCardById(id);
-        String status;
-        String statusDescription;
-        boolean expired = cardDTO.getExpiryDate().isBefore(LocalDate.now());
-        boolean valid = cardDTO.getActive() != null && cardDTO.getActive() &&
-                cardDTO.getIsBlocked() != null && !cardDTO.getIsBlocked() && !expired;
-        long daysUntilExpiry = java.time.temporal.ChronoUnit.DAYS.between(LocalDate.now(), cardDTO.getExpiryDate());
-        if (cardDTO.getActive() == null || !cardDTO.getActive()) {
-            status = DEACTIVATED_STATUS;
-            statusDescription = DEACTIVATED_STATUS_DESCRIPTION;
-        } else if (cardDTO.getIsBlocked() != null && cardDTO.getIsBlocked()) {
-            status = BLOCKED_STATUS;
-            statusDescription = BLOCKED_STATUS_DESCRIPTION;
-        } else if (expired) {
-            status = EXPIRED_STATUS;
-            statusDescription = EXPIRED_STATUS_DESCRIPTION;
-        } else {
-            status = ACTIVE_STATUS;
-            statusDescription = ACTIVE_STATUS_DESCRIPTION;
-        }
-        CardStatusResponse statusResponse = new CardStatusResponse(
-                status, statusDescription, cardDTO.getActive(),
-                cardDTO.getIsBlocked(), expired, valid,
-                cardDTO.getExpiryDate(), daysUntilExpiry, cardDTO
-        );
+        CardStatusResponse statusResponse = cardService.getCardStatusWithCard(id);
         return ResponseEntity.ok(ApiResponse.success(GET_CARD_STATUS_MESSAGE,
                 statusResponse, CARDS_BASE_PATH + "/" + id + "/status"));
     }
 
+    @GetMapping("/{id}/status/summary")
+    @Operation(summary = "Краткий статус карты",
+            description = "Статус карты без данных карты: не загружает карту и не расшифровывает номер")
+    @PreAuthorize(CARD_OWNER_OR_ADMIN)
+    public ResponseEntity<ApiResponse> getCardStatusSummary(@PathVariable Long id) {
+        CardStatusResponse statusResponse = cardService.getCardStatus(id);
+        return ResponseEntity.ok(ApiResponse.success(GET_CARD_STATUS_MESSAGE,
+                statusResponse, CARDS_BASE_PATH + "/" + id + "/status/summary"));
+    }
+
+    @GetMapping("/status-report")
+    @Operation(summary = "Отчет по статусам карт",
+            description = "Количество карт в каждом статусе (доступно только ADMIN)")
+    @PreAuthorize(HAS_ROLE_ADMIN)
+    public ResponseEntity<ApiResponse> getStatusReport() {
+        Map<CardStatus, Long> report = cardService.getStatusReport();
+        return ResponseEntity.ok(ApiResponse.success(GET_CARD_STATUS_REPORT_MESSAGE, report,
+                CARD_STATUS_REPORT_ENDPOINT));
+    }
+
     @GetMapping("/user/{userId}")
     @Operation(summary = "Получение карт пользователя",
             description = "Получение списка карт указанного пользователя (доступно только ADMIN)")
@@ -156,7 +160,11 @@ public class CardController {
     @GetMapping("/{id}/balance")
     @Operation(summary = "Получение баланса карты", description = "Получение текущего баланса карты")
     @PreAuthorize(CARD_OWNER_OR_ADMIN)
-    public ResponseEntity<ApiResponse> getCardBalance(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse> getCardBalance(@PathVariable Long id, WebRequest webRequest) {
+        String eTag = cardService.getCardETag(id);
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
         CardDTO cardDTO = cardService.getCardById(id);
         BalanceResponse balanceResponse = new BalanceResponse(
                 cardDTO.getId(),
@@ -164,16 +172,21 @@ public class CardController {
                 cardDTO.getBalance(),
                 cardDTO.getCurrency().name()
         );
-        return ResponseEntity.ok(ApiResponse.success(GET_BALANCE_SUCCESS_MESSAGE,
+        return conditionalOk(eTag).body(ApiResponse.success(GET_BALANCE_SUCCESS_MESSAGE,
                 balanceResponse, CARDS_BASE_PATH + "/" + id + "/balance"));
     }
 
     @GetMapping("/total-balance")
     @Operation(summary = "Общий баланс пользователя", description = "Получение общего баланса всех карт пользователя")
-    public ResponseEntity<ApiResponse> getTotalBalance(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<ApiResponse> getTotalBalance(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                                       WebRequest webRequest) {
         Long userId = userPrincipal.getId();
+        String eTag = cardService.getUserCardsETag(userId);
+        if (webRequest.checkNotModified(eTag)) {
+            return notModified(eTag);
+        }
         BigDecimal totalBalance = cardService.getTotalBalance(userId);
-        return ResponseEntity.ok(ApiResponse.success(GET_TOTAL_BALANCE_SUCCESS_MESSAGE,
+        return conditionalOk(eTag).body(ApiResponse.success(GET_TOTAL_BALANCE_SUCCESS_MESSAGE,
                 totalBalance, TOTAL_BALANCE_ENDPOINT));
     }
 
@@ -190,6 +203,20 @@ public class CardController {
         }
     }
 
+    // Ответ можно хранить только на клиенте и перед использованием нужно перепроверить по ETag
+    private static ResponseEntity.BodyBuilder conditionalOk(String eTag) {
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+    }
+
+    private static ResponseEntity<ApiResponse> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+    }
+
     public record BalanceResponse(Long cardId, String cardNumber, BigDecimal balance, String currency) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.ApiResponse;
+import com.example.bankcards.dto.DashboardDTO;
+import com.example.bankcards.security.UserPrincipal;
+import com.example.bankcards.service.DashboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static globalConstants.EndpointConstants.DASHBOARD_ENDPOINT;
+import static globalConstants.MessageConstants.GET_DASHBOARD_SUCCESS_MESSAGE;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+@Tag(name = "Главный экран", description = "API сводных данных для главного экрана приложения")
+@SecurityRequirement(name = "bearerAuth")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping
+    @Operation(summary = "Главный экран",
+            description = "Карты, итоги по валютам и последние транзакции текущего пользователя одним запросом")
+    public ResponseEntity<ApiResponse> getDashboard(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                                    @RequestParam(defaultValue = "10") int transactions) {
+        DashboardDTO dashboard = dashboardService.getDashboard(userPrincipal.getId(), transactions);
+        return ResponseEntity.ok(ApiResponse.success(GET_DASHBOARD_SUCCESS_MESSAGE, dashboard, DASHBOARD_ENDPOINT));
+    }
+}
@@ -2,22 +2,32 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.ApiResponse;
 import com.example.bankcards.dto.OwnCardsTransferRequest;
+import com.example.bankcards.dto.StatementFormat;
 import com.example.bankcards.dto.TransactionDTO;
 import com.example.bankcards.dto.TransactionRequest;
 import com.example.bankcards.exception.ValidationException;
 import com.example.bankcards.security.CardSecurity;
 import com.example.bankcards.security.UserPrincipal;
+import com.example.bankcards.service.StatementExportService;
+import com.example.bankcards.service.TransactionEventHub;
 import com.example.bankcards.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -34,6 +44,8 @@ import static globalConstants.MessageConstants.*;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final StatementExportService statementExportService;
+    private final TransactionEventHub transactionEventHub;
     private final CardSecurity cardSecurity;
 
     @PostMapping("/transfer")
@@ -84,6 +96,34 @@ public class TransactionController {
                 transactions, GET_TRANSACTIONS_ENDPOINT));
     }
 
+    @GetMapping("/statement")
+    @Operation(summary = "Выписка по транзакциям",
+            description = "Потоковая выгрузка всех транзакций текущего пользователя в CSV или NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @RequestParam(defaultValue = "CSV") StatementFormat format,
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            HttpServletRequest request) {
+        return statementResponse(userPrincipal.getId(), format, request);
+    }
+
+    @GetMapping("/user/{userId}/statement")
+    @Operation(summary = "Выписка пользователя",
+            description = "Потоковая выгрузка транзакций указанного пользователя (доступно только ADMIN)")
+    @PreAuthorize(HAS_ROLE_ADMIN)
+    public ResponseEntity<StreamingResponseBody> exportUserStatement(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "CSV") StatementFormat format,
+            HttpServletRequest request) {
+        return statementResponse(userId, format, request);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток событий транзакций",
+            description = "SSE-поток завершенных транзакций и изменений баланса карт текущего пользователя")
+    public SseEmitter streamTransactions(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+        return transactionEventHub.subscribe(userPrincipal.getId());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Получение транзакции по ID", description = "Получение информации о транзакции по ID")
     @PreAuthorize(TRANSACTION_PARTICIPANT_OR_ADMIN_BY_ID)
@@ -121,4 +161,24 @@ public class TransactionController {
         return ResponseEntity.ok(ApiResponse.success(CANCEL_TRANSACTION_SUCCESS_MESSAGE, null,
                 GET_TRANSACTIONS_ENDPOINT + "/" + id + "/cancel"));
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<StreamingResponseBody> statementResponse(Long userId, StatementFormat format,
+                                                                    HttpServletRequest request) {
+        StatementExportService.ExportPermit permit = statementExportService.acquireExportPermit();
+        // Тело может так и не запуститься (отказ исполнителя, таймаут, обрыв соединения),
+        // поэтому слот возвращается и по завершении асинхронной обработки запроса
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(permit, permit);
+        StreamingResponseBody body = outputStream -> {
+            try (permit) {
+                statementExportService.exportUserStatement(userId, format, outputStream);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("statement-" + userId + "." + format.getFileExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
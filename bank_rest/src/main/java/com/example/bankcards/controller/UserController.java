@@ -2,6 +2,8 @@ package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.ApiResponse;
 import com.example.bankcards.dto.CreateUserRequest;
+import com.example.bankcards.dto.KeysetPageResponse;
+import com.example.bankcards.dto.PageResponse;
 import com.example.bankcards.dto.UserDTO;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.security.UserPrincipal;
@@ -16,11 +18,10 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 import static globalConstants.AuthorizationConstants.HAS_ROLE_ADMIN;
 import static globalConstants.AuthorizationConstants.OWNER_OR_ADMIN;
 import static globalConstants.EndpointConstants.USERS_BASE_PATH;
+import static globalConstants.EndpointConstants.USERS_KEYSET_PATH;
 import static globalConstants.EndpointConstants.USERS_OWN_PATH;
 import static globalConstants.MessageConstants.*;
 
@@ -42,14 +43,31 @@ public class UserController {
     }
 
     @GetMapping
-    @Operation(summary = "Получение всех пользователей",
-            description = "Получение списка всех пользователей (доступно только ADMIN)")
+    @Operation(summary = "Получение пользователей с пагинацией",
+            description = "Постраничный список пользователей с необязательным поиском по началу username " +
+                    "или email (доступно только ADMIN)")
     @PreAuthorize(HAS_ROLE_ADMIN)
-    public ResponseEntity<ApiResponse> getAllUsers() {
-        List<UserDTO> users = userService.getAllUsers();
+    public ResponseEntity<ApiResponse> getAllUsers(
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        PageResponse<UserDTO> users = userService.getUsers(search, page, size);
         return ResponseEntity.ok(ApiResponse.success(GET_USERS_SUCCESS_MESSAGE, users, USERS_BASE_PATH));
     }
 
+    @GetMapping("/keyset")
+    @Operation(summary = "Получение пользователей по курсору",
+            description = "Keyset-пагинация по id для обхода большого списка пользователей: " +
+                    "следующая страница запрашивается с afterId = nextCursor (доступно только ADMIN)")
+    @PreAuthorize(HAS_ROLE_ADMIN)
+    public ResponseEntity<ApiResponse> getUsersAfter(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "50") int size) {
+        KeysetPageResponse<UserDTO> users = userService.getUsersAfter(afterId, search, size);
+        return ResponseEntity.ok(ApiResponse.success(GET_USERS_SUCCESS_MESSAGE, users, USERS_KEYSET_PATH));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Получение пользователя по ID", description = "Получение информации о пользователе по его ID")
     @PreAuthorize(OWNER_OR_ADMIN)
@@ -71,10 +89,12 @@ public class UserController {
 
     @GetMapping("/role/{role}")
     @Operation(summary = "Получение пользователей по роли",
-            description = "Получение списка пользователей по роли (доступно только ADMIN)")
+            description = "Постраничный список пользователей с заданной ролью (доступно только ADMIN)")
     @PreAuthorize(HAS_ROLE_ADMIN)
-    public ResponseEntity<ApiResponse> getUsersByRole(@PathVariable Role role) {
-        List<UserDTO> users = userService.getUsersByRole(role);
+    public ResponseEntity<ApiResponse> getUsersByRole(@PathVariable Role role,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "20") int size) {
+        PageResponse<UserDTO> users = userService.getUsersByRole(role, page, size);
         return ResponseEntity.ok(ApiResponse.success(GET_USERS_SUCCESS_MESSAGE,
                 users, USERS_BASE_PATH + "/role/" + role));
     }
@@ -1,7 +1,10 @@
 package com.example.bankcards.dto;
 
+import com.example.bankcards.config.SparseFieldsetAdvice;
+import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.CardType;
 import com.example.bankcards.entity.Currency;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,6 +14,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+@JsonFilter(SparseFieldsetAdvice.FILTER_ID)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,6 +31,7 @@ public class CardDTO {
     private BigDecimal availableCredit;
     private Boolean active;
     private Boolean isBlocked;
+    private CardStatus status;
     private LocalDateTime createdAt;
     private Long userId;
     private String userFullName;
@@ -1,9 +1,12 @@
 package com.example.bankcards.dto;
 
+import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.CardType;
 import com.example.bankcards.entity.Currency;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,9 +17,14 @@ import lombok.NoArgsConstructor;
 @Schema(description = "Запрос для поиска карт с пагинацией и фильтрацией")
 public class CardSearchRequest {
 
-    @Schema(description = "Часть номера карты для поиска", example = "1234")
+    @Pattern(regexp = "\\d{4}", message = "Для поиска укажите последние 4 цифры номера карты")
+    @Schema(description = "Последние 4 цифры номера карты", example = "1234")
     private String cardNumber;
 
+    @Size(max = 100, message = "Имя держателя карты не должно превышать 100 символов")
+    @Schema(description = "Начало имени держателя карты (без учета регистра)", example = "Ivan")
+    private String cardHolderName;
+
     @Schema(description = "Тип карты", example = "DEBIT")
     private CardType cardType;
 
@@ -29,6 +37,9 @@ public class CardSearchRequest {
     @Schema(description = "Статус блокировки карты", example = "false")
     private Boolean isBlocked;
 
+    @Schema(description = "Статус карты", example = "ACTIVE")
+    private CardStatus status;
+
     @Min(value = 0, message = "Номер страницы должен быть не меньше 0")
     @Schema(description = "Номер страницы (начинается с 0)", example = "0", defaultValue = "0")
     private int page = 0;
@@ -40,4 +51,8 @@ public class CardSearchRequest {
     @Schema(description = "Поле для сортировки (формат: field,asc|desc)", example = "createdAt,desc",
             defaultValue = "createdAt,desc")
     private String sort = "createdAt,desc";
+
+    @Schema(description = "Считать общее количество карт. false - режим slice без запроса COUNT, " +
+            "в ответе заполняется только hasNext", example = "true", defaultValue = "true")
+    private boolean includeTotal = true;
 }
\ No newline at end of file
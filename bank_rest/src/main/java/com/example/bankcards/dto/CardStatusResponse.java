@@ -1,5 +1,6 @@
 package com.example.bankcards.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,6 +14,9 @@ import java.time.LocalDate;
 @Schema(description = "Ответ с детальной информацией о статусе карты")
 public class CardStatusResponse {
 
+    @Schema(description = "ID карты", example = "1")
+    private Long cardId;
+
     @Schema(description = "Статус карты", example = "ACTIVE",
             allowableValues = {"ACTIVE", "BLOCKED", "EXPIRED", "DEACTIVATED"})
     private String status;
@@ -38,6 +42,8 @@ public class CardStatusResponse {
     @Schema(description = "Дней до истечения срока действия", example = "365")
     private Long daysUntilExpiry;
 
+    // Заполняется только для /cards/{id}/status, краткий ответ /status/summary отдает статус без карты
     @Schema(description = "Информация о карте")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private CardDTO card;
 }
@@ -0,0 +1,27 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDTO {
+    private List<CardDTO> cards;
+    private List<CurrencyTotal> totals;
+    private List<TransactionDTO> recentTransactions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CurrencyTotal {
+        private Currency currency;
+        private BigDecimal balance;
+        private int activeCards;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bankcards.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Ответ с keyset-пагинацией: следующая страница запрашивается по курсору без подсчета общего количества")
+public class KeysetPageResponse<T> {
+
+    @Schema(description = "Список элементов на текущей странице")
+    private List<T> content;
+
+    @Schema(description = "Размер страницы", example = "50")
+    private int pageSize;
+
+    @Schema(description = "Есть ли следующая страница", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Курсор для следующей страницы (id последнего элемента)", example = "1050")
+    private Long nextCursor;
+}
@@ -1,5 +1,6 @@
 package com.example.bankcards.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -22,11 +23,13 @@ public class PageResponse<T> {
     @Schema(description = "Размер страницы", example = "20")
     private int pageSize;
 
-    @Schema(description = "Общее количество элементов", example = "150")
-    private long totalElements;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Общее количество элементов (не заполняется в режиме slice)", example = "150")
+    private Long totalElements;
 
-    @Schema(description = "Общее количество страниц", example = "8")
-    private int totalPages;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Общее количество страниц (не заполняется в режиме slice)", example = "8")
+    private Integer totalPages;
 
     @Schema(description = "Есть ли следующая страница", example = "true")
     private boolean hasNext;
@@ -43,4 +46,11 @@ public class PageResponse<T> {
         this.hasNext = currentPage < totalPages - 1;
         this.hasPrevious = currentPage > 0;
     }
+
+    /**
+     * Страница без подсчета общего количества: о следующей странице известно только hasNext.
+     */
+    public static <T> PageResponse<T> slice(List<T> content, int currentPage, int pageSize, boolean hasNext) {
+        return new PageResponse<>(content, currentPage, pageSize, null, null, hasNext, currentPage > 0);
+    }
 }
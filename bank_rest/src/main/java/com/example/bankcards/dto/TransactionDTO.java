@@ -1,7 +1,9 @@
 package com.example.bankcards.dto;
 
+import com.example.bankcards.config.SparseFieldsetAdvice;
 import com.example.bankcards.entity.TransactionStatus;
 import com.example.bankcards.entity.TransactionType;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,6 +11,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+@JsonFilter(SparseFieldsetAdvice.FILTER_ID)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +23,8 @@ public class TransactionDTO {
     private TransactionStatus status;
     private String description;
     private BigDecimal commission;
+    private BigDecimal convertedAmount;
+    private BigDecimal exchangeRate;
     private LocalDateTime createdAt;
 
     private Long fromUserId;
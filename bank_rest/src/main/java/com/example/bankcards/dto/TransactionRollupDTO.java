@@ -0,0 +1,26 @@
+package com.example.bankcards.dto;
+
+import com.example.bankcards.entity.CardType;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.entity.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRollupDTO {
+    private LocalDate date;
+    private Currency currency;
+    private CardType cardType;
+    private TransactionType transactionType;
+    private long completedCount;
+    private long failedCount;
+    private BigDecimal failureRate;
+    private BigDecimal volume;
+    private BigDecimal commission;
+}
@@ -1,11 +1,14 @@
 package com.example.bankcards.dto;
 
+import com.example.bankcards.config.SparseFieldsetAdvice;
 import com.example.bankcards.entity.Role;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+@JsonFilter(SparseFieldsetAdvice.FILTER_ID)
 @Data
 @NoArgsConstructor
 public class UserDTO {
@@ -13,6 +13,8 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+// Карта не кешируется во втором уровне: баланс, статус и версия меняются при каждой операции,
+// а локальный кеш на узле отдавал бы их с задержкой до TTL и с отставанием реплики
 @Entity
 @Table(name = "cards")
 @Getter
@@ -20,6 +22,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Card {
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -28,6 +31,14 @@ public class Card {
     @Column(name = "card_number", nullable = false, unique = true, length = 500)
     private String cardNumber;
 
+    // Последние 4 цифры номера в открытом виде: единственная часть номера, по которой возможен поиск
+    @Column(name = "card_number_last4", length = 4)
+    private String cardNumberLast4;
+
+    // Слепой индекс номера (HMAC-SHA256): по нему проверяется уникальность без расшифровки
+    @Column(name = "card_number_hash", unique = true, length = 64)
+    private String cardNumberHash;
+
     @NotBlank
     @Size(max = 100)
     @Column(name = "card_holder_name", nullable = false)
@@ -57,6 +68,15 @@ public class Card {
     @Column(name = "is_blocked", nullable = false)
     private Boolean isBlocked = false;
 
+    // Хранимое состояние карты: меняется CardService и ночной проверкой сроков (CardLifecycleService)
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CardStatus status = CardStatus.ACTIVE;
+
+    // Когда было отправлено событие о перевыпуске, чтобы не отправлять его повторно
+    @Column(name = "reissue_requested_at")
+    private LocalDateTime reissueRequestedAt;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -65,10 +85,25 @@ public class Card {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    // Увеличивается Hibernate при каждом изменении баланса или статуса, используется для ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public boolean isExpired() {
         return expiryDate.isBefore(LocalDate.now());
     }
 
+    public CardStatus resolveStatus() {
+        if (!active) {
+            return CardStatus.DEACTIVATED;
+        }
+        if (isBlocked) {
+            return CardStatus.BLOCKED;
+        }
+        return isExpired() ? CardStatus.EXPIRED : CardStatus.ACTIVE;
+    }
+
     public boolean isValid() {
         return active && !isBlocked && !isExpired();
     }
@@ -0,0 +1,12 @@
+package com.example.bankcards.entity;
+
+/**
+ * Состояние карты, хранимое в cards.status. Приоритет при вычислении:
+ * деактивация, затем блокировка, затем истечение срока.
+ */
+public enum CardStatus {
+    ACTIVE,
+    BLOCKED,
+    EXPIRED,
+    DEACTIVATED
+}
@@ -48,8 +48,14 @@ public class Transaction {
     @Column(name = "commission", nullable = false)
     private BigDecimal commission = BigDecimal.ZERO;
 
+    @Column(name = "converted_amount")
+    private BigDecimal convertedAmount;
+
+    @Column(name = "exchange_rate", precision = 19, scale = 8)
+    private BigDecimal exchangeRate;
+
     @CreationTimestamp
-    @Column(name = "created_at", updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,48 @@
+package com.example.bankcards.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Дневная сводка по операциям. Строки не пересчитываются из transactions, а увеличиваются
+ * на дельты из событий outbox (см. TransactionRollupSink).
+ */
+@Entity
+@Table(name = "transaction_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+public class TransactionRollup {
+    @EmbeddedId
+    private TransactionRollupKey id;
+
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private long failedCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal volume = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal commission = BigDecimal.ZERO;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public TransactionRollup(TransactionRollupKey id, long completedCount, long failedCount,
+                             BigDecimal volume, BigDecimal commission, LocalDateTime updatedAt) {
+        this.id = id;
+        this.completedCount = completedCount;
+        this.failedCount = failedCount;
+        this.volume = volume;
+        this.commission = commission;
+        this.updatedAt = updatedAt;
+    }
+}
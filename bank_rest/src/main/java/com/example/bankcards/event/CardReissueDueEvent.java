@@ -0,0 +1,16 @@
+package com.example.bankcards.event;
+
+import com.example.bankcards.entity.CardType;
+import com.example.bankcards.entity.Currency;
+
+import java.time.LocalDate;
+
+/**
+ * Карта скоро истекает и требует перевыпуска. Публикуется через outbox один раз на карту.
+ */
+public record CardReissueDueEvent(Long cardId, Long userId, LocalDate expiryDate, CardType cardType,
+                                  Currency currency) {
+
+    public static final String AGGREGATE_TYPE = "Card";
+    public static final String EVENT_TYPE = "CardReissueDue";
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.event;
+
+import com.example.bankcards.dto.TransactionDTO;
+import com.example.bankcards.entity.CardType;
+import com.example.bankcards.entity.Currency;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Публикуется TransactionService при успешном завершении операции.
+ * Слушатели получают событие только после коммита транзакции БД,
+ * внешние системы - через outbox (см. OutboxRelay).
+ */
+public record TransactionCompletedEvent(TransactionDTO transaction, List<BalanceChange> balances) {
+
+    public static final String AGGREGATE_TYPE = "Transaction";
+    public static final String EVENT_TYPE = "TransactionCompleted";
+
+    public record BalanceChange(Long userId, Long cardId, BigDecimal balance, Currency currency, CardType cardType) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.bankcards.event;
+
+import com.example.bankcards.entity.CardType;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Операция по карте не прошла. Сама транзакция откатывается, поэтому событие пишется в outbox
+ * отдельной транзакцией (см. TransactionFailureRecorder) и нужно для учета отказов в сводках.
+ */
+public record TransactionFailedEvent(TransactionType type, Long cardId, Currency currency, CardType cardType,
+                                     BigDecimal amount, String reason, LocalDateTime failedAt) {
+
+    public static final String AGGREGATE_TYPE = "Card";
+    public static final String EVENT_TYPE = "TransactionFailed";
+}
@@ -2,6 +2,8 @@ package com.example.bankcards.exception;
 
 import com.example.bankcards.dto.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -16,6 +18,8 @@ import org.springframework.web.context.request.WebRequest;
 import java.util.HashMap;
 import java.util.Map;
 
+import static globalConstants.MessageConstants.CARD_CONCURRENT_MODIFICATION_MESSAGE;
+
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -41,6 +45,31 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
     }
 
+    // Обработка TransferLimitExceededException
+    @ExceptionHandler(TransferLimitExceededException.class)
+    public ResponseEntity<ApiResponse> handleTransferLimitExceededException(TransferLimitExceededException ex,
+                                                                            WebRequest request) {
+        log.warn("Превышен лимит переводов: {}", ex.getMessage());
+        ApiResponse apiResponse = ApiResponse.error(
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    // Обработка TooManyRequestsException
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse> handleTooManyRequestsException(TooManyRequestsException ex, WebRequest request) {
+        log.warn("Запрос отклонен из-за перегрузки: {}", ex.getMessage());
+        ApiResponse apiResponse = ApiResponse.error(
+                ex.getMessage(),
+                request.getDescription(false)
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(apiResponse);
+    }
+
     // Обработка AuthenticationException
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ApiResponse> handleAuthenticationException(AuthenticationException ex, WebRequest request) {
@@ -63,6 +92,18 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
     }
 
+    // Обработка конфликта версий карты при одновременном изменении
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex,
+                                                                               WebRequest request) {
+        log.warn("Конфликт одновременного изменения: {}", ex.getMessage());
+        ApiResponse apiResponse = ApiResponse.error(
+                CARD_CONCURRENT_MODIFICATION_MESSAGE,
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(apiResponse, HttpStatus.CONFLICT);
+    }
+
     // Обработка TransactionException
     @ExceptionHandler(TransactionException.class)
     public ResponseEntity<ApiResponse> handleTransactionException(TransactionException ex, WebRequest request) {
@@ -0,0 +1,8 @@
+package com.example.bankcards.exception;
+
+public class TransferLimitExceededException extends RuntimeException {
+
+    public TransferLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.bankcards.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Доставляет события слушателям внутри приложения (@EventListener на OutboxMessage).
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.outbox.sinks.in-process", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class ApplicationEventOutboxSink implements OutboxEventSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String name() {
+        return "in-process";
+    }
+
+    @Override
+    public void publish(OutboxMessage message) {
+        eventPublisher.publishEvent(message);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bankcards.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Дописывает события в NDJSON-файл, по одному объекту на строку.
+ * Буфер сбрасывается на диск в конце каждой пачки relay.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.outbox.sinks.file", name = "enabled", havingValue = "true")
+public class FileOutboxSink implements OutboxEventSink, DisposableBean {
+
+    private final Path path;
+    private final ObjectWriter messageWriter;
+    // Не synchronized: запись в файл под монитором закрепила бы виртуальный поток планировщика
+    private final ReentrantLock lock = new ReentrantLock();
+    private BufferedWriter writer;
+
+    public FileOutboxSink(@Value("${app.outbox.sinks.file.path:logs/outbox-events.ndjson}") Path path,
+                          ObjectMapper objectMapper) {
+        this.path = path;
+        this.messageWriter = objectMapper.writerFor(OutboxMessage.class);
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public void publish(OutboxMessage message) throws IOException {
+        String line = messageWriter.writeValueAsString(message);
+        lock.lock();
+        try {
+            BufferedWriter out = writer();
+            out.write(line);
+            out.newLine();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        lock.lock();
+        try {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BufferedWriter writer() throws IOException {
+        if (writer == null) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            log.info("События outbox пишутся в файл {}", path.toAbsolutePath());
+        }
+        return writer;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.bankcards.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Локальная замена брокера сообщений: ограниченная очередь, из которой потребители забирают события.
+ * Если очередь заполнена дольше offer-timeout, публикация завершается ошибкой и relay
+ * повторит событие на следующем проходе.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox.sinks.broker", name = "enabled", havingValue = "true")
+public class InMemoryBrokerOutboxSink implements OutboxEventSink {
+
+    private final BlockingQueue<OutboxMessage> queue;
+    private final long offerTimeoutMillis;
+
+    public InMemoryBrokerOutboxSink(@Value("${app.outbox.sinks.broker.capacity:10000}") int capacity,
+                                    @Value("${app.outbox.sinks.broker.offer-timeout:100}") long offerTimeoutMillis) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+    }
+
+    @Override
+    public String name() {
+        return "broker";
+    }
+
+    @Override
+    public void publish(OutboxMessage message) throws InterruptedException {
+        if (!queue.offer(message, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Очередь брокера заполнена, событие " + message.id() + " не принято");
+        }
+    }
+
+    public OutboxMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.bankcards.outbox;
+
+/**
+ * Получатель событий из outbox. OutboxRelay передает события каждому sink'у по порядку id,
+ * а после пачки вызывает flush; событие считается опубликованным, только если все sink'и
+ * приняли его без исключения.
+ */
+public interface OutboxEventSink {
+
+    String name();
+
+    void publish(OutboxMessage message) throws Exception;
+
+    default void flush() throws Exception {
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.entity.OutboxEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Неизменяемая копия строки outbox, которую получают sink'и.
+ * Доставка выполняется по принципу "хотя бы один раз", поэтому получатели отбрасывают повторы по id.
+ */
+public record OutboxMessage(Long id,
+                            String aggregateType,
+                            String aggregateId,
+                            String eventType,
+                            String payload,
+                            LocalDateTime createdAt) {
+
+    public static OutboxMessage from(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                event.getEventType(), event.getPayload(), event.getCreatedAt());
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.entity.OutboxEvent;
+import com.example.bankcards.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Читает неопубликованные события outbox пачками по порядку id и передает их всем sink'ам.
+ * Пачка обрабатывается в одной транзакции: строки блокируются, после успешной доставки
+ * получают published_at. Если sink упал на событии, предыдущие события пачки фиксируются,
+ * а это событие и следующие за ним будут повторены не раньше, чем через интервал повтора,
+ * который удваивается с каждой попыткой. Событие, не доставленное за max-attempts попыток,
+ * откладывается (parked_at) и больше не задерживает очередь: одно "ядовитое" событие
+ * не может навсегда остановить outbox.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration retention;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Counter parkedCounter;
+    private final Timer batchTimer;
+    private final Timer deliveryLagTimer;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ObjectProvider<OutboxEventSink> sinks,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${app.outbox.relay.max-batches-per-run:50}") int maxBatchesPerRun,
+                       @Value("${app.outbox.retention-hours:72}") long retentionHours,
+                       @Value("${app.outbox.relay.max-attempts:10}") int maxAttempts,
+                       @Value("${app.outbox.relay.retry-backoff:1000}") long retryBackoffMillis,
+                       @Value("${app.outbox.relay.max-retry-backoff:300000}") long maxRetryBackoffMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks.orderedStream().toList();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retention = Duration.ofHours(retentionHours);
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMillis);
+        this.maxRetryBackoff = Duration.ofMillis(maxRetryBackoffMillis);
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("События outbox, доставленные всем sink'ам")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.relay.failed")
+                .description("Неудачные попытки доставки событий outbox")
+                .register(meterRegistry);
+        this.parkedCounter = Counter.builder("outbox.relay.parked")
+                .description("События outbox, отложенные после исчерпания попыток доставки")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch.duration")
+                .description("Время обработки одной пачки outbox")
+                .register(meterRegistry);
+        this.deliveryLagTimer = Timer.builder("outbox.relay.delivery.lag")
+                .description("Задержка между записью события в outbox и его доставкой")
+                .register(meterRegistry);
+        log.info("Outbox relay запущен, sink'и: {}", this.sinks.stream().map(OutboxEventSink::name).toList());
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay.poll-interval:1000}",
+            initialDelayString = "${app.outbox.relay.initial-delay:5000}")
+    public void relay() {
+        try {
+            int batches = 0;
+            int delivered;
+            do {
+                delivered = relayBatch();
+            } while (delivered == batchSize && ++batches < maxBatchesPerRun);
+        } catch (RuntimeException e) {
+            log.error("Ошибка доставки событий outbox", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.purge-cron:0 15 4 * * *}")
+    public void purgePublished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        log.info("Удалено опубликованных событий outbox: {}", deleted);
+    }
+
+    int relayBatch() {
+        Integer delivered = transactionTemplate.execute(status -> batchTimer.record(() -> {
+            List<OutboxEvent> events = outboxEventRepository.findUnpublishedForUpdate(batchSize);
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> published = new ArrayList<>(events.size());
+            for (OutboxEvent event : events) {
+                // Очередь ждет повтора первого недоставленного события, чтобы не нарушить порядок
+                if (event.getNextAttemptAt() != null && event.getNextAttemptAt().isAfter(now)) {
+                    break;
+                }
+                if (deliver(event)) {
+                    published.add(event);
+                } else if (!scheduleRetryOrPark(event, now)) {
+                    break;
+                }
+            }
+            flushSinks();
+            LocalDateTime publishedAt = LocalDateTime.now();
+            for (OutboxEvent event : published) {
+                event.setPublishedAt(publishedAt);
+                if (event.getCreatedAt() != null) {
+                    deliveryLagTimer.record(Duration.between(event.getCreatedAt(), publishedAt));
+                }
+            }
+            publishedCounter.increment(published.size());
+            return published.size();
+        }));
+        return delivered != null ? delivered : 0;
+    }
+
+    private boolean deliver(OutboxEvent event) {
+        OutboxMessage message = OutboxMessage.from(event);
+        for (OutboxEventSink sink : sinks) {
+            try {
+                sink.publish(message);
+            } catch (Exception e) {
+                failedCounter.increment();
+                event.setAttempts(event.getAttempts() + 1);
+                event.setLastError(truncate(sink.name() + ": " + e.getMessage()));
+                log.warn("Sink {} не принял событие outbox {} (попытка {}): {}",
+                        sink.name(), event.getId(), event.getAttempts(), e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * После неудачной доставки либо назначает следующую попытку, либо при исчерпании попыток
+     * откладывает событие. Возвращает true, если событие отложено и пачку можно продолжать.
+     */
+    private boolean scheduleRetryOrPark(OutboxEvent event, LocalDateTime now) {
+        if (event.getAttempts() < maxAttempts) {
+            event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+            return false;
+        }
+        event.setParkedAt(now);
+        event.setNextAttemptAt(null);
+        parkedCounter.increment();
+        log.error("Событие outbox {} ({} {}) отложено после {} попыток доставки: {}", event.getId(),
+                event.getEventType(), event.getAggregateId(), event.getAttempts(), event.getLastError());
+        return true;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : delay;
+    }
+
+    // Ошибка сброса откатывает всю пачку: события будут доставлены повторно
+    private void flushSinks() {
+        for (OutboxEventSink sink : sinks) {
+            try {
+                sink.flush();
+            } catch (Exception e) {
+                failedCounter.increment();
+                throw new IllegalStateException("Sink " + sink.name() + " не смог сохранить пачку событий", e);
+            }
+        }
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
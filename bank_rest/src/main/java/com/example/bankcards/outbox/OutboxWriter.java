@@ -0,0 +1,32 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.entity.OutboxEvent;
+import com.example.bankcards.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Записывает событие в outbox. Вызывается только внутри транзакции бизнес-операции,
+ * чтобы событие и изменения данных фиксировались или откатывались вместе.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, String aggregateId, String eventType, Object payload) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType,
+                    objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Ошибка сериализации события " + eventType, e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.entity.CardType;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.entity.TransactionRollup;
+import com.example.bankcards.entity.TransactionRollupKey;
+import com.example.bankcards.entity.TransactionType;
+import com.example.bankcards.event.TransactionCompletedEvent;
+import com.example.bankcards.event.TransactionFailedEvent;
+import com.example.bankcards.repository.TransactionRollupRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Поддерживает дневные сводки transaction_rollups. События пачки копятся в памяти, а во flush
+ * сворачиваются по корзинам и применяются одним UPDATE на корзину. flush выполняется в транзакции
+ * relay, поэтому сводки и published_at фиксируются или откатываются вместе и повторная доставка
+ * не удваивает счетчики. Накопленные вклады привязаны к транзакции relay и отбрасываются при ее
+ * завершении, в том числе при откате, поэтому не переходят в следующую пачку или к другому потоку.
+ * Sink стоит последним: событие попадает в сводку только после того, как его приняли остальные sink'и.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "app.outbox.sinks.rollup", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class TransactionRollupSink implements OutboxEventSink {
+
+    private final TransactionRollupRepository rollupRepository;
+    private final ObjectReader reader;
+
+    public TransactionRollupSink(TransactionRollupRepository rollupRepository, ObjectMapper objectMapper) {
+        this.rollupRepository = rollupRepository;
+        // Суммы читаются как BigDecimal, без промежуточного double
+        this.reader = objectMapper.reader()
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .without(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES);
+    }
+
+    @Override
+    public String name() {
+        return "rollup";
+    }
+
+    @Override
+    public void publish(OutboxMessage message) {
+        Contribution contribution;
+        try {
+            contribution = switch (message.eventType()) {
+                case TransactionCompletedEvent.EVENT_TYPE -> completed(message);
+                case TransactionFailedEvent.EVENT_TYPE -> failed(message);
+                default -> null;
+            };
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            // Повтор не исправит payload, а ошибка здесь остановила бы всю очередь outbox
+            log.warn("Событие outbox {} не учтено в сводках: {}", message.id(), e.getMessage());
+            return;
+        }
+        if (contribution != null) {
+            currentBatch().contributions.put(message.id(), contribution);
+        }
+    }
+
+    @Override
+    public void flush() {
+        Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+        if (batch == null || batch.contributions.isEmpty()) {
+            return;
+        }
+        Map<Long, Contribution> pending = batch.contributions;
+        Map<TransactionRollupKey, Contribution> buckets = new LinkedHashMap<>();
+        for (Contribution contribution : pending.values()) {
+            buckets.merge(contribution.key(), contribution, Contribution::plus);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Contribution delta : buckets.values()) {
+            int updated = rollupRepository.increment(delta.key(), delta.completed(), delta.failed(),
+                    delta.volume(), delta.commission(), now);
+            if (updated == 0) {
+                rollupRepository.save(new TransactionRollup(delta.key(), delta.completed(), delta.failed(),
+                        delta.volume(), delta.commission(), now));
+            }
+        }
+        log.debug("Сводки обновлены: событий {}, корзин {}", pending.size(), buckets.size());
+        pending.clear();
+    }
+
+    /**
+     * Вклады текущей пачки. Создаются при первом событии пачки и живут до конца транзакции relay.
+     */
+    private Batch currentBatch() {
+        Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+        if (batch != null) {
+            return batch;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Сводки обновляются только в транзакции outbox relay");
+        }
+        Batch created = new Batch();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(TransactionRollupSink.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(TransactionRollupSink.this, created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TransactionRollupSink.this);
+            }
+        });
+        return created;
+    }
+
+    private Contribution completed(OutboxMessage message) throws JsonProcessingException {
+        JsonNode event = reader.readTree(message.payload());
+        JsonNode transaction = event.path("transaction");
+        TransactionType type = TransactionType.valueOf(transaction.path("type").asText());
+        // Сводка ведется по карте, с которой списаны деньги; у пополнения это карта зачисления
+        String cardField = type == TransactionType.DEPOSIT ? "toCardId" : "fromCardId";
+        long cardId = transaction.path(cardField).asLong();
+        for (JsonNode balance : event.path("balances")) {
+            if (balance.path("cardId").asLong() == cardId) {
+                TransactionRollupKey key = new TransactionRollupKey(bucketDate(message),
+                        Currency.valueOf(balance.path("currency").asText()),
+                        CardType.valueOf(balance.path("cardType").asText()), type);
+                return new Contribution(key, 1, 0, decimal(transaction.path("amount")),
+                        decimal(transaction.path("commission")));
+            }
+        }
+        throw new IllegalArgumentException("в событии нет карты " + cardId);
+    }
+
+    private Contribution failed(OutboxMessage message) throws JsonProcessingException {
+        TransactionFailedEvent event = reader.forType(TransactionFailedEvent.class)
+                .readValue(message.payload());
+        TransactionRollupKey key = new TransactionRollupKey(bucketDate(message), event.currency(),
+                event.cardType(), event.type());
+        return new Contribution(key, 0, 1, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    // Событие outbox пишется в одной транзакции с операцией, поэтому его дата - дата операции
+    private static LocalDate bucketDate(OutboxMessage message) {
+        return (message.createdAt() != null ? message.createdAt() : LocalDateTime.now()).toLocalDate();
+    }
+
+    private static BigDecimal decimal(JsonNode node) {
+        return node.isNumber() ? node.decimalValue() : BigDecimal.ZERO;
+    }
+
+    private static final class Batch {
+        // Ключ - id события: если событие пришло в пачке повторно, его вклад перезаписывается
+        private final Map<Long, Contribution> contributions = new LinkedHashMap<>();
+    }
+
+    private record Contribution(TransactionRollupKey key, long completed, long failed,
+                                BigDecimal volume, BigDecimal commission) {
+
+        Contribution plus(Contribution other) {
+            return new Contribution(key, completed + other.completed, failed + other.failed,
+                    volume.add(other.volume), commission.add(other.commission));
+        }
+    }
+}
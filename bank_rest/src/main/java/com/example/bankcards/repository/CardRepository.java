@@ -1,26 +1,31 @@
 package com.example.bankcards.repository;
 
 import com.example.bankcards.entity.Card;
-import com.example.bankcards.entity.CardType;
-import com.example.bankcards.entity.Currency;
-import org.springframework.data.domain.Page;
+import com.example.bankcards.entity.CardStatus;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CardRepository extends JpaRepository<Card, Long> {
+public interface CardRepository extends JpaRepository<Card, Long>, JpaSpecificationExecutor<Card>,
+        CardRepositoryCustom {
     // Поиск карты по номеру
     Optional<Card> findByCardNumber(String cardNumber);
 
-    // Поиск карт по пользователю
+    // Поиск карт по пользователю, владелец загружается тем же запросом
+    @EntityGraph(attributePaths = "user")
     List<Card> findByUserId(Long userId);
 
     // Поиск активных карт пользователя
@@ -30,21 +35,76 @@ public interface CardRepository extends JpaRepository<Card, Long> {
     @Query("SELECT SUM(c.balance) FROM Card c WHERE c.user.id = :userId AND c.active = true")
     Optional<BigDecimal> getTotalBalanceByUserId(@Param("userId") Long userId);
 
-    // Поиск карт пользователя с фильтрами и пагинацией
-    @Query("SELECT c FROM Card c WHERE " +
-            "c.user.id = :userId AND " +
-            "(:cardNumber IS NULL OR c.cardNumber LIKE CONCAT(:cardNumber, '%')) AND " +
-            "(:cardType IS NULL OR c.cardType = :cardType) AND " +
-            "(:currency IS NULL OR c.currency = :currency) AND " +
-            "(:active IS NULL OR c.active = :active) AND " +
-            "(:isBlocked IS NULL OR c.isBlocked = :isBlocked)")
-    Page<Card> findUserCardsWithFilters(
-            @Param("userId") Long userId,
-            @Param("cardNumber") String cardNumber,
-            @Param("cardType") CardType cardType,
-            @Param("currency") Currency currency,
-            @Param("active") Boolean active,
-            @Param("isBlocked") Boolean isBlocked,
-            Pageable pageable
-    );
-}
\ No newline at end of file
+    // Версия карты без загрузки сущности (для ETag)
+    @Query("SELECT c.version FROM Card c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Сводная версия карт пользователя: меняется при добавлении карты и при любом изменении существующей
+    @Query("SELECT COUNT(c) AS cardCount, COALESCE(SUM(c.version), 0) AS versionSum, COALESCE(MAX(c.id), 0) AS maxId " +
+            "FROM Card c WHERE c.user.id = :userId")
+    CardsVersion getUserCardsVersion(@Param("userId") Long userId);
+
+    // Карты без последних 4 цифр или слепого индекса номера, порциями по id (для заполнения после миграции)
+    @Query("SELECT c FROM Card c WHERE c.id > :id AND (c.cardNumberLast4 IS NULL OR c.cardNumberHash IS NULL) " +
+            "ORDER BY c.id")
+    List<Card> findSearchIndexBackfillBatch(@Param("id") Long id, Pageable pageable);
+
+    // Какие из переданных слепых индексов уже заняты выпущенными картами
+    @Query("SELECT c.cardNumberHash FROM Card c WHERE c.cardNumberHash IN :hashes")
+    List<String> findExistingCardNumberHashes(@Param("hashes") Collection<String> hashes);
+
+    // Id карт с истекшим сроком, еще не переведенных в EXPIRED (индекс status, expiry_date)
+    @Query("SELECT c.id FROM Card c WHERE c.status = com.example.bankcards.entity.CardStatus.ACTIVE " +
+            "AND c.expiryDate < :today ORDER BY c.expiryDate, c.id")
+    List<Long> findExpiredActiveCardIds(@Param("today") LocalDate today, Pageable pageable);
+
+    // Перевод порции карт в EXPIRED; версия увеличивается, чтобы сменились ETag
+    @Modifying
+    @Query("UPDATE Card c SET c.status = com.example.bankcards.entity.CardStatus.EXPIRED, c.version = c.version + 1 " +
+            "WHERE c.id IN :ids AND c.status = com.example.bankcards.entity.CardStatus.ACTIVE")
+    int markExpired(@Param("ids") Collection<Long> ids);
+
+    // Активные карты, истекающие до horizon, о перевыпуске которых еще не сообщалось
+    @Query("SELECT c FROM Card c WHERE c.status = com.example.bankcards.entity.CardStatus.ACTIVE " +
+            "AND c.expiryDate <= :horizon AND c.reissueRequestedAt IS NULL ORDER BY c.expiryDate, c.id")
+    List<Card> findReissueCandidates(@Param("horizon") LocalDate horizon, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Card c SET c.reissueRequestedAt = :requestedAt WHERE c.id IN :ids")
+    int markReissueRequested(@Param("ids") Collection<Long> ids, @Param("requestedAt") LocalDateTime requestedAt);
+
+    // Статус карты без загрузки сущности и расшифровки номера
+    @Query("SELECT c.id AS id, c.status AS status, c.active AS active, c.isBlocked AS blocked, " +
+            "c.expiryDate AS expiryDate FROM Card c WHERE c.id = :id")
+    Optional<CardStatusView> findStatusById(@Param("id") Long id);
+
+    // Число карт в каждом статусе (читается только индекс по status)
+    @Query("SELECT c.status AS status, COUNT(c) AS cardCount FROM Card c GROUP BY c.status")
+    List<StatusCount> countByStatus();
+
+    interface CardStatusView {
+        Long getId();
+
+        CardStatus getStatus();
+
+        Boolean getActive();
+
+        Boolean getBlocked();
+
+        LocalDate getExpiryDate();
+    }
+
+    interface StatusCount {
+        CardStatus getStatus();
+
+        long getCardCount();
+    }
+
+    interface CardsVersion {
+        long getCardCount();
+
+        long getVersionSum();
+
+        long getMaxId();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Card;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface CardRepositoryCustom {
+    // Страница карт без запроса COUNT: читается size + 1 строка, лишняя строка означает hasNext
+    Slice<Card> findSlice(Specification<Card> specification, Pageable pageable);
+}
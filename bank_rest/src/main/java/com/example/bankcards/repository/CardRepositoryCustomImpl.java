@@ -0,0 +1,44 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Card;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public class CardRepositoryCustomImpl implements CardRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Card> findSlice(Specification<Card> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Card> query = cb.createQuery(Card.class);
+        Root<Card> root = query.from(Card.class);
+        query.select(root).where(specification.toPredicate(root, query, cb));
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        TypedQuery<Card> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        }
+        List<Card> cards = typedQuery.getResultList();
+        boolean hasNext = pageable.isPaged() && cards.size() > pageable.getPageSize();
+        List<Card> content = hasNext ? cards.subList(0, pageable.getPageSize()) : cards;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardSearchRequest;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.util.LikePatterns;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Динамический поиск карт: в WHERE попадают только заданные фильтры, без конструкций
+ * "(:x IS NULL OR ...)", из-за которых планировщик не может использовать индексы.
+ */
+public final class CardSpecifications {
+
+    private CardSpecifications() {
+    }
+
+    public static Specification<Card> userCardsSearch(Long userId, CardSearchRequest request) {
+        return (root, query, cb) -> {
+            // Владелец подгружается тем же запросом, кроме запроса подсчета
+            if (!Long.class.equals(query.getResultType()) && !long.class.equals(query.getResultType())) {
+                root.fetch("user", JoinType.INNER);
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("user").get("id"), userId));
+            if (request.getCardNumber() != null && !request.getCardNumber().isBlank()) {
+                predicates.add(cb.equal(root.get("cardNumberLast4"), request.getCardNumber().trim()));
+            }
+            String holderPrefix = LikePatterns.lowerCasePrefix(request.getCardHolderName());
+            if (holderPrefix != null) {
+                predicates.add(cb.like(cb.lower(root.get("cardHolderName")), holderPrefix,
+                        LikePatterns.ESCAPE_CHAR));
+            }
+            if (request.getCardType() != null) {
+                predicates.add(cb.equal(root.get("cardType"), request.getCardType()));
+            }
+            if (request.getCurrency() != null) {
+                predicates.add(cb.equal(root.get("currency"), request.getCurrency()));
+            }
+            if (request.getActive() != null) {
+                predicates.add(cb.equal(root.get("active"), request.getActive()));
+            }
+            if (request.getIsBlocked() != null) {
+                predicates.add(cb.equal(root.get("isBlocked"), request.getIsBlocked()));
+            }
+            if (request.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), request.getStatus()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
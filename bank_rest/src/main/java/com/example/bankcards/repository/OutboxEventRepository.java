@@ -0,0 +1,26 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // Очередная пачка неопубликованных событий. Строки блокируются до конца транзакции relay,
+    // поэтому несколько экземпляров забирают пачки по очереди и порядок доставки сохраняется.
+    // Отложенные (parked) события пропускаются
+    @Query(value = "SELECT * FROM outbox_events WHERE published_at IS NULL AND parked_at IS NULL " +
+            "ORDER BY id LIMIT :limit FOR UPDATE",
+            nativeQuery = true)
+    List<OutboxEvent> findUnpublishedForUpdate(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
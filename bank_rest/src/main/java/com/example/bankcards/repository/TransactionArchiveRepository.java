@@ -0,0 +1,119 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Чтение transactions_archive (только PostgreSQL, см. 005-partition-transactions.yaml).
+ * Архив заполняет TransactionArchiveService, поэтому при выключенном архивировании таблица
+ * пуста или отсутствует и запросы не выполняются. Строки возвращаются как Transaction
+ * с картами и владельцами, чтобы история из архива не отличалась от горячей.
+ */
+@Repository
+public class TransactionArchiveRepository {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String SELECT_SQL = "SELECT a.id, a.transaction_id, a.amount, a.commission, " +
+            "a.type, a.status, a.description, a.created_at, a.converted_amount, a.exchange_rate, " +
+            "fc.id AS from_card_id, fc.card_number AS from_card_number, " +
+            "fu.id AS from_user_id, fu.first_name AS from_first_name, fu.last_name AS from_last_name, " +
+            "tc.id AS to_card_id, tc.card_number AS to_card_number, " +
+            "tu.id AS to_user_id, tu.first_name AS to_first_name, tu.last_name AS to_last_name " +
+            "FROM transactions_archive a " +
+            "LEFT JOIN cards fc ON fc.id = a.from_card_id LEFT JOIN users fu ON fu.id = fc.user_id " +
+            "LEFT JOIN cards tc ON tc.id = a.to_card_id LEFT JOIN users tu ON tu.id = tc.user_id ";
+    private static final String USER_TRANSACTIONS_SQL = SELECT_SQL +
+            "WHERE fc.user_id = ? OR tc.user_id = ? ORDER BY a.created_at DESC, a.id DESC LIMIT ?";
+    private static final String USER_STATEMENT_SQL = SELECT_SQL +
+            "WHERE fc.user_id = ? OR tc.user_id = ? ORDER BY a.created_at, a.id";
+    private static final String BY_ID_SQL = SELECT_SQL + "WHERE a.id = ?";
+    private static final String BY_TRANSACTION_ID_SQL = SELECT_SQL + "WHERE a.transaction_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public TransactionArchiveRepository(JdbcTemplate jdbcTemplate,
+                                        @Value("${app.transactions.archive.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    // Архивные транзакции пользователя, новые первыми
+    public List<Transaction> findUserTransactions(Long userId, int limit) {
+        if (!enabled || limit <= 0) {
+            return List.of();
+        }
+        return jdbcTemplate.query(USER_TRANSACTIONS_SQL, TRANSACTION_ROW_MAPPER, userId, userId, limit);
+    }
+
+    // Архивные транзакции пользователя по возрастанию даты, курсором; поток нужно закрыть
+    public Stream<Transaction> streamUserTransactions(Long userId) {
+        if (!enabled) {
+            return Stream.empty();
+        }
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(USER_STATEMENT_SQL);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            statement.setLong(1, userId);
+            statement.setLong(2, userId);
+            return statement;
+        }, TRANSACTION_ROW_MAPPER);
+    }
+
+    public Optional<Transaction> findById(Long id) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return jdbcTemplate.query(BY_ID_SQL, TRANSACTION_ROW_MAPPER, id).stream().findFirst();
+    }
+
+    public Optional<Transaction> findByTransactionId(String transactionId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return jdbcTemplate.query(BY_TRANSACTION_ID_SQL, TRANSACTION_ROW_MAPPER, transactionId).stream().findFirst();
+    }
+
+    private static final RowMapper<Transaction> TRANSACTION_ROW_MAPPER = (rs, rowNum) -> {
+        Transaction transaction = new Transaction();
+        transaction.setId(rs.getLong("id"));
+        transaction.setTransactionId(rs.getString("transaction_id"));
+        transaction.setAmount(rs.getBigDecimal("amount"));
+        transaction.setCommission(rs.getBigDecimal("commission"));
+        transaction.setType(TransactionType.valueOf(rs.getString("type")));
+        transaction.setStatus(TransactionStatus.valueOf(rs.getString("status")));
+        transaction.setDescription(rs.getString("description"));
+        transaction.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        transaction.setConvertedAmount(rs.getBigDecimal("converted_amount"));
+        transaction.setExchangeRate(rs.getBigDecimal("exchange_rate"));
+        transaction.setFromCard(card(rs, "from_"));
+        transaction.setToCard(card(rs, "to_"));
+        return transaction;
+    };
+
+    private static Card card(ResultSet rs, String prefix) throws SQLException {
+        long cardId = rs.getLong(prefix + "card_id");
+        if (rs.wasNull()) {
+            return null;
+        }
+        Card card = new Card();
+        card.setId(cardId);
+        card.setCardNumber(rs.getString(prefix + "card_number"));
+        card.setUser(User.builder()
+                .id(rs.getLong(prefix + "user_id"))
+                .firstName(rs.getString(prefix + "first_name"))
+                .lastName(rs.getString(prefix + "last_name"))
+                .build());
+        return card;
+    }
+}
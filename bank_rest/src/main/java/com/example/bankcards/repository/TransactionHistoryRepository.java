@@ -0,0 +1,76 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Единая точка чтения истории транзакций: секции transactions и перенесенный в архив хвост.
+ * TransactionArchiveService переносит в архив целые месяцы старше hot-months, поэтому архивные
+ * транзакции старше любой строки в секциях и порядок по дате сохраняется при простой склейке.
+ * Списки ограничены по числу строк и читаются по уровням: сначала секции последних hot-months
+ * месяцев (PostgreSQL отсекает остальные по created_at), затем еще не перенесенные старые секции,
+ * затем архив - следующий уровень читается, только если предыдущих строк не хватило.
+ */
+@Repository
+public class TransactionHistoryRepository {
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionArchiveRepository transactionArchiveRepository;
+    private final int hotMonths;
+
+    public TransactionHistoryRepository(TransactionRepository transactionRepository,
+                                        TransactionArchiveRepository transactionArchiveRepository,
+                                        @Value("${app.transactions.hot-months:12}") int hotMonths) {
+        this.transactionRepository = transactionRepository;
+        this.transactionArchiveRepository = transactionArchiveRepository;
+        this.hotMonths = hotMonths;
+    }
+
+    public Optional<Transaction> findById(Long id) {
+        return transactionRepository.findById(id)
+                .or(() -> transactionArchiveRepository.findById(id));
+    }
+
+    public Optional<Transaction> findByTransactionId(String transactionId) {
+        return transactionRepository.findByTransactionIdInPartition(transactionId)
+                .or(() -> transactionArchiveRepository.findByTransactionId(transactionId));
+    }
+
+    // Не больше limit транзакций пользователя, новые первыми
+    public List<Transaction> findUserTransactions(Long userId, int limit) {
+        LocalDateTime hotSince = YearMonth.now().minusMonths(hotMonths).atDay(1).atStartOfDay();
+        List<Transaction> transactions = new ArrayList<>(
+                transactionRepository.findUserTransactionsSince(userId, hotSince, PageRequest.of(0, limit)));
+        if (transactions.size() < limit) {
+            transactions.addAll(transactionRepository.findUserTransactionsBefore(userId, hotSince,
+                    PageRequest.of(0, limit - transactions.size())));
+        }
+        if (transactions.size() < limit) {
+            transactions.addAll(transactionArchiveRepository.findUserTransactions(userId, limit - transactions.size()));
+        }
+        return transactions;
+    }
+
+    /**
+     * Вся история пользователя по возрастанию даты для потоковой выгрузки: архив, затем секции.
+     * Оба курсора открываются в текущей транзакции; поток нужно закрыть.
+     */
+    public Stream<Transaction> streamUserStatement(Long userId) {
+        Stream<Transaction> archived = transactionArchiveRepository.streamUserTransactions(userId);
+        try {
+            return Stream.concat(archived, transactionRepository.streamStatement(userId));
+        } catch (RuntimeException e) {
+            archived.close();
+            throw e;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.entity.Currency;
 import com.example.bankcards.entity.Transaction;
 import com.example.bankcards.entity.TransactionStatus;
 import com.example.bankcards.entity.TransactionType;
+import com.example.bankcards.util.TransactionIds;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -14,14 +18,90 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.*;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     // Поиск транзакции по уникальному ID
     Optional<Transaction> findByTransactionId(String transactionId);
 
-    // Поиск всех транзакций пользователя (как отправителя, так и получателя)
-    @Query("SELECT t FROM Transaction t WHERE t.fromUser.id = :userId OR t.toUser.id = :userId")
-    List<Transaction> findAllUserTransactions(@Param("userId") Long userId);
+    // Поиск по номеру в диапазоне дат - PostgreSQL просматривает только подходящие секции
+    Optional<Transaction> findByTransactionIdAndCreatedAtBetween(String transactionId,
+                                                                 LocalDateTime from,
+                                                                 LocalDateTime to);
+
+    /**
+     * Поиск по номеру с отсечением секций по месяцу, закодированному в номере.
+     * Границы расширены на сутки, так как номер выдается чуть раньше created_at.
+     */
+    default Optional<Transaction> findByTransactionIdInPartition(String transactionId) {
+        return TransactionIds.monthOf(transactionId)
+                .map(month -> findByTransactionIdAndCreatedAtBetween(transactionId,
+                        month.atDay(1).atStartOfDay().minusDays(1),
+                        month.plusMonths(1).atDay(1).atStartOfDay().plusDays(1)))
+                .orElseGet(() -> findByTransactionId(transactionId));
+    }
+
+    // Транзакции пользователя (отправителя или получателя) начиная с даты - читаются только секции этого периода.
+    // Историю целиком, включая архив, собирает TransactionHistoryRepository
+    @Query("SELECT t FROM Transaction t " +
+            "LEFT JOIN FETCH t.fromCard fc LEFT JOIN FETCH fc.user " +
+            "LEFT JOIN FETCH t.toCard tc LEFT JOIN FETCH tc.user " +
+            "WHERE (fc.user.id = :userId OR tc.user.id = :userId) AND t.createdAt >= :since " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findUserTransactionsSince(@Param("userId") Long userId,
+                                                @Param("since") LocalDateTime since,
+                                                Pageable pageable);
+
+    // Транзакции пользователя до даты: старые секции и default, еще не перенесенные в архив
+    @Query("SELECT t FROM Transaction t " +
+            "LEFT JOIN FETCH t.fromCard fc LEFT JOIN FETCH fc.user " +
+            "LEFT JOIN FETCH t.toCard tc LEFT JOIN FETCH tc.user " +
+            "WHERE (fc.user.id = :userId OR tc.user.id = :userId) AND t.createdAt < :before " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findUserTransactionsBefore(@Param("userId") Long userId,
+                                                 @Param("before") LocalDateTime before,
+                                                 Pageable pageable);
+
+    // Исходящие переводы карты за период - для восстановления счетчиков лимитов
+    @Query("SELECT t.createdAt AS createdAt, t.amount AS amount, c.currency AS currency " +
+            "FROM Transaction t JOIN t.fromCard c " +
+            "WHERE c.id = :cardId AND t.type = :type AND t.status = :status AND t.createdAt >= :since")
+    List<TransferUsage> findCardTransferUsage(@Param("cardId") Long cardId,
+                                              @Param("type") TransactionType type,
+                                              @Param("status") TransactionStatus status,
+                                              @Param("since") LocalDateTime since);
+
+    // Исходящие переводы со всех карт пользователя за период - для восстановления счетчиков лимитов
+    @Query("SELECT t.createdAt AS createdAt, t.amount AS amount, c.currency AS currency " +
+            "FROM Transaction t JOIN t.fromCard c " +
+            "WHERE c.user.id = :userId AND t.type = :type AND t.status = :status AND t.createdAt >= :since")
+    List<TransferUsage> findUserTransferUsage(@Param("userId") Long userId,
+                                              @Param("type") TransactionType type,
+                                              @Param("status") TransactionStatus status,
+                                              @Param("since") LocalDateTime since);
+
+    // Потоковое чтение выписки: курсор с fetch size, без снимков для dirty checking
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM Transaction t " +
+            "LEFT JOIN FETCH t.fromCard fc LEFT JOIN FETCH fc.user " +
+            "LEFT JOIN FETCH t.toCard tc LEFT JOIN FETCH tc.user " +
+            "WHERE fc.user.id = :userId OR tc.user.id = :userId " +
+            "ORDER BY t.createdAt, t.id")
+    Stream<Transaction> streamStatement(@Param("userId") Long userId);
+
+    interface TransferUsage {
+        LocalDateTime getCreatedAt();
+
+        BigDecimal getAmount();
+
+        Currency getCurrency();
+    }
 
 }
@@ -0,0 +1,34 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.TransactionRollup;
+import com.example.bankcards.entity.TransactionRollupKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollup, TransactionRollupKey> {
+    // Дельты прибавляются на стороне БД: строка корзины не читается и не перезаписывается целиком
+    @Modifying
+    @Query("UPDATE TransactionRollup r SET r.completedCount = r.completedCount + :completed, " +
+            "r.failedCount = r.failedCount + :failed, r.volume = r.volume + :volume, " +
+            "r.commission = r.commission + :commission, r.updatedAt = :now WHERE r.id = :id")
+    int increment(@Param("id") TransactionRollupKey id,
+                  @Param("completed") long completed,
+                  @Param("failed") long failed,
+                  @Param("volume") BigDecimal volume,
+                  @Param("commission") BigDecimal commission,
+                  @Param("now") LocalDateTime now);
+
+    // Отчет читает только корзины периода по первичному ключу, а не строки transactions
+    @Query("SELECT r FROM TransactionRollup r WHERE r.id.bucketDate BETWEEN :from AND :to " +
+            "ORDER BY r.id.bucketDate, r.id.currency, r.id.cardType, r.id.transactionType")
+    List<TransactionRollup> findByBucketDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
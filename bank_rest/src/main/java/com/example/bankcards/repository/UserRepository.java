@@ -1,18 +1,22 @@
 package com.example.bankcards.repository;
 
+import com.example.bankcards.dto.UserDTO;
+import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    // Поиск пользователя по username
-    Optional<User> findByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    String USER_DTO_PROJECTION = "SELECT new com.example.bankcards.dto.UserDTO(u.id, u.username, u.email, " +
+            "u.firstName, u.lastName, u.phoneNumber, u.role, u.active, u.createdAt) FROM User u ";
+    String PREFIX_FILTER = "(LOWER(u.username) LIKE :prefix ESCAPE '\\' OR LOWER(u.email) LIKE :prefix ESCAPE '\\') ";
 
     // Проверка существования пользователя по username
     Boolean existsByUsername(String username);
@@ -20,6 +24,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Проверка существования пользователя по email
     Boolean existsByEmail(String email);
 
-    // Поиск пользователей по роли
-    List<User> findByRole(com.example.bankcards.entity.Role role);
+    // Страница пользователей в виде DTO, без загрузки сущностей в контекст
+    @Query(value = USER_DTO_PROJECTION,
+            countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserDTO> findUserPage(Pageable pageable);
+
+    // Страница пользователей, у которых username или email начинается с префикса (префикс уже в нижнем регистре с '%')
+    @Query(value = USER_DTO_PROJECTION + "WHERE " + PREFIX_FILTER,
+            countQuery = "SELECT COUNT(u) FROM User u WHERE " + PREFIX_FILTER)
+    Page<UserDTO> findUserPageByPrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    // Страница пользователей с заданной ролью
+    @Query(value = USER_DTO_PROJECTION + "WHERE u.role = :role",
+            countQuery = "SELECT COUNT(u) FROM User u WHERE u.role = :role")
+    Page<UserDTO> findUserPageByRole(@Param("role") Role role, Pageable pageable);
+
+    // Keyset-выборка: пользователи с id больше курсора в порядке id, без подсчета общего количества
+    @Query(USER_DTO_PROJECTION + "WHERE u.id > :afterId ORDER BY u.id")
+    List<UserDTO> findUsersAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Keyset-выборка с префиксным поиском по username или email
+    @Query(USER_DTO_PROJECTION + "WHERE u.id > :afterId AND " + PREFIX_FILTER + "ORDER BY u.id")
+    List<UserDTO> findUsersAfterByPrefix(@Param("prefix") String prefix, @Param("afterId") Long afterId,
+                                         Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.dto.ApiResponse;
+import com.example.bankcards.util.AdaptiveConcurrencyLimit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static globalConstants.MessageConstants.SERVICE_OVERLOADED_MESSAGE;
+
+/**
+ * Пропускает к контроллерам не больше запросов класса, чем позволяет текущий предел,
+ * остальным сразу отвечает 503 с Retry-After. Стоит после RateLimitFilter: сначала
+ * отсекаются отдельные шумные клиенты, затем общая перегрузка.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AdmissionController admissionController;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !admissionController.isEnabled()
+                || HttpMethod.OPTIONS.matches(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request);
+        int inFlight = admissionController.tryAcquire(endpointClass);
+        if (inFlight == 0) {
+            reject(request, response, endpointClass);
+            return;
+        }
+        AdaptiveConcurrencyLimit limit = admissionController.limitFor(endpointClass);
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            admissionController.release(endpointClass);
+            // Потоковый ответ живет дольше запроса и не держит соединение с БД - его задержка не замер
+            if (!request.isAsyncStarted()) {
+                limit.onSample(System.nanoTime() - start, inFlight);
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        EndpointClass endpointClass) throws IOException {
+        log.warn("Запрос {} {} отклонен: исчерпан предел одновременных запросов {}",
+                request.getMethod(), request.getRequestURI(), endpointClass);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getWriter(),
+                ApiResponse.error(SERVICE_OVERLOADED_MESSAGE, "uri=" + request.getRequestURI()));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.config.ApplicationProperties;
+import com.example.bankcards.util.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пределы одновременных запросов по классам эндпоинтов. Пул Hikari мал, и без предела всплеск
+ * запросов ждет соединение до connection-timeout; здесь лишние запросы отклоняются сразу,
+ * а предел подстраивается под наблюдаемую задержку (см. AdaptiveConcurrencyLimit).
+ * Пределы классов независимы, поэтому сверху их сумму ограничивает общий предел, выведенный
+ * из размера пула: иначе все классы вместе пропустили бы к пулу в несколько раз больше запросов,
+ * чем у него соединений. Размер берется из всех пулов Hikari контекста, при включенной реплике
+ * это основной пул и пул реплики; явное значение app.admission-control.global-limit важнее.
+ */
+@Component
+public class AdmissionController {
+
+    // Размер пула Hikari по умолчанию: до запуска пула незаданный размер читается как -1
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    private final boolean enabled;
+    private final Map<EndpointClass, AdaptiveConcurrencyLimit> limits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejectedCounters = new EnumMap<>(EndpointClass.class);
+    private final AtomicInteger globalInFlight = new AtomicInteger();
+    private final int globalLimit;
+
+    @Autowired
+    public AdmissionController(ApplicationProperties applicationProperties, MeterRegistry meterRegistry,
+                               ObjectProvider<HikariDataSource> dataSources) {
+        this(applicationProperties, meterRegistry,
+                dataSources.orderedStream().mapToInt(AdmissionController::poolSize).sum());
+    }
+
+    AdmissionController(ApplicationProperties applicationProperties, MeterRegistry meterRegistry, int poolConnections) {
+        ApplicationProperties.AdmissionControl admission = applicationProperties.getAdmissionControl();
+        this.enabled = admission.isEnabled();
+        this.globalLimit = resolveGlobalLimit(admission, poolConnections);
+        int maxLimit = Math.min(admission.getMaxLimit(), globalLimit);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(Math.min(admission.getInitialLimit(), maxLimit),
+                    Math.min(admission.getMinLimit(), maxLimit), maxLimit, admission.getSmoothing(),
+                    admission.getLongWindow());
+            limits.put(endpointClass, limit);
+            String tag = endpointClass.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("http.admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Текущий предел одновременных запросов")
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            Gauge.builder("http.admission.in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Запросы в работе")
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            rejectedCounters.put(endpointClass, Counter.builder("http.admission.rejected")
+                    .description("Запросы, отклоненные из-за перегрузки")
+                    .tag("class", tag)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("http.admission.global.limit", () -> globalLimit)
+                .description("Общий предел одновременных запросов всех классов")
+                .register(meterRegistry);
+        Gauge.builder("http.admission.global.in.flight", globalInFlight, AtomicInteger::get)
+                .description("Запросы всех классов в работе")
+                .register(meterRegistry);
+    }
+
+    private static int poolSize(HikariDataSource dataSource) {
+        int maximumPoolSize = dataSource.getMaximumPoolSize();
+        return maximumPoolSize > 0 ? maximumPoolSize : HIKARI_DEFAULT_POOL_SIZE;
+    }
+
+    private static int resolveGlobalLimit(ApplicationProperties.AdmissionControl admission, int poolConnections) {
+        if (admission.getGlobalLimit() != null) {
+            return admission.getGlobalLimit();
+        }
+        if (poolConnections <= 0) {
+            throw new IllegalStateException(
+                    "Не найден пул Hikari для расчета общего предела, задайте app.admission-control.global-limit");
+        }
+        return poolConnections * admission.getRequestsPerConnection();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public AdaptiveConcurrencyLimit limitFor(EndpointClass endpointClass) {
+        return limits.get(endpointClass);
+    }
+
+    public int getGlobalLimit() {
+        return globalLimit;
+    }
+
+    /**
+     * Место выделяется сначала в пределе класса, затем в общем пределе.
+     *
+     * @return число запросов класса в работе вместе с этим или 0, если запрос отклонен
+     */
+    public int tryAcquire(EndpointClass endpointClass) {
+        AdaptiveConcurrencyLimit limit = limits.get(endpointClass);
+        int inFlight = limit.tryAcquire();
+        if (inFlight == 0) {
+            rejectedCounters.get(endpointClass).increment();
+            return 0;
+        }
+        if (!tryAcquireGlobal()) {
+            limit.release();
+            rejectedCounters.get(endpointClass).increment();
+            return 0;
+        }
+        return inFlight;
+    }
+
+    public void release(EndpointClass endpointClass) {
+        limits.get(endpointClass).release();
+        globalInFlight.decrementAndGet();
+    }
+
+    private boolean tryAcquireGlobal() {
+        int current;
+        do {
+            current = globalInFlight.get();
+            if (current >= globalLimit) {
+                return false;
+            }
+        } while (!globalInFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
 
+    // Не read-only намеренно: аутентификация всегда читает с основной базы, а не с отстающей реплики
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
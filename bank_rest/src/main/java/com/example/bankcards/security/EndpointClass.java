@@ -0,0 +1,31 @@
+package com.example.bankcards.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+import static globalConstants.EndpointConstants.DEPOSIT_ENDPOINT;
+import static globalConstants.EndpointConstants.TRANSFER_ENDPOINT;
+
+/**
+ * Класс эндпоинта для ограничения частоты и конкурентности: у входа, переводов, прочих
+ * изменений и чтения разная стоимость и разная допустимая нагрузка.
+ */
+public enum EndpointClass {
+    LOGIN, TRANSFER, WRITE, READ;
+
+    private static final String AUTH_PATH = "/api/auth/";
+
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith(AUTH_PATH)) {
+            return LOGIN;
+        }
+        if (path.startsWith(TRANSFER_ENDPOINT) || path.startsWith(DEPOSIT_ENDPOINT)) {
+            return TRANSFER;
+        }
+        if (HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())) {
+            return READ;
+        }
+        return WRITE;
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -44,6 +45,7 @@ public class JwtTokenProvider {
                 .claim("id", userPrincipal.getId())
                 .claim("email", userPrincipal.getEmail())
                 .claim("authorities", authorities)
+                .setId(UUID.randomUUID().toString())
                 .setIssuer(jwtIssuer)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
@@ -69,13 +71,28 @@ public class JwtTokenProvider {
         return claims.get("id", Long.class);
     }
 
+    // Идентификатор токена (jti) - ключ в списке отозванных токенов
+    public String getTokenIdFromToken(String token) {
+        Claims claims = parseClaims(token);
+        return claims != null ? claims.getId() : null;
+    }
+
     public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
+
+    /**
+     * Проверяет подпись и срок действия и возвращает claims, чтобы фильтр не разбирал токен повторно.
+     *
+     * @return claims токена или null, если токен недействителен
+     */
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parserBuilder()
+            return Jwts.parserBuilder()
                     .setSigningKey(getSigningKey())
                     .build()
-                    .parseClaimsJws(token);
-            return true;
+                    .parseClaimsJws(token)
+                    .getBody();
         } catch (SecurityException ex) {
             log.error("Неверная подпись JWT: {}", ex.getMessage());
         } catch (MalformedJwtException ex) {
@@ -89,6 +106,6 @@ public class JwtTokenProvider {
         } catch (JwtException ex) {
             log.error("Ошибка проверки JWT: {}", ex.getMessage());
         }
-        return false;
+        return null;
     }
 }
@@ -0,0 +1,167 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.config.ApplicationProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Учет неудачных попыток входа по имени пользователя и по IP.
+ * Записи разложены по независимым сегментам со своей блокировкой, каждый сегмент - LRU
+ * ограниченного размера, поэтому подбор по множеству имен не раздувает память,
+ * а потоки разных пользователей почти не конкурируют.
+ * Активная блокировка из сегмента не вытесняется: иначе ее можно было бы сбросить,
+ * засыпав тот же сегмент новыми именами.
+ */
+@Slf4j
+@Component
+public class LoginAttemptService {
+
+    private static final int STRIPES = 64;
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String IP_PREFIX = "ip:";
+
+    private final int maxAttemptsPerUsername;
+    private final int maxAttemptsPerIp;
+    private final long lockDurationMillis;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public LoginAttemptService(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Security security = applicationProperties.getSecurity();
+        this.maxAttemptsPerUsername = security.getMaxLoginAttempts();
+        this.maxAttemptsPerIp = security.getMaxLoginAttemptsPerIp();
+        this.lockDurationMillis = security.getAccountLockDuration();
+        int stripeCapacity = Math.max(1, security.getLoginAttemptsCapacity() / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+    }
+
+    public boolean isBlocked(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        return isLocked(usernameKey(username), now) || (clientIp != null && isLocked(IP_PREFIX + clientIp, now));
+    }
+
+    public void loginFailed(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        if (recordFailure(usernameKey(username), maxAttemptsPerUsername, now)) {
+            log.warn("Вход для пользователя {} заблокирован после {} неудачных попыток",
+                    username, maxAttemptsPerUsername);
+        }
+        if (clientIp != null && recordFailure(IP_PREFIX + clientIp, maxAttemptsPerIp, now)) {
+            log.warn("Вход с IP {} заблокирован после {} неудачных попыток", clientIp, maxAttemptsPerIp);
+        }
+    }
+
+    // Счетчик IP не сбрасывается: успешный вход одного аккаунта не должен прикрывать перебор других
+    public void loginSucceeded(String username) {
+        String key = usernameKey(username);
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private boolean isLocked(String key, long now) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            Attempts attempts = stripe.entries.get(key);
+            if (attempts == null) {
+                return false;
+            }
+            if (attempts.isExpired(now)) {
+                stripe.entries.remove(key);
+                return false;
+            }
+            return attempts.isLocked(now);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return true, если эта попытка привела к блокировке
+     */
+    private boolean recordFailure(String key, int maxAttempts, long now) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            Attempts attempts = stripe.entries.get(key);
+            if (attempts == null || attempts.isExpired(now)) {
+                attempts = new Attempts(now + lockDurationMillis);
+                stripe.entries.put(key, attempts);
+            }
+            attempts.failures++;
+            boolean locked = false;
+            if (attempts.failures >= maxAttempts && attempts.lockedUntil <= now) {
+                attempts.lockedUntil = now + lockDurationMillis;
+                attempts.expiresAt = attempts.lockedUntil;
+                locked = true;
+            }
+            stripe.evictOverflow(now);
+            return locked;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static String usernameKey(String username) {
+        return USERNAME_PREFIX + username.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Attempts {
+        private int failures;
+        private long lockedUntil;
+        private long expiresAt;
+
+        private Attempts(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+
+        private boolean isLocked(long now) {
+            return lockedUntil > now;
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Attempts> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Вытесняет самые старые незаблокированные записи (истекшие к ним относятся).
+         * Если в сегменте остались только активные блокировки, он временно превышает
+         * емкость: блокировки истекают сами, а их число ограничено лимитом попыток с одного IP.
+         */
+        private void evictOverflow(long now) {
+            Iterator<Attempts> iterator = entries.values().iterator();
+            while (entries.size() > capacity && iterator.hasNext()) {
+                if (!iterator.next().isLocked(now)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static globalConstants.MessageConstants.RATE_LIMIT_EXCEEDED_MESSAGE;
+
+/**
+ * Ограничивает частоту запросов до контроллеров и пула соединений с БД. Стоит после
+ * JwtAuthenticationFilter, поэтому аутентифицированные запросы считаются по id пользователя,
+ * а анонимные - по IP. При превышении отвечает 429 с заголовком Retry-After.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RequestRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !rateLimiter.isEnabled()
+                || HttpMethod.OPTIONS.matches(request.getMethod())
+                || !path.startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.of(request);
+        String clientKey = clientKey(request);
+        long waitNanos = rateLimiter.tryAcquire(endpointClass, clientKey);
+        if (waitNanos > 0) {
+            reject(request, response, endpointClass, clientKey, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+                return "u:" + principal.getId();
+            }
+            if (!"anonymousUser".equals(authentication.getPrincipal())) {
+                return "u:" + authentication.getName();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        EndpointClass endpointClass, String clientKey,
+                        long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        log.warn("Превышена частота запросов {} для {}: {} {}", endpointClass, clientKey,
+                request.getMethod(), request.getRequestURI());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getWriter(),
+                ApiResponse.error(RATE_LIMIT_EXCEEDED_MESSAGE, "uri=" + request.getRequestURI()));
+    }
+}
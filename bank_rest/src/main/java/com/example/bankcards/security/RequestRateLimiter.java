@@ -0,0 +1,86 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.config.ApplicationProperties;
+import com.example.bankcards.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ограничение частоты запросов: отдельная корзина на пару (класс эндпоинта, клиент).
+ * Клиент - id пользователя, для анонимных запросов (вход) - IP. Корзины создаются при первом
+ * запросе и удаляются фоновой очисткой, когда снова заполнились, поэтому память занимают
+ * только активные клиенты.
+ */
+@Slf4j
+@Component
+public class RequestRateLimiter {
+
+    private final boolean enabled;
+    private final Map<EndpointClass, ApplicationProperties.RateLimit.Limit> limits =
+            new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejectedCounters = new EnumMap<>(EndpointClass.class);
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RequestRateLimiter(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.RateLimit rateLimit = applicationProperties.getRateLimit();
+        this.enabled = rateLimit.isEnabled();
+        limits.put(EndpointClass.LOGIN, rateLimit.getLogin());
+        limits.put(EndpointClass.TRANSFER, rateLimit.getTransfer());
+        limits.put(EndpointClass.WRITE, rateLimit.getWrite());
+        limits.put(EndpointClass.READ, rateLimit.getRead());
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            rejectedCounters.put(endpointClass, Counter.builder("http.rate.limit.rejected")
+                    .description("Запросы, отклоненные ограничением частоты")
+                    .tag("class", endpointClass.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("http.rate.limit.buckets", buckets, Map::size)
+                .description("Число активных корзин ограничения частоты")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return 0, если запрос пропущен, иначе сколько наносекунд клиенту ждать
+     */
+    public long tryAcquire(EndpointClass endpointClass, String clientKey) {
+        return tryAcquire(endpointClass, clientKey, System.nanoTime());
+    }
+
+    long tryAcquire(EndpointClass endpointClass, String clientKey, long nowNanos) {
+        ApplicationProperties.RateLimit.Limit limit = limits.get(endpointClass);
+        TokenBucket bucket = buckets.computeIfAbsent(endpointClass.name() + ':' + clientKey,
+                key -> new TokenBucket(limit.getCapacity(), limit.getRefillPerMinute(), nowNanos));
+        long wait = bucket.tryAcquire(nowNanos);
+        if (wait > 0) {
+            rejectedCounters.get(endpointClass).increment();
+        }
+        return wait;
+    }
+
+    // Полная корзина эквивалентна новой. Запрос, успевший взять ссылку на удаляемую корзину,
+    // спишет токен с нее - это допустимая погрешность в пользу клиента
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        log.debug("Удалено неактивных корзин ограничения частоты: {}", before - buckets.size());
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+}
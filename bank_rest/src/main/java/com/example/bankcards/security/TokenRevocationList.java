@@ -0,0 +1,123 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.RevokedToken;
+import com.example.bankcards.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отозванные JWT до истечения их срока. Источник истины - таблица revoked_tokens, а запросы
+ * проверяются по копии в памяти: jti хранится как UUID (два long вместо строки из 36 символов)
+ * вместе со сроком действия токена. Копия загружается при старте, подтягивает отзывы других
+ * экземпляров по расписанию и очищается от истекших записей, поэтому ее размер ограничен
+ * числом отзывов за время жизни токена.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    // Запас на расхождение часов экземпляров и на транзакции, зафиксированные после прошлой синхронизации
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<UUID, Long> revoked = new ConcurrentHashMap<>();
+    private final long jwtExpirationMillis;
+    private volatile LocalDateTime lastSync;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.jwt.expiration:86400000}") long jwtExpirationMillis) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jwtExpirationMillis = jwtExpirationMillis;
+        Gauge.builder("auth.tokens.revoked", revoked, Map::size)
+                .description("Отозванные и еще не истекшие JWT в памяти")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        lastSync = LocalDateTime.now().minus(Duration.ofMillis(jwtExpirationMillis));
+        sync();
+        log.info("Загружено отозванных JWT: {}", revoked.size());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || revoked.isEmpty()) {
+            return false;
+        }
+        UUID id = parse(tokenId);
+        return id != null && revoked.containsKey(id);
+    }
+
+    /**
+     * Отзывает токен. Строка в БД пишется до добавления в память, чтобы отзыв пережил рестарт
+     * и дошел до других экземпляров.
+     */
+    public void revoke(String tokenId, LocalDateTime expiresAt) {
+        UUID id = parse(tokenId);
+        if (id == null) {
+            log.warn("Токен с нестандартным jti {} не может быть отозван", tokenId);
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt, LocalDateTime.now()));
+        revoked.put(id, toEpochMillis(expiresAt));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval:30000}")
+    public void sync() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (RevokedToken token : revokedTokenRepository.findActiveRevokedSince(lastSync.minus(SYNC_OVERLAP), now)) {
+                UUID id = parse(token.getTokenId());
+                if (id != null) {
+                    revoked.put(id, toEpochMillis(token.getExpiresAt()));
+                }
+            }
+            lastSync = now;
+        } catch (RuntimeException e) {
+            log.error("Ошибка синхронизации списка отозванных JWT", e);
+        }
+    }
+
+    // Истекший токен отклоняется проверкой срока, запись о его отзыве больше не нужна
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.prune-interval:600000}")
+    public void pruneExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        Integer deleted = transactionTemplate.execute(status -> revokedTokenRepository.deleteExpired(LocalDateTime.now()));
+        log.debug("Удалено истекших отозванных JWT: {}", deleted);
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    private static UUID parse(String tokenId) {
+        try {
+            return UUID.fromString(tokenId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
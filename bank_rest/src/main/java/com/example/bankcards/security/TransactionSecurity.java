@@ -1,6 +1,6 @@
 package com.example.bankcards.security;
 
-import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.repository.TransactionHistoryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -8,10 +8,10 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class TransactionSecurity {
 
-    private final TransactionRepository transactionRepository;
+    private final TransactionHistoryRepository transactionHistoryRepository;
 
     public boolean isTransactionParticipant(Long transactionId, Long userId) {
-        return transactionRepository.findById(transactionId)
+        return transactionHistoryRepository.findById(transactionId)
                 .map(transaction ->
                         (transaction.getFromCard() != null &&
                                 transaction.getFromCard().getUser() != null &&
@@ -24,7 +24,7 @@ public class TransactionSecurity {
     }
 
     public boolean isTransactionParticipantByTransactionId(String transactionId, Long userId) {
-        return transactionRepository.findByTransactionId(transactionId)
+        return transactionHistoryRepository.findByTransactionId(transactionId)
                 .map(transaction ->
                         (transaction.getFromCard() != null &&
                                 transaction.getFromCard().getUser() != null &&
@@ -37,7 +37,7 @@ public class TransactionSecurity {
     }
 
     public boolean isTransactionInitiator(Long transactionId, Long userId) {
-        return transactionRepository.findById(transactionId)
+        return transactionHistoryRepository.findById(transactionId)
                 .map(transaction ->
                         transaction.getFromCard() != null &&
                                 transaction.getFromCard().getUser() != null &&
@@ -7,16 +7,23 @@ import com.example.bankcards.exception.AuthenticationException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.JwtTokenProvider;
+import com.example.bankcards.security.LoginAttemptService;
+import com.example.bankcards.security.TokenRevocationList;
 import com.example.bankcards.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
 import static globalConstants.MessageConstants.*;
 
 @Slf4j
@@ -28,8 +35,14 @@ public class AuthService {
     private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final LoginAttemptService loginAttemptService;
+    private final TokenRevocationList tokenRevocationList;
 
-    public LoginResponse authenticate(LoginRequest request) {
+    public LoginResponse authenticate(LoginRequest request, String clientIp) {
+        // Заблокированные входы отсекаются до проверки пароля, чтобы перебор не нагружал BCrypt
+        if (loginAttemptService.isBlocked(request.getUsername(), clientIp)) {
+            throw new LockedException(AUTH_TOO_MANY_ATTEMPTS_MESSAGE);
+        }
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -39,6 +52,7 @@ public class AuthService {
             );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
+            loginAttemptService.loginSucceeded(request.getUsername());
 
             UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
             String jwt = jwtTokenProvider.generateToken(authentication);
@@ -55,6 +69,7 @@ public class AuthService {
             );
 
         } catch (org.springframework.security.core.AuthenticationException e) {
+            loginAttemptService.loginFailed(request.getUsername(), clientIp);
             throw new AuthenticationException(AUTH_INVALID_CREDENTIALS_MESSAGE);
         }
     }
@@ -76,11 +91,11 @@ public class AuthService {
     }
 
     public boolean validateToken(String token) {
-        return jwtTokenProvider.validateToken(token);
+        return isActive(token);
     }
 
     public LoginResponse refreshToken(String oldToken) {
-        if (jwtTokenProvider.validateToken(oldToken)) {
+        if (isActive(oldToken)) {
             String username = jwtTokenProvider.getUsernameFromToken(oldToken);
             User user = userRepository.findByUsername(username)
                     .orElseThrow(() -> new UserNotFoundException(username));
@@ -107,7 +122,18 @@ public class AuthService {
     }
 
     public void logout(String token) {
+        Claims claims = jwtTokenProvider.parseClaims(token);
+        if (claims != null && claims.getId() != null) {
+            tokenRevocationList.revoke(claims.getId(),
+                    LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+        }
         log.info("Пользователь вышел из системы, токен: {}", token.substring(0, Math.min(token.length(), 10)) + "...");
         SecurityContextHolder.clearContext();
     }
+
+    // Отозванный при выходе токен не проходит проверку и не обменивается на новый
+    private boolean isActive(String token) {
+        return jwtTokenProvider.validateToken(token)
+                && !tokenRevocationList.isRevoked(jwtTokenProvider.getTokenIdFromToken(token));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.event.CardReissueDueEvent;
+import com.example.bankcards.outbox.OutboxWriter;
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ночная проверка сроков действия карт. Сначала для активных карт, истекающих в ближайшие
+ * reissue-ahead-days дней, в outbox пишется CardReissueDue, затем истекшие карты переводятся
+ * в EXPIRED. Обе операции идут порциями по индексу (status, expiry_date), каждая порция
+ * в своей транзакции, поэтому строки не блокируются надолго.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.card.lifecycle", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CardLifecycleService {
+
+    private final CardRepository cardRepository;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final Pageable batch;
+    private final int maxBatchesPerRun;
+    private final int reissueAheadDays;
+    private final Counter expiredCounter;
+    private final Counter reissueCounter;
+
+    public CardLifecycleService(CardRepository cardRepository,
+                                OutboxWriter outboxWriter,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.card.lifecycle.batch-size:500}") int batchSize,
+                                @Value("${app.card.lifecycle.max-batches-per-run:200}") int maxBatchesPerRun,
+                                @Value("${app.card.lifecycle.reissue-ahead-days:30}") int reissueAheadDays) {
+        this.cardRepository = cardRepository;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batch = PageRequest.of(0, batchSize);
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.reissueAheadDays = reissueAheadDays;
+        this.expiredCounter = Counter.builder("cards.lifecycle.expired")
+                .description("Карты, переведенные в статус EXPIRED")
+                .register(meterRegistry);
+        this.reissueCounter = Counter.builder("cards.lifecycle.reissue.requested")
+                .description("Карты, для которых запрошен перевыпуск")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.card.lifecycle.cron:0 5 0 * * *}")
+    public void sweep() {
+        LocalDate today = LocalDate.now();
+        try {
+            int reissues = requestReissues(today);
+            int expired = expireCards(today);
+            log.info("Проверка сроков карт завершена: перевыпуск запрошен для {}, истекло {}", reissues, expired);
+        } catch (RuntimeException e) {
+            log.error("Ошибка проверки сроков действия карт", e);
+        }
+    }
+
+    int requestReissues(LocalDate today) {
+        LocalDate horizon = today.plusDays(reissueAheadDays);
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer requested = transactionTemplate.execute(status -> {
+                List<Card> cards = cardRepository.findReissueCandidates(horizon, batch);
+                for (Card card : cards) {
+                    outboxWriter.append(CardReissueDueEvent.AGGREGATE_TYPE, card.getId().toString(),
+                            CardReissueDueEvent.EVENT_TYPE, new CardReissueDueEvent(card.getId(),
+                                    card.getUser().getId(), card.getExpiryDate(), card.getCardType(),
+                                    card.getCurrency()));
+                }
+                if (!cards.isEmpty()) {
+                    cardRepository.markReissueRequested(cards.stream().map(Card::getId).toList(),
+                            LocalDateTime.now());
+                }
+                return cards.size();
+            });
+            int count = requested != null ? requested : 0;
+            total += count;
+            reissueCounter.increment(count);
+            if (count < batch.getPageSize()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    int expireCards(LocalDate today) {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer expired = transactionTemplate.execute(status -> {
+                List<Long> ids = cardRepository.findExpiredActiveCardIds(today, batch);
+                return ids.isEmpty() ? 0 : cardRepository.markExpired(ids);
+            });
+            int count = expired != null ? expired : 0;
+            total += count;
+            expiredCounter.increment(count);
+            if (count < batch.getPageSize()) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.Luhn;
+import com.example.bankcards.util.SecureRandoms;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Выдает номера карт из заранее подготовленного резерва. Номер строится из BIN одного из
+ * настроенных диапазонов, случайного номера счета и контрольной цифры Луна. Перед попаданием
+ * в резерв номера проверяются пачкой по слепому индексу card_number_hash, поэтому выпуск карты
+ * не повторяет попытки и не ждет генератор. Резерв пополняется в фоне при падении ниже порога;
+ * последней гарантией от гонки между экземплярами остается уникальный индекс card_number_hash.
+ */
+@Slf4j
+@Component
+public class CardNumberAllocator {
+
+    static final int CARD_NUMBER_LENGTH = 16;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private final CardRepository cardRepository;
+    private final CardNumberHasher cardNumberHasher;
+    private final Executor executor;
+    private final List<BinRange> binRanges;
+    private final BlockingQueue<IssuedCardNumber> reservoir;
+    private final Set<String> reservedHashes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final SecureRandom secureRandom = SecureRandoms.shared();
+    private final int lowWatermark;
+    private final int batchSize;
+    private final boolean enabled;
+
+    public CardNumberAllocator(CardRepository cardRepository,
+                               CardNumberHasher cardNumberHasher,
+                               MeterRegistry meterRegistry,
+                               @Qualifier("applicationTaskExecutor") Executor executor,
+                               @Value("${app.card.bin-ranges:400000-499999,510000-559999}") List<String> binRanges,
+                               @Value("${app.card.reservoir.capacity:1000}") int capacity,
+                               @Value("${app.card.reservoir.low-watermark:200}") int lowWatermark,
+                               @Value("${app.card.reservoir.batch-size:200}") int batchSize,
+                               @Value("${app.card.reservoir.enabled:true}") boolean enabled) {
+        this.cardRepository = cardRepository;
+        this.cardNumberHasher = cardNumberHasher;
+        this.executor = executor;
+        this.binRanges = binRanges.stream().map(BinRange::parse).toList();
+        if (this.binRanges.isEmpty()) {
+            throw new IllegalArgumentException("Не задан ни один диапазон BIN для выпуска карт");
+        }
+        this.reservoir = new ArrayBlockingQueue<>(capacity);
+        this.lowWatermark = lowWatermark;
+        this.batchSize = batchSize;
+        this.enabled = enabled;
+        Gauge.builder("cards.number.reservoir.size", reservoir, Collection::size)
+                .description("Число подготовленных номеров карт в резерве")
+                .register(meterRegistry);
+    }
+
+    public IssuedCardNumber allocate() {
+        IssuedCardNumber issued = reservoir.poll();
+        if (reservoir.size() < lowWatermark) {
+            scheduleRefill();
+        }
+        if (issued == null) {
+            // Резерв исчерпан всплеском выпуска или еще не заполнен после старта
+            log.warn("Резерв номеров карт пуст, номер генерируется в запросе");
+            issued = generateUnique();
+        } else {
+            reservedHashes.remove(issued.hash());
+        }
+        return issued;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillOnStartup() {
+        scheduleRefill();
+    }
+
+    @Scheduled(fixedDelayString = "${app.card.reservoir.refill-interval:30000}")
+    public void refillIfLow() {
+        if (enabled && reservoir.size() < lowWatermark) {
+            refill();
+        }
+    }
+
+    void refill() {
+        if (!refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int added = 0;
+            int remaining;
+            while ((remaining = reservoir.remainingCapacity()) > 0) {
+                int batchAdded = fillBatch(Math.min(batchSize, remaining));
+                if (batchAdded == 0) {
+                    break;
+                }
+                added += batchAdded;
+            }
+            log.debug("Резерв номеров карт пополнен на {}, всего {}", added, reservoir.size());
+        } catch (RuntimeException e) {
+            log.error("Ошибка пополнения резерва номеров карт", e);
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    int reservoirSize() {
+        return reservoir.size();
+    }
+
+    private void scheduleRefill() {
+        if (enabled && !refilling.get()) {
+            try {
+                executor.execute(this::refill);
+            } catch (RejectedExecutionException e) {
+                log.warn("Пополнение резерва номеров карт отклонено пулом: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Кандидаты проверяются одним запросом IN и сверяются с уже лежащими в резерве
+    private int fillBatch(int count) {
+        Map<String, String> candidates = generateCandidates(count);
+        Set<String> existing = new HashSet<>(cardRepository.findExistingCardNumberHashes(candidates.keySet()));
+        int added = 0;
+        for (Map.Entry<String, String> candidate : candidates.entrySet()) {
+            String hash = candidate.getKey();
+            if (existing.contains(hash) || !reservedHashes.add(hash)) {
+                continue;
+            }
+            if (!reservoir.offer(new IssuedCardNumber(candidate.getValue(), hash))) {
+                reservedHashes.remove(hash);
+                break;
+            }
+            added++;
+        }
+        return added;
+    }
+
+    private IssuedCardNumber generateUnique() {
+        while (true) {
+            Map<String, String> candidates = generateCandidates(1);
+            String hash = candidates.keySet().iterator().next();
+            if (!reservedHashes.contains(hash)
+                    && cardRepository.findExistingCardNumberHashes(Set.of(hash)).isEmpty()) {
+                return new IssuedCardNumber(candidates.get(hash), hash);
+            }
+        }
+    }
+
+    private Map<String, String> generateCandidates(int count) {
+        Map<String, String> candidates = new LinkedHashMap<>(count * 2);
+        while (candidates.size() < count) {
+            String cardNumber = generateCardNumber();
+            candidates.put(cardNumberHasher.hash(cardNumber), cardNumber);
+        }
+        return candidates;
+    }
+
+    // Один вызов генератора на BIN и один на номер счета вместо вызова на каждую цифру
+    String generateCardNumber() {
+        BinRange range = binRanges.get(secureRandom.nextInt(binRanges.size()));
+        long bin = range.first() + secureRandom.nextLong(range.last() - range.first() + 1);
+        int accountLength = CARD_NUMBER_LENGTH - range.length() - 1;
+        long account = secureRandom.nextLong(POWERS_OF_TEN[accountLength]);
+        StringBuilder payload = new StringBuilder(CARD_NUMBER_LENGTH).append(bin);
+        String accountDigits = Long.toString(account);
+        for (int i = accountDigits.length(); i < accountLength; i++) {
+            payload.append('0');
+        }
+        payload.append(accountDigits);
+        return payload.append(Luhn.checkDigit(payload)).toString();
+    }
+
+    /**
+     * Номер карты и его слепой индекс, вычисленный при подготовке резерва.
+     */
+    public record IssuedCardNumber(String number, String hash) {
+
+        public String last4() {
+            return number.substring(number.length() - 4);
+        }
+    }
+
+    /**
+     * Диапазон BIN вида "510000-559999" или одиночный BIN "220220". Длина BIN от 6 до 8 цифр.
+     */
+    record BinRange(long first, long last, int length) {
+
+        static BinRange parse(String value) {
+            String[] bounds = value.trim().split("-");
+            if (bounds.length > 2) {
+                throw new IllegalArgumentException("Некорректный диапазон BIN: " + value);
+            }
+            String first = bounds[0].trim();
+            String last = bounds.length == 2 ? bounds[1].trim() : first;
+            if (!first.matches("[1-9]\\d{5,7}") || first.length() != last.length() || !last.matches("\\d+")
+                    || Long.parseLong(first) > Long.parseLong(last)) {
+                throw new IllegalArgumentException("Некорректный диапазон BIN: " + value);
+            }
+            return new BinRange(Long.parseLong(first), Long.parseLong(last), first.length());
+        }
+    }
+}
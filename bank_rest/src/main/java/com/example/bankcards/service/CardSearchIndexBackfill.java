@@ -0,0 +1,76 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.DataEncryptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Заполняет card_number_last4 и card_number_hash у карт, созданных до появления колонок
+ * (007-card-search-columns.yaml, 010-add-card-number-hash.yaml). Номер хранится зашифрованным,
+ * поэтому миграция не может сделать это в SQL. Карты обрабатываются порциями по id, каждая порция
+ * в своей транзакции; новые карты получают значения при создании.
+ */
+@Slf4j
+@Component
+public class CardSearchIndexBackfill {
+
+    private static final Pageable BATCH = PageRequest.of(0, 500);
+
+    private final CardRepository cardRepository;
+    private final DataEncryptor dataEncryptor;
+    private final CardNumberHasher cardNumberHasher;
+    private final TransactionTemplate transactionTemplate;
+
+    public CardSearchIndexBackfill(CardRepository cardRepository,
+                                   DataEncryptor dataEncryptor,
+                                   CardNumberHasher cardNumberHasher,
+                                   PlatformTransactionManager transactionManager) {
+        this.cardRepository = cardRepository;
+        this.dataEncryptor = dataEncryptor;
+        this.cardNumberHasher = cardNumberHasher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long lastId = 0L;
+        int updated = 0;
+        while (true) {
+            long cursor = lastId;
+            List<Card> batch = transactionTemplate.execute(status -> {
+                List<Card> cards = cardRepository.findSearchIndexBackfillBatch(cursor, BATCH);
+                cards.forEach(this::fillSearchColumns);
+                return cards;
+            });
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            updated += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        if (updated > 0) {
+            log.info("Заполнены поисковые колонки номера у {} карт", updated);
+        }
+    }
+
+    private void fillSearchColumns(Card card) {
+        try {
+            String cardNumber = dataEncryptor.decrypt(card.getCardNumber());
+            card.setCardNumberLast4(cardNumber.substring(cardNumber.length() - 4));
+            card.setCardNumberHash(cardNumberHasher.hash(cardNumber));
+        } catch (Exception e) {
+            log.error("Не удалось расшифровать номер карты {} для поискового индекса", card.getId(), e);
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.dto.*;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.CardType;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.CardNotFoundException;
 import com.example.bankcards.exception.CardOperationException;
 import com.example.bankcards.exception.ResourceNotFoundException;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.CardSpecifications;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.util.DataEncryptor;
 import com.example.bankcards.util.DataMasker;
@@ -16,15 +18,20 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.security.SecureRandom;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import static globalConstants.CardStatusConstants.*;
 import static globalConstants.MessageConstants.CANNOT_DEACTIVATE_WITH_BALANCE_MESSAGE;
 import static globalConstants.MessageConstants.CARD_ALREADY_BLOCKED_MESSAGE;
 
@@ -38,8 +45,7 @@ public class CardService {
     private final UserRepository userRepository;
     private final DataMasker dataMasker;
     private final DataEncryptor dataEncryptor;
-
-    private final SecureRandom secureRandom = new SecureRandom();
+    private final CardNumberAllocator cardNumberAllocator;
 
     @Value("${app.bank.credit-card-limit:50000.00}")
     private BigDecimal creditCardLimit;
@@ -54,10 +60,12 @@ public class CardService {
         log.info("Создание карты для пользователя: {}, тип: {}", request.getUserId(), request.getCardType());
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", request.getUserId().toString()));
-        String cardNumber = generateCardNumber();
+        CardNumberAllocator.IssuedCardNumber cardNumber = cardNumberAllocator.allocate();
         LocalDate expiryDate = LocalDate.now().plusYears(cardExpiryYears);
         Card card = new Card();
-        card.setCardNumber(dataEncryptor.encrypt(cardNumber));
+        card.setCardNumber(dataEncryptor.encrypt(cardNumber.number()));
+        card.setCardNumberLast4(cardNumber.last4());
+        card.setCardNumberHash(cardNumber.hash());
         card.setCardHolderName(user.getFirstName() + " " + user.getLastName());
         card.setExpiryDate(expiryDate);
         card.setCardType(request.getCardType());
@@ -66,6 +74,7 @@ public class CardService {
         card.setBalance(BigDecimal.ZERO);
         card.setActive(true);
         card.setIsBlocked(false);
+        card.setStatus(CardStatus.ACTIVE);
         card.setUser(user);
         if (request.getCardType() == CardType.CREDIT) {
             card.setCreditLimit(creditCardLimit);
@@ -78,15 +87,20 @@ public class CardService {
     @Transactional(readOnly = true)
     public PageResponse<CardDTO> searchUserCards(Long userId, CardSearchRequest searchRequest, Pageable pageable) {
         log.info("Поиск карт пользователя: {} с фильтрами: {}", userId, searchRequest);
-        Page<Card> cardPage = cardRepository.findUserCardsWithFilters(
-                userId,
-                null,
-                searchRequest.getCardType(),
-                searchRequest.getCurrency(),
-                searchRequest.getActive(),
-                searchRequest.getIsBlocked(),
-                pageable
-        );
+        Specification<Card> specification = CardSpecifications.userCardsSearch(userId, searchRequest);
+        if (!searchRequest.isIncludeTotal()) {
+            Slice<Card> cardSlice = cardRepository.findSlice(specification, pageable);
+            log.info("Найдено {} карт пользователя: {} (без подсчета общего количества)",
+                    cardSlice.getNumberOfElements(), userId);
+            return PageResponse.slice(
+                    cardSlice.getContent().stream().map(this::convertToDTO).collect(Collectors.toList()),
+                    cardSlice.getNumber(),
+                    cardSlice.getSize(),
+                    cardSlice.hasNext()
+            );
+        }
+        // SimpleJpaRepository считает COUNT только если страница заполнена целиком и общее число неизвестно
+        Page<Card> cardPage = cardRepository.findAll(specification, pageable);
         List<CardDTO> cardDTOs = cardPage.getContent().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -119,6 +133,64 @@ public class CardService {
         return convertToDTO(card);
     }
 
+    /**
+     * Статус карты по проекции из cards без загрузки сущности и расшифровки номера.
+     */
+    @Transactional(readOnly = true)
+    public CardStatusResponse getCardStatus(Long cardId) {
+        CardRepository.CardStatusView view = cardRepository.findStatusById(cardId)
+                .orElseThrow(() -> new CardNotFoundException(cardId));
+        return statusResponse(view.getId(), view.getStatus(), view.getActive(), view.getBlocked(),
+                view.getExpiryDate());
+    }
+
+    /**
+     * Статус карты вместе с полными данными карты, как его всегда отдавал /cards/{id}/status.
+     * Карта читается один раз, статус берется из той же сущности.
+     */
+    @Transactional(readOnly = true)
+    public CardStatusResponse getCardStatusWithCard(Long cardId) {
+        Card card = cardRepository.findById(cardId)
+                .orElseThrow(() -> new CardNotFoundException(cardId));
+        CardStatusResponse response = statusResponse(card.getId(), card.getStatus(), card.getActive(),
+                card.getIsBlocked(), card.getExpiryDate());
+        response.setCard(convertToDTO(card));
+        return response;
+    }
+
+    // Если срок уже прошел, а ночная проверка еще не перевела карту в EXPIRED, статус уточняется по дате
+    private CardStatusResponse statusResponse(Long cardId, CardStatus storedStatus, Boolean active,
+                                              Boolean blocked, LocalDate expiryDate) {
+        LocalDate today = LocalDate.now();
+        boolean expired = expiryDate.isBefore(today);
+        CardStatus status = storedStatus == CardStatus.ACTIVE && expired ? CardStatus.EXPIRED : storedStatus;
+        return new CardStatusResponse(
+                cardId,
+                status.name(),
+                statusDescription(status),
+                active,
+                blocked,
+                expired,
+                status == CardStatus.ACTIVE,
+                expiryDate,
+                ChronoUnit.DAYS.between(today, expiryDate),
+                null
+        );
+    }
+
+    /**
+     * Число карт в каждом статусе по данным последней проверки сроков.
+     */
+    @Transactional(readOnly = true)
+    public Map<CardStatus, Long> getStatusReport() {
+        Map<CardStatus, Long> report = new EnumMap<>(CardStatus.class);
+        for (CardStatus status : CardStatus.values()) {
+            report.put(status, 0L);
+        }
+        cardRepository.countByStatus().forEach(count -> report.put(count.getStatus(), count.getCardCount()));
+        return report;
+    }
+
     @Transactional(readOnly = true)
     public List<CardDTO> getUserCards(Long userId) {
         log.debug("Получение всех карт пользователя: {}", userId);
@@ -146,6 +218,7 @@ public class CardService {
             throw new CardOperationException(CARD_ALREADY_BLOCKED_MESSAGE);
         }
         card.setIsBlocked(true);
+        card.setStatus(card.resolveStatus());
         Card updatedCard = cardRepository.save(card);
         log.info("Карта успешно заблокирована: {}", cardId);
         return convertToDTO(updatedCard);
@@ -162,6 +235,7 @@ public class CardService {
             throw new CardOperationException("Карта не заблокирована");
         }
         card.setIsBlocked(false);
+        card.setStatus(card.resolveStatus());
         Card updatedCard = cardRepository.save(card);
         log.info("Карта разблокирована успешно: {}", cardId);
         return convertToDTO(updatedCard);
@@ -178,24 +252,47 @@ public class CardService {
             throw new CardOperationException(CANNOT_DEACTIVATE_WITH_BALANCE_MESSAGE);
         }
         card.setActive(false);
+        card.setStatus(card.resolveStatus());
         Card updatedCard = cardRepository.save(card);
         log.info("Карта успешно деактивирована: {}", cardId);
         return convertToDTO(updatedCard);
     }
 
+    /**
+     * Сильный ETag карты по ее версии: читается одно число, без загрузки сущности и расшифровки номера.
+     */
+    @Transactional(readOnly = true)
+    public String getCardETag(Long cardId) {
+        Long version = cardRepository.findVersionById(cardId)
+                .orElseThrow(() -> new CardNotFoundException(cardId));
+        return "\"card-" + cardId + "-" + version + "\"";
+    }
+
+    /**
+     * ETag списка карт и общего баланса пользователя. Версии карт только растут, поэтому сумма версий
+     * вместе с количеством и максимальным id меняется при любом изменении или выпуске карты.
+     */
+    @Transactional(readOnly = true)
+    public String getUserCardsETag(Long userId) {
+        CardRepository.CardsVersion cardsVersion = cardRepository.getUserCardsVersion(userId);
+        return "\"cards-" + userId + "-" + cardsVersion.getCardCount() + "-" + cardsVersion.getVersionSum()
+                + "-" + cardsVersion.getMaxId() + "\"";
+    }
+
+    @Transactional(readOnly = true)
     public BigDecimal getTotalBalance(Long userId) {
         log.debug("Вычисление общего баланса пользователя: {}", userId);
         return cardRepository.getTotalBalanceByUserId(userId)
                 .orElse(BigDecimal.ZERO);
     }
 
-    private String generateCardNumber() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(secureRandom.nextInt(2) == 0 ? 4 : 5);
-        for (int i = 0; i < 15; i++) {
-            sb.append(secureRandom.nextInt(10));
-        }
-        return sb.toString();
+    private static String statusDescription(CardStatus status) {
+        return switch (status) {
+            case ACTIVE -> ACTIVE_STATUS_DESCRIPTION;
+            case BLOCKED -> BLOCKED_STATUS_DESCRIPTION;
+            case EXPIRED -> EXPIRED_STATUS_DESCRIPTION;
+            case DEACTIVATED -> DEACTIVATED_STATUS_DESCRIPTION;
+        };
     }
 
     private CardDTO convertToDTO(Card card) {
@@ -216,6 +313,7 @@ public class CardService {
         cardDTO.setCreditLimit(card.getCreditLimit());
         cardDTO.setActive(card.getActive());
         cardDTO.setIsBlocked(card.getIsBlocked());
+        cardDTO.setStatus(card.getStatus());
         cardDTO.setCreatedAt(card.getCreatedAt());
         cardDTO.setUserId(card.getUser().getId());
         cardDTO.setUserFullName(card.getUser().getFirstName() + " " + card.getUser().getLastName());
@@ -0,0 +1,80 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardDTO;
+import com.example.bankcards.dto.DashboardDTO;
+import com.example.bankcards.dto.TransactionDTO;
+import com.example.bankcards.entity.Currency;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Данные главного экрана одним запросом вместо трех (/api/cards, /api/cards/total-balance, /api/transactions).
+ * Карты с владельцем и последние транзакции читаются двумя запросами параллельно, каждый в своей
+ * read-only транзакции; итоги по валютам считаются по уже загруженным картам без отдельного SUM.
+ */
+@Slf4j
+@Service
+public class DashboardService {
+
+    static final int MAX_RECENT_TRANSACTIONS = 50;
+
+    private final CardService cardService;
+    private final TransactionService transactionService;
+    private final Executor executor;
+
+    public DashboardService(CardService cardService,
+                            TransactionService transactionService,
+                            @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.cardService = cardService;
+        this.transactionService = transactionService;
+        this.executor = executor;
+    }
+
+    public DashboardDTO getDashboard(Long userId, int transactionsLimit) {
+        int limit = Math.max(1, Math.min(transactionsLimit, MAX_RECENT_TRANSACTIONS));
+        log.debug("Получение данных главного экрана пользователя: {}", userId);
+        CompletableFuture<List<TransactionDTO>> recentTransactions = CompletableFuture.supplyAsync(
+                () -> transactionService.getRecentUserTransactions(userId, limit), executor);
+        List<CardDTO> cards;
+        try {
+            cards = cardService.getUserCards(userId);
+        } catch (RuntimeException e) {
+            recentTransactions.cancel(true);
+            throw e;
+        }
+        return new DashboardDTO(cards, totalsByCurrency(cards), join(recentTransactions));
+    }
+
+    // Как и total-balance, учитываются только активные карты
+    private List<DashboardDTO.CurrencyTotal> totalsByCurrency(List<CardDTO> cards) {
+        Map<Currency, DashboardDTO.CurrencyTotal> totals = new EnumMap<>(Currency.class);
+        for (CardDTO card : cards) {
+            if (!Boolean.TRUE.equals(card.getActive()) || card.getCurrency() == null) {
+                continue;
+            }
+            DashboardDTO.CurrencyTotal total = totals.computeIfAbsent(card.getCurrency(),
+                    currency -> new DashboardDTO.CurrencyTotal(currency, BigDecimal.ZERO, 0));
+            total.setBalance(total.getBalance().add(card.getBalance() != null ? card.getBalance() : BigDecimal.ZERO));
+            total.setActiveCards(total.getActiveCards() + 1);
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.exception.ValidationException;
+import com.example.bankcards.util.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.Properties;
+
+import static globalConstants.MessageConstants.FX_RATE_NOT_AVAILABLE_MESSAGE;
+
+@Slf4j
+@Service
+public class FxRateService {
+
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final long IDENTITY_RATE = Money.toScaledRate(BigDecimal.ONE);
+
+    private final ResourceLoader resourceLoader;
+    private final String ratesLocation;
+
+    /**
+     * Неизменяемый снимок курсов. При обновлении строится новый снимок и подменяется ссылка,
+     * поэтому переводы читают курсы без блокировок и обращений к источнику.
+     */
+    private volatile RateSnapshot snapshot = RateSnapshot.EMPTY;
+
+    public FxRateService(ResourceLoader resourceLoader,
+                         @Value("${app.fx.rates-location:classpath:fx/rates.properties}") String ratesLocation) {
+        this.resourceLoader = resourceLoader;
+        this.ratesLocation = ratesLocation;
+        refreshRates();
+    }
+
+    @Scheduled(fixedDelayString = "${app.fx.refresh-interval:300000}",
+            initialDelayString = "${app.fx.refresh-interval:300000}")
+    public void refreshRates() {
+        Resource resource = resourceLoader.getResource(ratesLocation);
+        if (!resource.exists()) {
+            log.warn("Файл курсов валют не найден: {}, используются прежние курсы", ratesLocation);
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = resource.getInputStream()) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            log.error("Не удалось загрузить курсы валют из {}, используются прежние курсы", ratesLocation, e);
+            return;
+        }
+        long[] rates = new long[CURRENCIES.length * CURRENCIES.length];
+        for (String pair : properties.stringPropertyNames()) {
+            String[] currencies = pair.split("_");
+            try {
+                Currency from = Currency.valueOf(currencies[0]);
+                Currency to = Currency.valueOf(currencies[1]);
+                rates[index(from, to)] = Money.toScaledRate(new BigDecimal(properties.getProperty(pair).trim()));
+            } catch (RuntimeException e) {
+                log.warn("Пропущена некорректная запись курса валют: {}", pair);
+            }
+        }
+        snapshot = new RateSnapshot(rates);
+        log.info("Загружено {} курсов валют из {}", properties.size(), ratesLocation);
+    }
+
+    public boolean hasRate(Currency from, Currency to) {
+        return from == to || snapshot.rates[index(from, to)] > 0;
+    }
+
+    public BigDecimal getRate(Currency from, Currency to) {
+        return Money.fromScaledRate(rateOf(from, to));
+    }
+
+    /**
+     * Конвертирует сумму по курсу из текущего снимка с округлением HALF_UP
+     */
+    public Money convert(Money amount, Currency from, Currency to) {
+        return exchange(amount, from, to).amount();
+    }
+
+    /**
+     * Конвертирует сумму и возвращает вместе с ней примененный курс. Снимок читается один раз,
+     * поэтому сохраненный в транзакции курс совпадает с тем, по которому посчитана сумма,
+     * даже если курсы обновились во время перевода.
+     */
+    public Conversion exchange(Money amount, Currency from, Currency to) {
+        if (from == to) {
+            return new Conversion(amount, Money.fromScaledRate(IDENTITY_RATE));
+        }
+        long rate = rateOf(snapshot, from, to);
+        return new Conversion(amount.multiplyByRate(rate), Money.fromScaledRate(rate));
+    }
+
+    private long rateOf(Currency from, Currency to) {
+        return from == to ? IDENTITY_RATE : rateOf(snapshot, from, to);
+    }
+
+    private static long rateOf(RateSnapshot snapshot, Currency from, Currency to) {
+        long rate = snapshot.rates[index(from, to)];
+        if (rate <= 0) {
+            throw new ValidationException(FX_RATE_NOT_AVAILABLE_MESSAGE + ": " + from + " -> " + to);
+        }
+        return rate;
+    }
+
+    private static int index(Currency from, Currency to) {
+        return from.ordinal() * CURRENCIES.length + to.ordinal();
+    }
+
+    public record Conversion(Money amount, BigDecimal rate) {
+    }
+
+    private record RateSnapshot(long[] rates) {
+        private static final RateSnapshot EMPTY = new RateSnapshot(new long[CURRENCIES.length * CURRENCIES.length]);
+    }
+}
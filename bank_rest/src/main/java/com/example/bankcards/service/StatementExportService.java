@@ -0,0 +1,253 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.ReplicaLagMonitor;
+import com.example.bankcards.dto.StatementFormat;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.exception.TooManyRequestsException;
+import com.example.bankcards.repository.TransactionHistoryRepository;
+import com.example.bankcards.util.DataEncryptor;
+import com.example.bankcards.util.DataMasker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static globalConstants.MessageConstants.STATEMENT_EXPORT_BUSY_MESSAGE;
+import static globalConstants.MessageConstants.STATEMENT_EXPORT_REPLICA_UNAVAILABLE_MESSAGE;
+
+/**
+ * Потоковая выгрузка выписки по транзакциям пользователя в CSV или NDJSON, включая архив.
+ * Строки читаются курсором и сразу пишутся в ответ, прочитанные транзакции отсоединяются
+ * от контекста персистентности, поэтому потребление памяти не зависит от длины выписки.
+ * Выгрузка держит соединение все время передачи, поэтому число одновременных выгрузок
+ * ограничено, а при включенной реплике они читают только с нее и не занимают основной пул.
+ */
+@Slf4j
+@Service
+public class StatementExportService {
+
+    private static final String CSV_HEADER = "transactionId,createdAt,direction,type,status,amount,commission," +
+            "convertedAmount,exchangeRate,fromCard,toCard,description";
+    private static final int FLUSH_EVERY_ROWS = 500;
+    private static final String MASKED_CARD_FALLBACK = "**** **** **** ****";
+
+    private final TransactionHistoryRepository transactionHistoryRepository;
+    private final EntityManager entityManager;
+    private final DataEncryptor dataEncryptor;
+    private final DataMasker dataMasker;
+    private final ObjectWriter rowWriter;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final Semaphore exportPermits;
+    private final int maxConcurrentExports;
+
+    public StatementExportService(TransactionHistoryRepository transactionHistoryRepository,
+                                  EntityManager entityManager,
+                                  DataEncryptor dataEncryptor,
+                                  DataMasker dataMasker,
+                                  ObjectMapper objectMapper,
+                                  ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.statement.max-concurrent-exports:2}") int maxConcurrentExports) {
+        this.transactionHistoryRepository = transactionHistoryRepository;
+        this.entityManager = entityManager;
+        this.dataEncryptor = dataEncryptor;
+        this.dataMasker = dataMasker;
+        this.rowWriter = objectMapper.writerFor(StatementRow.class);
+        this.replicaLagMonitor = replicaLagMonitor.getIfAvailable();
+        this.maxConcurrentExports = maxConcurrentExports;
+        this.exportPermits = new Semaphore(maxConcurrentExports);
+        Gauge.builder("statement.export.active", this, StatementExportService::getActiveExports)
+                .description("Число выполняющихся выгрузок выписок")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Занимает слот выгрузки до начала передачи ответа. Если слотов нет или включенная реплика
+     * недоступна, запрос отклоняется сразу, а не ждет соединения из основного пула.
+     * Слот освобождается закрытием разрешения после выгрузки, а если выгрузка так и не началась -
+     * по завершении асинхронной обработки запроса, куда разрешение регистрируется как перехватчик.
+     */
+    public ExportPermit acquireExportPermit() {
+        if (replicaLagMonitor != null && !replicaLagMonitor.isReplicaUsable()) {
+            throw new TooManyRequestsException(STATEMENT_EXPORT_REPLICA_UNAVAILABLE_MESSAGE);
+        }
+        if (!exportPermits.tryAcquire()) {
+            throw new TooManyRequestsException(STATEMENT_EXPORT_BUSY_MESSAGE);
+        }
+        return new ExportPermit(exportPermits);
+    }
+
+    public int getActiveExports() {
+        return maxConcurrentExports - exportPermits.availablePermits();
+    }
+
+    @Transactional(readOnly = true)
+    public long exportUserStatement(Long userId, StatementFormat format, OutputStream outputStream)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        // Карт у пользователя немного, поэтому расшифрованные маски кешируются на время выгрузки
+        Map<Long, String> maskedCards = new HashMap<>();
+        long rows = 0;
+        if (format == StatementFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try (Stream<Transaction> transactions = transactionHistoryRepository.streamUserStatement(userId)) {
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                StatementRow row = toRow(transaction, userId, maskedCards);
+                entityManager.detach(transaction);
+                if (format == StatementFormat.CSV) {
+                    writeCsv(writer, row);
+                } else {
+                    writer.write(rowWriter.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Выгружена выписка пользователя {}: {} строк в формате {}", userId, rows, format);
+        return rows;
+    }
+
+    private StatementRow toRow(Transaction transaction, Long userId, Map<Long, String> maskedCards) {
+        Card fromCard = transaction.getFromCard();
+        boolean outgoing = fromCard != null && fromCard.getUser() != null
+                && fromCard.getUser().getId().equals(userId);
+        return new StatementRow(
+                transaction.getTransactionId(),
+                transaction.getCreatedAt(),
+                outgoing ? "OUT" : "IN",
+                transaction.getType().name(),
+                transaction.getStatus().name(),
+                transaction.getAmount(),
+                transaction.getCommission(),
+                transaction.getConvertedAmount(),
+                transaction.getExchangeRate(),
+                maskCard(fromCard, maskedCards),
+                maskCard(transaction.getToCard(), maskedCards),
+                transaction.getDescription()
+        );
+    }
+
+    private String maskCard(Card card, Map<Long, String> maskedCards) {
+        if (card == null) {
+            return null;
+        }
+        return maskedCards.computeIfAbsent(card.getId(), id -> {
+            try {
+                return dataMasker.maskCardNumber(dataEncryptor.decrypt(card.getCardNumber()));
+            } catch (Exception e) {
+                log.error("Ошибка расшифровки номера карты для выписки", e);
+                return MASKED_CARD_FALLBACK;
+            }
+        });
+    }
+
+    private void writeCsv(Writer writer, StatementRow row) throws IOException {
+        writer.write(csv(row.transactionId()));
+        writer.write(',');
+        writer.write(csv(row.createdAt() != null ? row.createdAt().toString() : null));
+        writer.write(',');
+        writer.write(row.direction());
+        writer.write(',');
+        writer.write(row.type());
+        writer.write(',');
+        writer.write(row.status());
+        writer.write(',');
+        writer.write(plain(row.amount()));
+        writer.write(',');
+        writer.write(plain(row.commission()));
+        writer.write(',');
+        writer.write(plain(row.convertedAmount()));
+        writer.write(',');
+        writer.write(plain(row.exchangeRate()));
+        writer.write(',');
+        writer.write(csv(row.fromCard()));
+        writer.write(',');
+        writer.write(csv(row.toCard()));
+        writer.write(',');
+        writer.write(csv(row.description()));
+        writer.write('\n');
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : "";
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Разрешение на одну выгрузку. Повторное закрытие ничего не делает. Как перехватчик асинхронной
+     * обработки закрывается при любом ее завершении: успехе, ошибке, таймауте или отказе исполнителя.
+     */
+    public static final class ExportPermit implements AutoCloseable, CallableProcessingInterceptor {
+
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ExportPermit(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+            close();
+        }
+    }
+
+    private record StatementRow(String transactionId,
+                                LocalDateTime createdAt,
+                                String direction,
+                                String type,
+                                String status,
+                                BigDecimal amount,
+                                BigDecimal commission,
+                                BigDecimal convertedAmount,
+                                BigDecimal exchangeRate,
+                                String fromCard,
+                                String toCard,
+                                String description) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransactionRollupDTO;
+import com.example.bankcards.entity.CardType;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.entity.TransactionRollup;
+import com.example.bankcards.entity.TransactionRollupKey;
+import com.example.bankcards.exception.ValidationException;
+import com.example.bankcards.repository.TransactionRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static globalConstants.MessageConstants.ANALYTICS_INVALID_PERIOD_MESSAGE;
+import static globalConstants.MessageConstants.ANALYTICS_PERIOD_TOO_LONG_MESSAGE;
+
+/**
+ * Отчеты по операциям из дневных сводок transaction_rollups. Объем чтения зависит от числа
+ * корзин периода (день x валюта x тип карты x тип операции), а не от числа транзакций.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TransactionAnalyticsService {
+
+    static final int MAX_PERIOD_DAYS = 366;
+    private static final int RATE_SCALE = 4;
+
+    private final TransactionRollupRepository rollupRepository;
+
+    public List<TransactionRollupDTO> getDailyRollups(LocalDate from, LocalDate to,
+                                                      Currency currency, CardType cardType) {
+        if (from.isAfter(to)) {
+            throw new ValidationException(ANALYTICS_INVALID_PERIOD_MESSAGE);
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_PERIOD_DAYS) {
+            throw new ValidationException(ANALYTICS_PERIOD_TOO_LONG_MESSAGE + ": " + MAX_PERIOD_DAYS);
+        }
+        log.debug("Получение сводок по операциям за период {} - {}", from, to);
+        // Корзин за день не больше нескольких штук, поэтому фильтр по валюте и типу карты - в памяти
+        return rollupRepository.findByBucketDateBetween(from, to).stream()
+                .filter(rollup -> currency == null || rollup.getId().getCurrency() == currency)
+                .filter(rollup -> cardType == null || rollup.getId().getCardType() == cardType)
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    private TransactionRollupDTO convertToDTO(TransactionRollup rollup) {
+        TransactionRollupKey key = rollup.getId();
+        return new TransactionRollupDTO(key.getBucketDate(), key.getCurrency(), key.getCardType(),
+                key.getTransactionType(), rollup.getCompletedCount(), rollup.getFailedCount(),
+                failureRate(rollup.getCompletedCount(), rollup.getFailedCount()),
+                rollup.getVolume(), rollup.getCommission());
+    }
+
+    private static BigDecimal failureRate(long completed, long failed) {
+        long total = completed + failed;
+        if (total == 0) {
+            return BigDecimal.ZERO.setScale(RATE_SCALE);
+        }
+        return BigDecimal.valueOf(failed).divide(BigDecimal.valueOf(total), RATE_SCALE, RoundingMode.HALF_UP);
+    }
+}
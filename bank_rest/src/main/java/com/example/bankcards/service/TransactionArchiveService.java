@@ -0,0 +1,109 @@
+package com.example.bankcards.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживание помесячных секций transactions (только PostgreSQL, см. 005-partition-transactions.yaml):
+ * заранее создает секции будущих месяцев и переносит секции старше hot-months в transactions_archive.
+ * Каждая секция переносится в отдельной транзакции: копирование, отсоединение и удаление секции.
+ * Строки из секции по умолчанию сначала раскладываются по секциям своих месяцев, иначе они
+ * не попадут в архив, а секцию для их месяца нельзя будет создать.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.transactions.archive", name = "enabled", havingValue = "true")
+public class TransactionArchiveService {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("^transactions_y(\\d{4})m(\\d{2})$");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyy-MM-01");
+    private static final String COLUMNS = "id, transaction_id, amount, commission, type, status, description, " +
+            "created_at, from_user_id, to_user_id, from_card_id, to_card_id, converted_amount, exchange_rate";
+    private static final String LIST_PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = 'transactions'";
+    private static final String DEFAULT_PARTITION_MONTHS_SQL = "SELECT DISTINCT " +
+            "to_char(date_trunc('month', created_at), 'YYYY-MM-DD') FROM transactions_default";
+    private static final String CREATE_PARTITION_SQL = "SELECT create_transactions_partition(CAST(? AS DATE))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int hotMonths;
+    private final int partitionsAhead;
+
+    public TransactionArchiveService(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.transactions.hot-months:12}") int hotMonths,
+                                     @Value("${app.transactions.archive.partitions-ahead:3}") int partitionsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotMonths = hotMonths;
+        this.partitionsAhead = partitionsAhead;
+    }
+
+    @Scheduled(cron = "${app.transactions.archive.cron:0 30 3 * * *}")
+    public void maintainPartitions() {
+        createUpcomingPartitions(YearMonth.now());
+        drainDefaultPartition();
+        archiveColdPartitions(YearMonth.now());
+    }
+
+    void createUpcomingPartitions(YearMonth currentMonth) {
+        for (int i = 0; i <= partitionsAhead; i++) {
+            String month = currentMonth.plusMonths(i).format(PARTITION_MONTH);
+            jdbcTemplate.queryForObject(CREATE_PARTITION_SQL, String.class, month);
+        }
+    }
+
+    // create_transactions_partition переносит строки месяца из секции по умолчанию в новую секцию
+    int drainDefaultPartition() {
+        List<String> months = jdbcTemplate.queryForList(DEFAULT_PARTITION_MONTHS_SQL, String.class);
+        for (String month : months) {
+            String partition = jdbcTemplate.queryForObject(CREATE_PARTITION_SQL, String.class, month);
+            log.warn("Строки за {} перенесены из секции по умолчанию в {}", month, partition);
+        }
+        return months.size();
+    }
+
+    int archiveColdPartitions(YearMonth currentMonth) {
+        YearMonth cutoff = currentMonth.minusMonths(hotMonths);
+        List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+        int archived = 0;
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.isBefore(cutoff)) {
+                archivePartition(partition);
+                archived++;
+            }
+        }
+        return archived;
+    }
+
+    // Имя секции проверено регулярным выражением, поэтому подставляется в SQL напрямую
+    private void archivePartition(String partition) {
+        transactionTemplate.executeWithoutResult(status -> {
+            int rows = jdbcTemplate.update("INSERT INTO transactions_archive (" + COLUMNS + ") " +
+                    "SELECT " + COLUMNS + " FROM " + partition);
+            jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Секция {} перенесена в архив: {} транзакций", partition, rows);
+        });
+    }
+}
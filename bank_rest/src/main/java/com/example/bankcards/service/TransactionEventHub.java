@@ -0,0 +1,254 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransactionDTO;
+import com.example.bankcards.event.TransactionCompletedEvent;
+import com.example.bankcards.exception.TooManyRequestsException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static globalConstants.MessageConstants.TRANSACTION_STREAM_LIMIT_MESSAGE;
+
+/**
+ * Рассылает подписчикам SSE события о завершенных транзакциях и изменении баланса карт.
+ * Событие сериализуется один раз и кладется в ограниченный буфер каждого подписчика;
+ * при переполнении вытесняется самое старое событие. Запись в соединения выполняют потоки
+ * sse-dispatch, поэтому медленный клиент не задерживает ни коммит, ни остальных подписчиков.
+ */
+@Slf4j
+@Service
+public class TransactionEventHub implements DisposableBean {
+
+    static final String TRANSACTION_EVENT = "transaction";
+    static final String BALANCE_EVENT = "balance";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ObjectMapper objectMapper;
+    private final ExecutorService dispatcher;
+    private final int bufferSize;
+    private final int maxStreamsPerUser;
+    private final long timeoutMillis;
+    private final Counter droppedCounter;
+    private final Counter deliveredCounter;
+
+    @Autowired
+    public TransactionEventHub(ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.events.buffer-size:256}") int bufferSize,
+                               @Value("${app.events.max-streams-per-user:5}") int maxStreamsPerUser,
+                               @Value("${app.events.stream-timeout:1800000}") long timeoutMillis,
+                               @Value("${app.events.dispatcher-threads:2}") int dispatcherThreads) {
+        this(objectMapper, meterRegistry, bufferSize, maxStreamsPerUser, timeoutMillis,
+                Executors.newFixedThreadPool(dispatcherThreads, new DispatchThreadFactory()));
+    }
+
+    TransactionEventHub(ObjectMapper objectMapper, MeterRegistry meterRegistry, int bufferSize,
+                        int maxStreamsPerUser, long timeoutMillis, ExecutorService dispatcher) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        this.timeoutMillis = timeoutMillis;
+        this.dispatcher = dispatcher;
+        Gauge.builder("transactions.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Число открытых SSE-подписок на события транзакций")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("transactions.stream.dropped")
+                .description("События, вытесненные из переполненного буфера подписчика")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("transactions.stream.delivered")
+                .description("События, отправленные подписчикам")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribers.compute(userId, (id, current) -> {
+            Set<Subscriber> userSubscribers = current != null ? current : ConcurrentHashMap.newKeySet();
+            if (userSubscribers.size() >= maxStreamsPerUser) {
+                throw new TooManyRequestsException(TRANSACTION_STREAM_LIMIT_MESSAGE);
+            }
+            userSubscribers.add(subscriber);
+            return userSubscribers;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        log.debug("Пользователь {} подписался на события транзакций", userId);
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransactionCompleted(TransactionCompletedEvent event) {
+        TransactionDTO transaction = event.transaction();
+        Set<Long> participants = new LinkedHashSet<>();
+        if (transaction.getFromUserId() != null) {
+            participants.add(transaction.getFromUserId());
+        }
+        if (transaction.getToUserId() != null) {
+            participants.add(transaction.getToUserId());
+        }
+        if (participants.stream().anyMatch(subscribers::containsKey)) {
+            Set<DataWithMediaType> message = message(TRANSACTION_EVENT, transaction.getTransactionId(), transaction);
+            participants.forEach(userId -> publish(userId, message));
+        }
+        for (TransactionCompletedEvent.BalanceChange balance : event.balances()) {
+            if (subscribers.containsKey(balance.userId())) {
+                publish(balance.userId(), message(BALANCE_EVENT, null, balance));
+            }
+        }
+    }
+
+    // Комментарий не виден клиенту, но не дает прокси закрыть простаивающее соединение
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-interval:15000}")
+    public void sendHeartbeats() {
+        Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> {
+            if (subscriber.isIdle()) {
+                enqueue(subscriber, heartbeat);
+            }
+        }));
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private void publish(Long userId, Set<DataWithMediaType> message) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers != null) {
+            userSubscribers.forEach(subscriber -> enqueue(subscriber, message));
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Set<DataWithMediaType> message) {
+        if (subscriber.offer(message)) {
+            droppedCounter.increment();
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<DataWithMediaType> message;
+            while (!subscriber.closed && (message = subscriber.poll()) != null) {
+                subscriber.emitter.send(message);
+                deliveredCounter.increment();
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Соединение подписчика {} закрыто: {}", subscriber.userId, e.getMessage());
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Событие могло прийти между последним poll и сбросом флага
+        if (!subscriber.closed && !subscriber.isIdle()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscriber.closed) {
+            return;
+        }
+        subscriber.closed = true;
+        subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+        subscriberCount.decrementAndGet();
+    }
+
+    private Set<DataWithMediaType> message(String name, String id, Object payload) {
+        try {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name);
+            if (id != null) {
+                builder.id(id);
+            }
+            return builder.data(objectMapper.writeValueAsString(payload)).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Ошибка сериализации события " + name, e);
+        }
+    }
+
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Set<DataWithMediaType>> buffer = new ArrayDeque<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        // Возвращает true, если ради нового события пришлось вытеснить самое старое
+        private boolean offer(Set<DataWithMediaType> message) {
+            synchronized (buffer) {
+                boolean dropped = buffer.size() >= bufferSize;
+                if (dropped) {
+                    buffer.pollFirst();
+                }
+                buffer.addLast(message);
+                return dropped;
+            }
+        }
+
+        private Set<DataWithMediaType> poll() {
+            synchronized (buffer) {
+                return buffer.pollFirst();
+            }
+        }
+
+        private boolean isIdle() {
+            synchronized (buffer) {
+                return buffer.isEmpty();
+            }
+        }
+    }
+
+    private static final class DispatchThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "sse-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
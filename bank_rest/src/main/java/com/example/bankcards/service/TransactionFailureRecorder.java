@@ -0,0 +1,76 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.TransactionType;
+import com.example.bankcards.event.TransactionFailedEvent;
+import com.example.bankcards.outbox.OutboxWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Фиксирует отказ операции в outbox. Транзакция операции после исключения откатывается
+ * вместе со всем, что в ней записано, поэтому событие пишется отдельно и только после ее
+ * завершения: на пуле задач, в собственной транзакции. Поток запроса не ждет второе соединение,
+ * удерживая первое и блокировки строк карт, и отказы не могут исчерпать пул соединений.
+ */
+@Slf4j
+@Component
+public class TransactionFailureRecorder {
+
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+
+    public TransactionFailureRecorder(OutboxWriter outboxWriter,
+                                      PlatformTransactionManager transactionManager,
+                                      @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+    }
+
+    public void record(TransactionType type, Card card, BigDecimal amount, RuntimeException cause) {
+        // Поля карты читаются сейчас: после отката сущность уже отсоединена
+        TransactionFailedEvent event = new TransactionFailedEvent(type, card.getId(), card.getCurrency(),
+                card.getCardType(), amount, cause.getClass().getSimpleName(), LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    submit(event);
+                }
+            });
+        } else {
+            submit(event);
+        }
+    }
+
+    private void submit(TransactionFailedEvent event) {
+        try {
+            executor.execute(() -> append(event));
+        } catch (RejectedExecutionException e) {
+            log.warn("Запись отказа операции {} по карте {} отклонена пулом: {}", event.type(),
+                    event.cardId(), e.getMessage());
+        }
+    }
+
+    private void append(TransactionFailedEvent event) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxWriter.append(TransactionFailedEvent.AGGREGATE_TYPE,
+                    event.cardId().toString(), TransactionFailedEvent.EVENT_TYPE, event));
+        } catch (RuntimeException e) {
+            log.warn("Не удалось записать отказ операции {} по карте {}: {}", event.type(),
+                    event.cardId(), e.getMessage());
+        }
+    }
+}
@@ -4,23 +4,31 @@ import com.example.bankcards.dto.OwnCardsTransferRequest;
 import com.example.bankcards.dto.TransactionDTO;
 import com.example.bankcards.dto.TransactionRequest;
 import com.example.bankcards.entity.*;
+import com.example.bankcards.event.TransactionCompletedEvent;
 import com.example.bankcards.exception.*;
+import com.example.bankcards.outbox.OutboxWriter;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionHistoryRepository;
 import com.example.bankcards.repository.TransactionRepository;
 import com.example.bankcards.util.DataMasker;
+import com.example.bankcards.util.Money;
+import com.example.bankcards.util.TransactionIds;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static globalConstants.MessageConstants.*;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -29,8 +37,24 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final CardRepository cardRepository;
     private final DataMasker dataMasker;
+    private final FxRateService fxRateService;
+    private final TransferLimitService transferLimitService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
+    private final TransactionFailureRecorder transactionFailureRecorder;
+    private final TransactionHistoryRepository transactionHistoryRepository;
+    private long commissionRate;
+    private int historyLimit = 1000;
+
     @Value("${app.bank.transfer-commission-rate:0.01}")
-    private BigDecimal commissionRate;
+    void setCommissionRate(BigDecimal commissionRate) {
+        this.commissionRate = Money.toScaledRate(commissionRate);
+    }
+
+    @Value("${app.transactions.history-limit:1000}")
+    void setHistoryLimit(int historyLimit) {
+        this.historyLimit = historyLimit;
+    }
 
     public TransactionDTO transferMoney(TransactionRequest request) {
         Card fromCard = cardRepository.findById(request.getFromCardId())
@@ -39,26 +63,11 @@ public class TransactionService {
         Card toCard = cardRepository.findByCardNumber(request.getToCardNumber())
                 .orElseThrow(() -> new ResourceNotFoundException("Card", "cardNumber", request.getToCardNumber()));
 
-        validateTransfer(fromCard, toCard, request.getAmount());
-
-        BigDecimal commission = calculateCommission(request.getAmount());
-        BigDecimal totalAmount = request.getAmount().add(commission);
-
-        Transaction transaction = createTransaction(fromCard, toCard, request.getAmount(),
-                commission, request.getDescription());
-
         try {
-            performTransfer(fromCard, toCard, request.getAmount(), commission);
-
-            transaction.setStatus(TransactionStatus.COMPLETED);
-            Transaction savedTransaction = transactionRepository.save(transaction);
-
-            return convertToDTO(savedTransaction);
-
-        } catch (Exception e) {
-            transaction.setStatus(TransactionStatus.FAILED);
-            transactionRepository.save(transaction);
-            throw new TransactionException("Перевод не прошел: " + e.getMessage(), e);
+            return transfer(fromCard, toCard, request.getAmount(), request.getDescription());
+        } catch (RuntimeException e) {
+            recordFailure(TransactionType.TRANSFER, fromCard, request.getAmount(), e);
+            throw e;
         }
     }
 
@@ -66,51 +75,40 @@ public class TransactionService {
         Card card = cardRepository.findById(cardId)
                 .orElseThrow(() -> new ResourceNotFoundException("Card", "id", cardId.toString()));
 
-        validateDeposit(amount);
-
-        Transaction transaction = new Transaction();
-        transaction.setTransactionId(generateTransactionId());
-        transaction.setAmount(amount);
-        transaction.setType(TransactionType.DEPOSIT);
-        transaction.setStatus(TransactionStatus.PENDING);
-        transaction.setDescription(DEPOSIT_TO_CARD_MESSAGE);
-        transaction.setCommission(BigDecimal.ZERO);
-        transaction.setToCard(card);
-
         try {
-
-            card.setBalance(card.getBalance().add(amount));
-            cardRepository.save(card);
-
-            transaction.setStatus(TransactionStatus.COMPLETED);
-            Transaction savedTransaction = transactionRepository.save(transaction);
-
-            return convertToDTO(savedTransaction);
-
-        } catch (Exception e) {
-            transaction.setStatus(TransactionStatus.FAILED);
-            transactionRepository.save(transaction);
-            throw new TransactionException("Пополнение не прошло: " + e.getMessage(), e);
+            return deposit(card, amount);
+        } catch (RuntimeException e) {
+            recordFailure(TransactionType.DEPOSIT, card, amount, e);
+            throw e;
         }
     }
 
+    /**
+     * История пользователя вместе с архивом, новые первыми, не больше history-limit транзакций.
+     * Полную историю без ограничения отдает потоковая выписка.
+     */
     @Transactional(readOnly = true)
     public List<TransactionDTO> getUserTransactions(Long userId) {
-        return transactionRepository.findAllUserTransactions(userId).stream()
+        return getRecentUserTransactions(userId, historyLimit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransactionDTO> getRecentUserTransactions(Long userId, int limit) {
+        return transactionHistoryRepository.findUserTransactions(userId, limit).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public TransactionDTO getTransactionById(Long id) {
-        Transaction transaction = transactionRepository.findById(id)
+        Transaction transaction = transactionHistoryRepository.findById(id)
                 .orElseThrow(() -> new TransactionNotFoundException(id));
         return convertToDTO(transaction);
     }
 
     @Transactional(readOnly = true)
     public TransactionDTO getTransactionByTransactionId(String transactionId) {
-        Transaction transaction = transactionRepository.findByTransactionId(transactionId)
+        Transaction transaction = transactionHistoryRepository.findByTransactionId(transactionId)
                 .orElseThrow(() -> new TransactionNotFoundException(transactionId));
         return convertToDTO(transaction);
     }
@@ -127,15 +125,17 @@ public class TransactionService {
         transactionRepository.save(transaction);
     }
 
-    private Transaction createTransaction(Card fromCard, Card toCard, BigDecimal amount,
-                                          BigDecimal commission, String description) {
+    private Transaction createTransaction(Card fromCard, Card toCard, Money amount, Money commission,
+                                          FxRateService.Conversion conversion, String description) {
         Transaction transaction = new Transaction();
         transaction.setTransactionId(generateTransactionId());
-        transaction.setAmount(amount);
+        transaction.setAmount(amount.toBigDecimal());
         transaction.setType(TransactionType.TRANSFER);
         transaction.setStatus(TransactionStatus.PENDING);
         transaction.setDescription(description != null ? description : "Перевод между картами");
-        transaction.setCommission(commission);
+        transaction.setCommission(commission.toBigDecimal());
+        transaction.setConvertedAmount(conversion.amount().toBigDecimal());
+        transaction.setExchangeRate(conversion.rate());
         transaction.setFromCard(fromCard);
         transaction.setToCard(toCard);
         return transaction;
@@ -149,15 +149,34 @@ public class TransactionService {
         if (!fromCard.getUser().getId().equals(userId) || !toCard.getUser().getId().equals(userId)) {
             throw new CardOperationException(BOTH_CARDS_MUST_BELONG_TO_CURRENT_USER_MESSAGE);
         }
-        validateTransfer(fromCard, toCard, request.getAmount());
-        BigDecimal commission = calculateCommission(request.getAmount());
-        Transaction transaction = createTransaction(fromCard, toCard, request.getAmount(),
-                commission, request.getDescription());
         try {
-            performTransfer(fromCard, toCard, request.getAmount(), commission);
+            return transfer(fromCard, toCard, request.getAmount(), request.getDescription());
+        } catch (RuntimeException e) {
+            recordFailure(TransactionType.TRANSFER, fromCard, request.getAmount(), e);
+            throw e;
+        }
+    }
+
+    private TransactionDTO transfer(Card fromCard, Card toCard, BigDecimal requestedAmount, String description) {
+        Money amount = Money.of(requestedAmount);
+        Money commission = calculateCommission(amount);
+        validateTransfer(fromCard, toCard, amount, commission);
+        transferLimitService.checkAndRecord(fromCard, amount);
+
+        FxRateService.Conversion conversion = fxRateService.exchange(amount, fromCard.getCurrency(),
+                toCard.getCurrency());
+        Money creditedAmount = conversion.amount();
+
+        Transaction transaction = createTransaction(fromCard, toCard, amount, commission, conversion, description);
+
+        try {
+            performTransfer(fromCard, toCard, amount, commission, creditedAmount);
+
             transaction.setStatus(TransactionStatus.COMPLETED);
             Transaction savedTransaction = transactionRepository.save(transaction);
-            return convertToDTO(savedTransaction);
+
+            return completed(savedTransaction, fromCard, toCard);
+
         } catch (Exception e) {
             transaction.setStatus(TransactionStatus.FAILED);
             transactionRepository.save(transaction);
@@ -165,12 +184,50 @@ public class TransactionService {
         }
     }
 
-    private BigDecimal calculateCommission(BigDecimal amount) {
-        return amount.multiply(commissionRate)
-                .setScale(2, RoundingMode.HALF_UP);
+    private TransactionDTO deposit(Card card, BigDecimal amount) {
+        Money depositAmount = Money.of(amount);
+        validateDeposit(depositAmount);
+
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(generateTransactionId());
+        transaction.setAmount(depositAmount.toBigDecimal());
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setDescription(DEPOSIT_TO_CARD_MESSAGE);
+        transaction.setCommission(BigDecimal.ZERO);
+        transaction.setToCard(card);
+
+        try {
+
+            card.setBalance(Money.of(card.getBalance()).plus(depositAmount).toBigDecimal());
+            cardRepository.save(card);
+
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            Transaction savedTransaction = transactionRepository.save(transaction);
+
+            return completed(savedTransaction, card);
+
+        } catch (Exception e) {
+            transaction.setStatus(TransactionStatus.FAILED);
+            transactionRepository.save(transaction);
+            throw new TransactionException("Пополнение не прошло: " + e.getMessage(), e);
+        }
+    }
+
+    // Отказ учитывается в сводках, но ошибка записи не должна подменять исходное исключение
+    private void recordFailure(TransactionType type, Card card, BigDecimal amount, RuntimeException cause) {
+        try {
+            transactionFailureRecorder.record(type, card, amount, cause);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось записать отказ операции {} по карте {}: {}", type, card.getId(), e.getMessage());
+        }
+    }
+
+    private Money calculateCommission(Money amount) {
+        return amount.multiplyByRate(commissionRate);
     }
 
-    private void validateTransfer(Card fromCard, Card toCard, BigDecimal amount) {
+    private void validateTransfer(Card fromCard, Card toCard, Money amount, Money commission) {
         if (!fromCard.isValid()) {
             throw new CardOperationException(SOURCE_CARD_INVALID_OR_EXPIRED_MESSAGE);
         }
@@ -180,63 +237,64 @@ public class TransactionService {
         if (fromCard.equals(toCard)) {
             throw new ValidationException(CANNOT_TRANSFER_TO_SAME_CARD_MESSAGE);
         }
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new ValidationException(TRANSFER_AMOUNT_MUST_BE_POSITIVE_MESSAGE);
+        if (!fxRateService.hasRate(fromCard.getCurrency(), toCard.getCurrency())) {
+            throw new ValidationException(FX_RATE_NOT_AVAILABLE_MESSAGE + ": " + fromCard.getCurrency()
+                    + " -> " + toCard.getCurrency());
         }
-        if (amount.compareTo(new BigDecimal("0.01")) < 0) {
-            throw new ValidationException("Минимальная сумма перевода — 0.01");
+        // Сумма хранится в минимальных единицах, поэтому положительная сумма не меньше 0.01
+        if (!amount.isPositive()) {
+            throw new ValidationException(TRANSFER_AMOUNT_MUST_BE_POSITIVE_MESSAGE);
         }
-        BigDecimal commission = calculateCommission(amount);
-        BigDecimal totalAmount = amount.add(commission);
-        if (!hasSufficientFunds(fromCard, totalAmount)) {
+        Money totalAmount = amount.plus(commission);
+        Money available = getAvailableFunds(fromCard);
+        if (available.isLessThan(totalAmount)) {
             throw new InsufficientFundsException(
                     String.format(INSUFFICIENT_FUNDS_MESSAGE + " Требуется: %s, Доступно: %s",
-                            totalAmount,
-                            fromCard.getCardType() == CardType.DEBIT ? fromCard.getBalance() : getAvailableCredit(fromCard))
+                            totalAmount, available)
             );
         }
     }
 
-    private boolean hasSufficientFunds(Card card, BigDecimal amount) {
+    private Money getAvailableFunds(Card card) {
+        Money balance = Money.of(card.getBalance());
         if (card.getCardType() == CardType.DEBIT) {
-            return card.getBalance().compareTo(amount) >= 0;
-        } else {
-            return getAvailableCredit(card).compareTo(amount) >= 0;
-        }
-    }
-
-    private BigDecimal getAvailableCredit(Card card) {
-        if (card.getCardType() == CardType.CREDIT) {
-            BigDecimal usedCredit = card.getBalance().compareTo(BigDecimal.ZERO) < 0 ?
-                    card.getBalance().abs() : BigDecimal.ZERO;
-            return card.getCreditLimit().subtract(usedCredit);
+            return balance;
         }
-        return BigDecimal.ZERO;
+        Money usedCredit = balance.isNegative() ? balance.abs() : Money.ZERO;
+        return Money.of(card.getCreditLimit()).minus(usedCredit);
     }
 
-    private void validateDeposit(BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    private void validateDeposit(Money amount) {
+        if (!amount.isPositive()) {
             throw new ValidationException(DEPOSIT_AMOUNT_MUST_BE_POSITIVE_MESSAGE);
         }
-        if (amount.compareTo(new BigDecimal("0.01")) < 0) {
-            throw new ValidationException("Минимальная сумма пополнения — 0.01");
-        }
     }
 
-    private void performTransfer(Card fromCard, Card toCard, BigDecimal amount, BigDecimal commission) {
-        BigDecimal totalAmount = amount.add(commission);
-        if (fromCard.getCardType() == CardType.DEBIT) {
-            fromCard.setBalance(fromCard.getBalance().subtract(totalAmount));
-        } else {
-            fromCard.setBalance(fromCard.getBalance().subtract(totalAmount));
-        }
-        toCard.setBalance(toCard.getBalance().add(amount));
+    private void performTransfer(Card fromCard, Card toCard, Money amount, Money commission,
+                                 Money creditedAmount) {
+        fromCard.setBalance(Money.of(fromCard.getBalance()).minus(amount.plus(commission)).toBigDecimal());
+        toCard.setBalance(Money.of(toCard.getBalance()).plus(creditedAmount).toBigDecimal());
         cardRepository.save(fromCard);
         cardRepository.save(toCard);
     }
 
     private String generateTransactionId() {
-        return "TXN" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase();
+        return TransactionIds.generate(LocalDateTime.now());
+    }
+
+    // Строка outbox фиксируется вместе с балансами, подписчики SSE получат событие после коммита
+    private TransactionDTO completed(Transaction savedTransaction, Card... cards) {
+        TransactionDTO dto = convertToDTO(savedTransaction);
+        List<TransactionCompletedEvent.BalanceChange> balances = Arrays.stream(cards)
+                .filter(card -> card.getUser() != null)
+                .map(card -> new TransactionCompletedEvent.BalanceChange(card.getUser().getId(), card.getId(),
+                        card.getBalance(), card.getCurrency(), card.getCardType()))
+                .toList();
+        TransactionCompletedEvent event = new TransactionCompletedEvent(dto, balances);
+        outboxWriter.append(TransactionCompletedEvent.AGGREGATE_TYPE, dto.getTransactionId(),
+                TransactionCompletedEvent.EVENT_TYPE, event);
+        eventPublisher.publishEvent(event);
+        return dto;
     }
 
     private TransactionDTO convertToDTO(Transaction transaction) {
@@ -248,6 +306,8 @@ public class TransactionService {
         dto.setStatus(transaction.getStatus());
         dto.setDescription(transaction.getDescription());
         dto.setCommission(transaction.getCommission());
+        dto.setConvertedAmount(transaction.getConvertedAmount());
+        dto.setExchangeRate(transaction.getExchangeRate());
         dto.setCreatedAt(transaction.getCreatedAt());
         if (transaction.getFromCard() != null && transaction.getFromCard().getUser() != null) {
             User fromUser = transaction.getFromCard().getUser();
@@ -0,0 +1,176 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.ApplicationProperties;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.entity.TransactionStatus;
+import com.example.bankcards.entity.TransactionType;
+import com.example.bankcards.exception.TransferLimitExceededException;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.repository.TransactionRepository.TransferUsage;
+import com.example.bankcards.util.Money;
+import com.example.bankcards.util.SlidingWindowCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import static globalConstants.MessageConstants.*;
+
+/**
+ * Проверка лимитов переводов по карте и по пользователю: максимальная сумма одного перевода,
+ * сумма за сутки и число переводов за минуту. Счетчики живут в памяти и восстанавливаются
+ * из таблицы транзакций один раз при первом обращении к карте или пользователю.
+ * Суммы считаются в валюте банка по умолчанию.
+ */
+@Slf4j
+@Service
+public class TransferLimitService {
+
+    private static final Duration DAY = Duration.ofDays(1);
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+    private static final int DAY_BUCKETS = 96;
+    private static final int MINUTE_BUCKETS = 12;
+
+    private final TransactionRepository transactionRepository;
+    private final FxRateService fxRateService;
+    private final Currency limitCurrency;
+    private final long maxTransferAmount;
+    private final long dailyLimitPerCard;
+    private final long dailyLimitPerUser;
+    private final int maxTransfersPerMinutePerCard;
+    private final int maxTransfersPerMinutePerUser;
+
+    private final ConcurrentMap<Long, LimitWindows> cardWindows = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, LimitWindows> userWindows = new ConcurrentHashMap<>();
+
+    public TransferLimitService(TransactionRepository transactionRepository,
+                                FxRateService fxRateService,
+                                ApplicationProperties applicationProperties) {
+        ApplicationProperties.Bank bank = applicationProperties.getBank();
+        this.transactionRepository = transactionRepository;
+        this.fxRateService = fxRateService;
+        this.limitCurrency = Currency.valueOf(bank.getDefaultCurrency());
+        this.maxTransferAmount = toMinorUnits(bank.getMaxTransferAmount());
+        this.dailyLimitPerCard = toMinorUnits(bank.getDailyTransferLimitPerCard());
+        this.dailyLimitPerUser = toMinorUnits(bank.getDailyTransferLimitPerUser());
+        this.maxTransfersPerMinutePerCard = bank.getMaxTransfersPerMinutePerCard();
+        this.maxTransfersPerMinutePerUser = bank.getMaxTransfersPerMinutePerUser();
+    }
+
+    /**
+     * Проверяет лимиты и сразу резервирует перевод в счетчиках. Если транзакция перевода
+     * будет откачена, резерв снимается.
+     */
+    public void checkAndRecord(Card fromCard, Money amount) {
+        long limitAmount = fxRateService.convert(amount, fromCard.getCurrency(), limitCurrency).getMinorUnits();
+        if (limitAmount > maxTransferAmount) {
+            throw new TransferLimitExceededException(MAX_TRANSFER_AMOUNT_EXCEEDED_MESSAGE);
+        }
+
+        long now = System.currentTimeMillis();
+        LimitWindows card = windows(cardWindows, fromCard.getId(), this::loadCardUsage);
+        LimitWindows user = windows(userWindows, fromCard.getUser().getId(), this::loadUserUsage);
+
+        if (!card.transfersPerMinute.tryAdd(1, maxTransfersPerMinutePerCard, now)) {
+            throw new TransferLimitExceededException(TRANSFER_RATE_LIMIT_EXCEEDED_MESSAGE);
+        }
+        if (!user.transfersPerMinute.tryAdd(1, maxTransfersPerMinutePerUser, now)) {
+            card.transfersPerMinute.add(-1, now);
+            throw new TransferLimitExceededException(TRANSFER_RATE_LIMIT_EXCEEDED_MESSAGE);
+        }
+        if (!card.amountPerDay.tryAdd(limitAmount, dailyLimitPerCard, now)) {
+            release(card, user, 0, now);
+            throw new TransferLimitExceededException(DAILY_CARD_LIMIT_EXCEEDED_MESSAGE);
+        }
+        if (!user.amountPerDay.tryAdd(limitAmount, dailyLimitPerUser, now)) {
+            card.amountPerDay.add(-limitAmount, now);
+            release(card, user, 0, now);
+            throw new TransferLimitExceededException(DAILY_USER_LIMIT_EXCEEDED_MESSAGE);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        release(card, user, limitAmount, now);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Удаляет счетчики, по которым не было переводов дольше суток. При следующем обращении
+     * они будут восстановлены из базы.
+     */
+    @Scheduled(fixedDelayString = "${app.bank.limit-eviction-interval:600000}")
+    public void evictIdleWindows() {
+        long now = System.currentTimeMillis();
+        cardWindows.values().removeIf(windows -> windows.isIdle(now));
+        userWindows.values().removeIf(windows -> windows.isIdle(now));
+    }
+
+    private void release(LimitWindows card, LimitWindows user, long limitAmount, long timestamp) {
+        card.transfersPerMinute.add(-1, timestamp);
+        user.transfersPerMinute.add(-1, timestamp);
+        if (limitAmount > 0) {
+            card.amountPerDay.add(-limitAmount, timestamp);
+            user.amountPerDay.add(-limitAmount, timestamp);
+        }
+    }
+
+    // Загрузка из базы выполняется вне ConcurrentHashMap.compute, чтобы не держать блокировку сегмента
+    private LimitWindows windows(ConcurrentMap<Long, LimitWindows> cache, Long id,
+                                 Function<Long, List<TransferUsage>> loader) {
+        LimitWindows windows = cache.get(id);
+        if (windows != null) {
+            return windows;
+        }
+        LimitWindows loaded = new LimitWindows();
+        for (TransferUsage usage : loader.apply(id)) {
+            long timestamp = usage.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            long limitAmount = fxRateService.convert(Money.of(usage.getAmount()), usage.getCurrency(), limitCurrency)
+                    .getMinorUnits();
+            loaded.amountPerDay.add(limitAmount, timestamp);
+            loaded.transfersPerMinute.add(1, timestamp);
+        }
+        LimitWindows existing = cache.putIfAbsent(id, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private List<TransferUsage> loadCardUsage(Long cardId) {
+        log.debug("Восстановление счетчиков лимитов карты {}", cardId);
+        return transactionRepository.findCardTransferUsage(cardId, TransactionType.TRANSFER,
+                TransactionStatus.COMPLETED, LocalDateTime.now().minus(DAY));
+    }
+
+    private List<TransferUsage> loadUserUsage(Long userId) {
+        log.debug("Восстановление счетчиков лимитов пользователя {}", userId);
+        return transactionRepository.findUserTransferUsage(userId, TransactionType.TRANSFER,
+                TransactionStatus.COMPLETED, LocalDateTime.now().minus(DAY));
+    }
+
+    private static long toMinorUnits(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    private static final class LimitWindows {
+        private final SlidingWindowCounter amountPerDay = new SlidingWindowCounter(DAY, DAY_BUCKETS);
+        private final SlidingWindowCounter transfersPerMinute = new SlidingWindowCounter(MINUTE, MINUTE_BUCKETS);
+
+        private boolean isIdle(long now) {
+            return amountPerDay.sum(now) == 0 && transfersPerMinute.sum(now) == 0;
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.CreateUserRequest;
+import com.example.bankcards.dto.KeysetPageResponse;
+import com.example.bankcards.dto.PageResponse;
 import com.example.bankcards.dto.UserDTO;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.exception.ValidationException;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.EntityCacheEvictor;
+import com.example.bankcards.util.LikePatterns;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static globalConstants.MessageConstants.EMAIL_ALREADY_EXISTS;
 import static globalConstants.MessageConstants.USERNAME_ALREADY_EXISTS;
@@ -23,8 +30,11 @@ import static globalConstants.MessageConstants.USERNAME_ALREADY_EXISTS;
 @Transactional
 public class UserService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final EntityCacheEvictor entityCacheEvictor;
 
     public UserDTO createUser(CreateUserRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -60,18 +70,44 @@ public class UserService {
         return convertToDTO(user);
     }
 
+    /**
+     * Страница пользователей для админки. Строки сразу читаются как UserDTO, порядок по id
+     * делает страницы стабильными. search - необязательный префикс username или email.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<UserDTO> getUsers(String search, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), clampPageSize(size), Sort.by("id"));
+        String prefix = LikePatterns.lowerCasePrefix(search);
+        Page<UserDTO> users = prefix == null
+                ? userRepository.findUserPage(pageable)
+                : userRepository.findUserPageByPrefix(prefix, pageable);
+        return toPageResponse(users);
+    }
+
     @Transactional(readOnly = true)
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public PageResponse<UserDTO> getUsersByRole(Role role, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), clampPageSize(size), Sort.by("id"));
+        return toPageResponse(userRepository.findUserPageByRole(role, pageable));
     }
 
+    /**
+     * Keyset-пагинация для обхода всего списка: следующая страница начинается после id последнего
+     * пользователя, поэтому стоимость не растет с номером страницы и COUNT не выполняется.
+     */
     @Transactional(readOnly = true)
-    public List<UserDTO> getUsersByRole(Role role) {
-        return userRepository.findByRole(role).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public KeysetPageResponse<UserDTO> getUsersAfter(Long afterId, String search, int size) {
+        int pageSize = clampPageSize(size);
+        // Читаем на одну строку больше, чтобы узнать о наличии следующей страницы
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        long cursor = afterId != null ? afterId : 0L;
+        String prefix = LikePatterns.lowerCasePrefix(search);
+        List<UserDTO> users = prefix == null
+                ? userRepository.findUsersAfter(cursor, limit)
+                : userRepository.findUsersAfterByPrefix(prefix, cursor, limit);
+        boolean hasNext = users.size() > pageSize;
+        List<UserDTO> content = hasNext ? users.subList(0, pageSize) : users;
+        Long nextCursor = hasNext ? content.get(content.size() - 1).getId() : null;
+        return new KeysetPageResponse<>(content, pageSize, hasNext, nextCursor);
     }
 
     public UserDTO updateUser(Long id, CreateUserRequest request) {
@@ -90,6 +126,7 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        entityCacheEvictor.evictAfterCommit(User.class, id);
         return convertToDTO(updatedUser);
     }
 
@@ -98,6 +135,7 @@ public class UserService {
                 .orElseThrow(() -> new UserNotFoundException(id));
         user.setActive(false);
         userRepository.save(user);
+        entityCacheEvictor.evictAfterCommit(User.class, id);
     }
 
     public void activateUser(Long id) {
@@ -105,6 +143,15 @@ public class UserService {
                 .orElseThrow(() -> new UserNotFoundException(id));
         user.setActive(true);
         userRepository.save(user);
+        entityCacheEvictor.evictAfterCommit(User.class, id);
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    private static <T> PageResponse<T> toPageResponse(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements());
     }
 
     private UserDTO convertToDTO(User user) {
@@ -0,0 +1,105 @@
+package com.example.bankcards.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Адаптивный предел числа одновременных запросов (градиентный алгоритм в духе TCP Vegas).
+ * Долгое скользящее среднее задержки служит оценкой задержки без очереди, короткое - текущей.
+ * Когда текущая задержка растет относительно долгой, запросы стоят в очереди (например, за
+ * соединением Hikari), и предел уменьшается пропорционально; пока задержка стабильна, предел
+ * растет на sqrt(limit) за замер. Вход и выход - CAS по счетчику, пересчет предела не ждет
+ * блокировку: если ее держит другой поток, замер пропускается.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    // Во сколько раз текущая задержка может превышать долгую, прежде чем предел начнет снижаться
+    private static final double TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SHORT_WINDOW = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double longWindow;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock sampleLock = new ReentrantLock();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, int longWindow) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Должно выполняться 1 <= min <= initial <= max для предела конкурентности");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * @return число запросов в работе вместе с этим или 0, если предел исчерпан
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Учитывает задержку завершенного запроса.
+     *
+     * @param inFlightAtStart сколько запросов было в работе, когда этот был принят
+     */
+    public void onSample(long rttNanos, int inFlightAtStart) {
+        if (rttNanos <= 0 || !sampleLock.tryLock()) {
+            return;
+        }
+        try {
+            if (longRtt == 0) {
+                shortRtt = rttNanos;
+                longRtt = rttNanos;
+                return;
+            }
+            shortRtt += (rttNanos - shortRtt) / SHORT_WINDOW;
+            longRtt += (rttNanos - longRtt) / longWindow;
+            // После долгой перегрузки долгое среднее завышено, возвращаем его к текущей задержке
+            if (longRtt / shortRtt > 2) {
+                longRtt *= 0.95;
+            }
+            // Нагрузка ниже половины предела не говорит о том, выдержит ли сервис больше
+            if (inFlightAtStart < estimatedLimit / 2) {
+                return;
+            }
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+            double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+            limit = (int) estimatedLimit;
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.bankcards.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+/**
+ * Слепой индекс номера карты: HMAC-SHA256 на отдельном ключе. Шифртекст номера каждый раз
+ * разный из-за случайного IV, а хэш детерминирован, поэтому по нему проверяется уникальность.
+ */
+@Component
+public class CardNumberHasher {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final SecretKeySpec secretKey;
+
+    public CardNumberHasher(@Value("${app.encryption.blind-index-key:bankcards2024blindindexkey12345678}") String secretKey) {
+        if (secretKey == null || secretKey.isBlank()) {
+            throw new IllegalStateException("Не задан ключ слепого индекса номера карты (app.encryption.blind-index-key)");
+        }
+        this.secretKey = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    public String hash(String cardNumber) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secretKey);
+            return HEX.formatHex(mac.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Ошибка вычисления хэша номера карты", e);
+        }
+    }
+}
@@ -18,7 +18,7 @@ public class DataEncryptor {
     private static final int IV_LENGTH_BYTE = 12;
 
     private final SecretKeySpec secretKey;
-    private final SecureRandom secureRandom = new SecureRandom();
+    private final SecureRandom secureRandom = SecureRandoms.shared();
 
     public DataEncryptor(@Value("${app.encryption.secret-key:bankcards2024secretkey123456789012}") String secretKey) {
         byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
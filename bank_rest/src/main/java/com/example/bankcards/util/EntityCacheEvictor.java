@@ -0,0 +1,45 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.config.ReplicaLagMonitor;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Явное удаление сущностей из кеша второго уровня Hibernate.
+ * Вызывается при изменении пользователя: внутри транзакции удаление
+ * откладывается до коммита, чтобы параллельное чтение не вернуло в кеш старое состояние.
+ * По той же причине перед удалением чтение закрепляется за основной базой: отстающая
+ * реплика иначе снова положила бы в кеш строку до изменения.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EntityCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<ReplicaLagMonitor> replicaLagMonitor;
+
+    public void evictAfterCommit(Class<?> entityClass, Object id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(entityClass, id);
+                }
+            });
+        } else {
+            evict(entityClass, id);
+        }
+    }
+
+    private void evict(Class<?> entityClass, Object id) {
+        replicaLagMonitor.ifAvailable(ReplicaLagMonitor::pinPrimaryAfterWrite);
+        entityManagerFactory.getCache().evict(entityClass, id);
+        log.debug("Сущность {} {} удалена из кеша второго уровня", entityClass.getSimpleName(), id);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.bankcards.util;
+
+import java.util.Locale;
+
+/**
+ * Построение шаблонов LIKE для префиксного поиска. Шаблон без ведущего '%' и в нижнем регистре
+ * позволяет PostgreSQL использовать индексы lower(column) text_pattern_ops.
+ */
+public final class LikePatterns {
+
+    public static final char ESCAPE_CHAR = '\\';
+
+    private LikePatterns() {
+    }
+
+    /**
+     * Возвращает "prefix%" в нижнем регистре с экранированными '%', '_' и '\' или null для пустого ввода.
+     */
+    public static String lowerCasePrefix(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String escaped = value.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return escaped + "%";
+    }
+}
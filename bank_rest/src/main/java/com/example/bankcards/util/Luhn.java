@@ -0,0 +1,48 @@
+package com.example.bankcards.util;
+
+/**
+ * Контрольная цифра номера карты по алгоритму Луна (ISO/IEC 7812-1).
+ */
+public final class Luhn {
+
+    private Luhn() {
+    }
+
+    /**
+     * Контрольная цифра, которую нужно дописать к payload, чтобы номер прошел проверку.
+     */
+    public static int checkDigit(CharSequence payload) {
+        int sum = weightedSum(payload, true);
+        return (10 - sum % 10) % 10;
+    }
+
+    public static boolean isValid(CharSequence number) {
+        if (number == null || number.length() < 2) {
+            return false;
+        }
+        for (int i = 0; i < number.length(); i++) {
+            if (!Character.isDigit(number.charAt(i))) {
+                return false;
+            }
+        }
+        return weightedSum(number, false) % 10 == 0;
+    }
+
+    // Удваивается каждая вторая цифра справа; без контрольной цифры удвоение начинается с последней
+    private static int weightedSum(CharSequence digits, boolean doubleLast) {
+        int sum = 0;
+        boolean doubled = doubleLast;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return sum;
+    }
+}
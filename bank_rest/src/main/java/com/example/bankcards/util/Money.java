@@ -0,0 +1,134 @@
+package com.example.bankcards.util;
+
+import com.example.bankcards.exception.ValidationException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static globalConstants.MessageConstants.AMOUNT_PRECISION_MESSAGE;
+import static globalConstants.MessageConstants.AMOUNT_TOO_LARGE_MESSAGE;
+
+/**
+ * Денежная сумма в минимальных единицах (копейках/центах), хранящаяся в long.
+ * В BigDecimal переводится только на границе с JPA и JSON.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final int RATE_SCALE = 8;
+    private static final long RATE_FACTOR = 100_000_000L;
+
+    public static final Money ZERO = new Money(0L);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0L ? ZERO : new Money(minorUnits);
+    }
+
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofMinor(amount.movePointRight(SCALE).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new ValidationException(AMOUNT_PRECISION_MESSAGE);
+        }
+    }
+
+    /**
+     * Переводит курс или ставку в long с точностью {@link #RATE_SCALE} знаков
+     */
+    public static long toScaledRate(BigDecimal rate) {
+        return rate.setScale(RATE_SCALE, RoundingMode.HALF_UP).movePointRight(RATE_SCALE).longValueExact();
+    }
+
+    public static BigDecimal fromScaledRate(long scaledRate) {
+        return BigDecimal.valueOf(scaledRate, RATE_SCALE);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money abs() {
+        return minorUnits < 0 ? ofMinor(Math.negateExact(minorUnits)) : this;
+    }
+
+    /**
+     * Умножает сумму на ставку с точностью {@link #RATE_SCALE} знаков, округляя по HALF_UP.
+     * Если промежуточное произведение не помещается в long, считается через BigDecimal;
+     * результат, не помещающийся в long, отклоняется как ошибка валидации.
+     */
+    public Money multiplyByRate(long scaledRate) {
+        long high = Math.multiplyHigh(minorUnits, scaledRate);
+        long scaled = minorUnits * scaledRate;
+        if (high != (scaled >> 63)) {
+            return multiplyByRateWide(scaledRate);
+        }
+        long quotient = scaled / RATE_FACTOR;
+        long remainder = Math.abs(scaled % RATE_FACTOR);
+        if (remainder * 2 >= RATE_FACTOR) {
+            quotient += Long.signum(scaled);
+        }
+        return ofMinor(quotient);
+    }
+
+    private Money multiplyByRateWide(long scaledRate) {
+        BigDecimal product = BigDecimal.valueOf(minorUnits).multiply(BigDecimal.valueOf(scaledRate, RATE_SCALE))
+                .setScale(0, RoundingMode.HALF_UP);
+        try {
+            return ofMinor(product.longValueExact());
+        } catch (ArithmeticException e) {
+            throw new ValidationException(AMOUNT_TOO_LARGE_MESSAGE);
+        }
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money money && minorUnits == money.minorUnits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        long abs = Math.abs(minorUnits);
+        long fraction = abs % 100;
+        return (minorUnits < 0 ? "-" : "") + abs / 100 + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.bankcards.util;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Источник криптостойких случайных чисел для горячих путей (IV шифрования, номера карт и транзакций).
+ * SecureRandom по умолчанию на Linux (NativePRNG) читает /dev/urandom под монитором, и на JDK 21
+ * такой вызов закрепляет виртуальный поток за несущим. DRBG после начального засева считает в памяти.
+ */
+public final class SecureRandoms {
+
+    private static final SecureRandom SHARED = create();
+
+    private SecureRandoms() {
+    }
+
+    public static SecureRandom shared() {
+        return SHARED;
+    }
+
+    private static SecureRandom create() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.bankcards.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Неблокирующий счетчик скользящего окна из кольца корзин.
+ * Каждая корзина - один long: старшие 24 бита - номер корзины, младшие 40 бит - накопленное значение,
+ * поэтому сброс устаревшей корзины и прибавление выполняются одним CAS.
+ */
+public final class SlidingWindowCounter {
+
+    private static final int VALUE_BITS = 40;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    private static final long EPOCH_MASK = (1L << (Long.SIZE - VALUE_BITS)) - 1;
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final AtomicLongArray buckets;
+
+    public SlidingWindowCounter(Duration window, int bucketCount) {
+        this.bucketMillis = window.toMillis() / bucketCount;
+        this.bucketCount = bucketCount;
+        this.buckets = new AtomicLongArray(bucketCount);
+    }
+
+    /**
+     * Прибавляет значение, если сумма в окне не превысит лимит. При гонке несколько потоков
+     * могут получить отказ одновременно, но лимит не превышается никогда.
+     */
+    public boolean tryAdd(long delta, long limit, long nowMillis) {
+        add(delta, nowMillis);
+        if (sum(nowMillis) > limit) {
+            add(-delta, nowMillis);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Прибавляет значение к корзине момента времени. Если корзина уже вышла из окна
+     * или перезаписана более новой, значение отбрасывается.
+     */
+    public void add(long delta, long timestampMillis) {
+        long bucket = timestampMillis / bucketMillis;
+        int index = (int) (bucket % bucketCount);
+        long epoch = bucket & EPOCH_MASK;
+        while (true) {
+            long current = buckets.get(index);
+            long currentEpoch = current >>> VALUE_BITS;
+            long value;
+            if (currentEpoch == epoch) {
+                value = (current & VALUE_MASK) + delta;
+            } else if (delta > 0 && (current == 0L || isNewer(epoch, currentEpoch))) {
+                value = delta;
+            } else {
+                return;
+            }
+            long next = (epoch << VALUE_BITS) | (Math.max(0L, value) & VALUE_MASK);
+            if (buckets.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    public long sum(long nowMillis) {
+        long nowBucket = nowMillis / bucketMillis;
+        long total = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            long current = buckets.get(i);
+            long age = (nowBucket - (current >>> VALUE_BITS)) & EPOCH_MASK;
+            if (age < bucketCount) {
+                total += current & VALUE_MASK;
+            }
+        }
+        return total;
+    }
+
+    private boolean isNewer(long epoch, long currentEpoch) {
+        long distance = (epoch - currentEpoch) & EPOCH_MASK;
+        return distance != 0 && distance < (EPOCH_MASK >>> 1);
+    }
+}
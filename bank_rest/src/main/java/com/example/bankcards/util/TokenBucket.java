@@ -0,0 +1,50 @@
+package com.example.bankcards.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Неблокирующий token bucket в форме GCRA: все состояние - один long, теоретическое время
+ * прихода следующего запроса. Запрос проходит, если это время опережает текущее не больше чем
+ * на емкость корзины; списание токена - один CAS без блокировок и без отдельного пополнения.
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param capacity        максимальное число запросов подряд
+     * @param refillPerMinute сколько токенов возвращается в корзину за минуту
+     * @param nowNanos        текущее время; корзина создается полной
+     */
+    public TokenBucket(int capacity, int refillPerMinute, long nowNanos) {
+        this.emissionIntervalNanos = 60_000_000_000L / refillPerMinute;
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0, если токен списан, иначе сколько наносекунд ждать до появления токена
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Корзина снова полная и ничем не отличается от новой.
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bankcards.util;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Номер транзакции вида TXN + yyyyMM + 16 hex-символов. Месяц в номере позволяет искать
+ * транзакцию по номеру только в секции своего месяца.
+ */
+public final class TransactionIds {
+
+    private static final String PREFIX = "TXN";
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final int MONTH_LENGTH = 6;
+    private static final int RANDOM_LENGTH = 16;
+    private static final int LENGTH = PREFIX.length() + MONTH_LENGTH + RANDOM_LENGTH;
+    private static final HexFormat HEX = HexFormat.of().withUpperCase();
+
+    private TransactionIds() {
+    }
+
+    public static String generate(LocalDateTime now) {
+        byte[] random = new byte[RANDOM_LENGTH / 2];
+        SecureRandoms.shared().nextBytes(random);
+        return PREFIX + MONTH_FORMAT.format(now) + HEX.formatHex(random);
+    }
+
+    /**
+     * Месяц создания из номера транзакции. Для номеров старого формата без месяца - пусто.
+     */
+    public static Optional<YearMonth> monthOf(String transactionId) {
+        if (transactionId == null || transactionId.length() != LENGTH || !transactionId.startsWith(PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(transactionId.substring(PREFIX.length(),
+                    PREFIX.length() + MONTH_LENGTH), MONTH_FORMAT));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
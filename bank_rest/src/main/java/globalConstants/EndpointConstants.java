@@ -14,6 +14,8 @@ public class EndpointConstants {
     public static final String SEARCH_CARDS_ENDPOINT = CARDS_BASE_PATH + "/search";
     public static final String CARD_BY_ID_ENDPOINT = CARDS_BASE_PATH + "/1";
     public static final String CARD_STATUS_ENDPOINT = CARDS_BASE_PATH + "/1/status";
+    public static final String CARD_STATUS_SUMMARY_ENDPOINT = CARD_STATUS_ENDPOINT + "/summary";
+    public static final String CARD_STATUS_REPORT_ENDPOINT = CARDS_BASE_PATH + "/status-report";
     public static final String USER_CARDS_BY_ID_ENDPOINT = CARDS_BASE_PATH + "/user/2";
     public static final String BLOCK_CARD_ENDPOINT = CARDS_BASE_PATH + "/1/block";
     public static final String UNBLOCK_CARD_ENDPOINT = CARDS_BASE_PATH + "/1/unblock";
@@ -26,6 +28,8 @@ public class EndpointConstants {
     public static final String TRANSFER_ENDPOINT = GET_TRANSACTIONS_ENDPOINT + "/transfer";
     public static final String TRANSFER_BETWEEN_OWN_CARDS_ENDPOINT = TRANSFER_ENDPOINT + "-between-own-cards";
     public static final String DEPOSIT_ENDPOINT = GET_TRANSACTIONS_ENDPOINT + "/deposit";
+    public static final String STATEMENT_ENDPOINT = GET_TRANSACTIONS_ENDPOINT + "/statement";
+    public static final String TRANSACTION_STREAM_ENDPOINT = GET_TRANSACTIONS_ENDPOINT + "/stream";
     public static final String GET_TRANSACTION_BY_ID_ENDPOINT = GET_TRANSACTIONS_ENDPOINT + "/1";
     public static final String GET_TRANSACTION_BY_TRANSACTION_ID_ENDPOINT = GET_TRANSACTIONS_ENDPOINT
             + "/transaction-id/TXN123";
@@ -37,6 +41,13 @@ public class EndpointConstants {
     public static final String USERS_PATH_BY_ID = USERS_BASE_PATH + "/1";
     public static final String USERS_ACTIVATE_ENDPOINT = USERS_PATH_BY_ID + "/activate";
     public static final String USERS_OWN_PATH = USERS_BASE_PATH + "/me";
+    public static final String USERS_KEYSET_PATH = USERS_BASE_PATH + "/keyset";
     public static final String USERS_PATH_BY_ROLE = USERS_BASE_PATH + "/role/ROLE_USER";
     public static final String USERS_PATH_BY_USERNAME = USERS_BASE_PATH + "/username/testuser";
-}
\ No newline at end of file
+
+    // Главный экран
+    public static final String DASHBOARD_ENDPOINT = "/api/dashboard";
+
+    // Аналитика
+    public static final String TRANSACTION_ANALYTICS_ENDPOINT = "/api/admin/analytics/transactions";
+}
@@ -14,9 +14,15 @@ public class MessageConstants {
     public static final String AUTH_CURRENT_PASSWORD_INCORRECT_MESSAGE = "Текущий пароль неверен";
     public static final String AUTH_NEW_PASSWORD_TOO_SHORT_MESSAGE = "Новый пароль должен содержать минимум 8 символов";
     public static final String AUTH_INVALID_TOKEN_MESSAGE = "Недействительный токен";
+    public static final String AUTH_SERVICE_BUSY_MESSAGE = "Сервис аутентификации перегружен, повторите попытку позже";
+    public static final String RATE_LIMIT_EXCEEDED_MESSAGE = "Слишком много запросов, повторите попытку позже";
+    public static final String SERVICE_OVERLOADED_MESSAGE = "Сервис перегружен, повторите попытку позже";
+    public static final String AUTH_TOO_MANY_ATTEMPTS_MESSAGE =
+            "Слишком много неудачных попыток входа, вход временно заблокирован";
 
     // Карты
     public static final String GET_CARD_STATUS_MESSAGE = "Статус карты успешно получен";
+    public static final String GET_CARD_STATUS_REPORT_MESSAGE = "Отчет по статусам карт успешно получен";
     public static final String CARD_CREATED_SUCCESS = "Карта успешно создана";
     public static final String CARD_BLOCKED_SUCCESS = "Карта успешно заблокирована";
     public static final String CARD_UNBLOCKED_SUCCESS = "Карта успешно разблокирована";
@@ -29,6 +35,8 @@ public class MessageConstants {
     public static final String CARD_ALREADY_BLOCKED_MESSAGE = "Карта уже заблокирована!";
     public static final String CANNOT_DEACTIVATE_WITH_BALANCE_MESSAGE =
             "Нельзя деактивировать карту с положительным балансом!";
+    public static final String CARD_CONCURRENT_MODIFICATION_MESSAGE =
+            "Данные карты были изменены другим запросом, повторите операцию";
 
     // Транзакции
     public static final String TRANSFER_SUCCESS_MESSAGE = "Перевод успешно выполнен";
@@ -43,6 +51,12 @@ public class MessageConstants {
     public static final String CANCEL_TRANSACTION_SUCCESS_MESSAGE = "Транзакция успешно отменена";
     public static final String ONLY_PENDING_TRANSACTIONS_CAN_BE_CANCELLED_MESSAGE =
             "Отменить можно только транзакции в статусе ожидания";
+    public static final String TRANSACTION_STREAM_LIMIT_MESSAGE =
+            "Превышено число одновременных подписок на события транзакций";
+    public static final String STATEMENT_EXPORT_BUSY_MESSAGE =
+            "Выполняется слишком много выгрузок выписок, повторите попытку позже";
+    public static final String STATEMENT_EXPORT_REPLICA_UNAVAILABLE_MESSAGE =
+            "Выгрузка выписок временно недоступна, повторите попытку позже";
     public static final String BOTH_CARDS_MUST_BELONG_TO_CURRENT_USER_MESSAGE =
             "Обе карты должны принадлежать текущему пользователю";
     public static final String SOURCE_CARD_INVALID_OR_EXPIRED_MESSAGE =
@@ -50,6 +64,14 @@ public class MessageConstants {
     public static final String CANNOT_TRANSFER_TO_SAME_CARD_MESSAGE = "Нельзя переводить на ту же карту";
     public static final String TRANSFER_AMOUNT_MUST_BE_POSITIVE_MESSAGE = "Сумма перевода должна быть положительной";
     public static final String INSUFFICIENT_FUNDS_MESSAGE = "Недостаточно средств";
+    public static final String AMOUNT_PRECISION_MESSAGE = "Сумма должна содержать не более двух знаков после запятой";
+    public static final String AMOUNT_TOO_LARGE_MESSAGE = "Сумма операции слишком велика";
+    public static final String FX_RATE_NOT_AVAILABLE_MESSAGE = "Курс конвертации недоступен";
+    public static final String MAX_TRANSFER_AMOUNT_EXCEEDED_MESSAGE = "Превышена максимальная сумма перевода";
+    public static final String DAILY_CARD_LIMIT_EXCEEDED_MESSAGE = "Превышен дневной лимит переводов по карте";
+    public static final String DAILY_USER_LIMIT_EXCEEDED_MESSAGE = "Превышен дневной лимит переводов пользователя";
+    public static final String TRANSFER_RATE_LIMIT_EXCEEDED_MESSAGE =
+            "Слишком много переводов за минуту, повторите попытку позже";
 
     // Пользователи
     public static final String CREATE_USER_SUCCESS_MESSAGE = "Пользователь успешно создан";
@@ -61,4 +83,12 @@ public class MessageConstants {
     public static final String GET_CURRENT_USER_SUCCESS_MESSAGE = "Текущий пользователь успешно получен";
     public static final String USERNAME_ALREADY_EXISTS = "Пользователь уже зарегистрирован";
     public static final String EMAIL_ALREADY_EXISTS = "Почта уже зарегистрирована";
-}
\ No newline at end of file
+
+    // Главный экран
+    public static final String GET_DASHBOARD_SUCCESS_MESSAGE = "Данные главного экрана успешно получены";
+
+    // Аналитика
+    public static final String GET_TRANSACTION_ANALYTICS_MESSAGE = "Сводка по операциям успешно получена";
+    public static final String ANALYTICS_INVALID_PERIOD_MESSAGE = "Начало периода не может быть позже его конца";
+    public static final String ANALYTICS_PERIOD_TOO_LONG_MESSAGE = "Период отчета превышает максимальное число дней";
+}
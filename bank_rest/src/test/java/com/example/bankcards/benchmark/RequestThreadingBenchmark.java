@@ -0,0 +1,99 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.DataEncryptor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Сравнение платформенных и виртуальных потоков при большом числе одновременных запросов.
+ * Запрос моделирует типичный обработчик: шифрование AES-GCM и ожидание ответа БД под соединением
+ * из пула размера connectionPool. Платформенный режим - пул из 200 потоков, как у Tomcat по умолчанию.
+ * Режим virtual требует JDK 21+ (запуск через main или java -jar на соответствующей JVM).
+ * При connectionPool = 10 (значение hikari по умолчанию в проекте) оба режима упираются в пул соединений.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestThreadingBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long DB_LATENCY_MILLIS = 2;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"2000"})
+    private int concurrentRequests;
+
+    @Param({"10", "200"})
+    private int connectionPool;
+
+    private ExecutorService executor;
+    private Semaphore connections;
+    private DataEncryptor dataEncryptor;
+
+    @Setup
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        connections = new Semaphore(connectionPool, true);
+        dataEncryptor = new DataEncryptor("benchmark-encryption-key-32-chars");
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // Одна операция - пачка из concurrentRequests одновременных запросов
+    @Benchmark
+    public void handleRequests(Blackhole blackhole) throws Exception {
+        List<Future<String>> responses = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            responses.add(executor.submit(this::handleRequest));
+        }
+        for (Future<String> response : responses) {
+            blackhole.consume(response.get());
+        }
+    }
+
+    private String handleRequest() throws InterruptedException {
+        String encrypted = dataEncryptor.encrypt("4000000000001234");
+        connections.acquire();
+        try {
+            Thread.sleep(DB_LATENCY_MILLIS);
+        } finally {
+            connections.release();
+        }
+        return encrypted;
+    }
+
+    // Проект собирается под Java 17, поэтому фабрика виртуальных потоков вызывается через рефлексию
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Виртуальные потоки доступны начиная с JDK 21, текущая версия: "
+                    + Runtime.version(), e);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RequestThreadingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
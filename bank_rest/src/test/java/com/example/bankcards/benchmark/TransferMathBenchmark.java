@@ -0,0 +1,82 @@
+package com.example.bankcards.benchmark;
+
+import com.example.bankcards.util.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение денежной арифметики перевода: прежний расчет на BigDecimal и расчет на {@link Money}.
+ * Аллокации на перевод смотреть в метрике gc.alloc.rate.norm (запуск через main включает GCProfiler).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferMathBenchmark {
+
+    private BigDecimal fromBalance;
+    private BigDecimal toBalance;
+    private BigDecimal amount;
+    private BigDecimal commissionRate;
+    private long scaledCommissionRate;
+
+    @Setup
+    public void setUp() {
+        fromBalance = new BigDecimal("100000.00");
+        toBalance = new BigDecimal("500.00");
+        amount = new BigDecimal("1234.56");
+        commissionRate = new BigDecimal("0.01");
+        scaledCommissionRate = Money.toScaledRate(commissionRate);
+    }
+
+    @Benchmark
+    public void bigDecimalTransfer(Blackhole blackhole) {
+        // validateTransfer
+        if (amount.compareTo(BigDecimal.ZERO) <= 0 || amount.compareTo(new BigDecimal("0.01")) < 0) {
+            throw new IllegalStateException();
+        }
+        BigDecimal validationCommission = amount.multiply(commissionRate).setScale(2, RoundingMode.HALF_UP);
+        if (fromBalance.compareTo(amount.add(validationCommission)) < 0) {
+            throw new IllegalStateException();
+        }
+        // transferMoney + performTransfer
+        BigDecimal commission = amount.multiply(commissionRate).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal totalAmount = amount.add(commission);
+        blackhole.consume(fromBalance.subtract(totalAmount));
+        blackhole.consume(toBalance.add(amount));
+        blackhole.consume(commission);
+    }
+
+    @Benchmark
+    public void moneyTransfer(Blackhole blackhole) {
+        Money transferAmount = Money.of(amount);
+        Money commission = transferAmount.multiplyByRate(scaledCommissionRate);
+        Money totalAmount = transferAmount.plus(commission);
+        Money available = Money.of(fromBalance);
+        if (!transferAmount.isPositive() || available.isLessThan(totalAmount)) {
+            throw new IllegalStateException();
+        }
+        blackhole.consume(available.minus(totalAmount).toBigDecimal());
+        blackhole.consume(Money.of(toBalance).plus(transferAmount).toBigDecimal());
+        blackhole.consume(commission.toBigDecimal());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TransferMathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.bankcards.config;
+
+import com.example.bankcards.entity.User;
+import com.example.bankcards.util.EntityCacheEvictor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Replica routing data source tests")
+class ReplicaRoutingDataSourceTests {
+    private static final String SELECT_NODE = "SELECT name FROM node";
+
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("routing_primary", "primary");
+        replica = h2("routing_replica", "replica");
+    }
+
+    @Test
+    @DisplayName("Read-only транзакция читает с реплики, пишущая - с основной базы")
+    void readOnlyTransactionGoesToReplicaTest() {
+        ReplicaLagMonitor monitor = monitor("SELECT 0");
+        DataSource routing = routing(monitor);
+        assertTrue(monitor.isReplicaUsable());
+        assertEquals("replica", readNode(routing, true));
+        assertEquals("primary", readNode(routing, false));
+    }
+
+    @Test
+    @DisplayName("При отставании реплики чтение уходит на основную базу")
+    void laggingReplicaFallsBackToPrimaryTest() {
+        ReplicaLagMonitor monitor = monitor("SELECT 30");
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals("primary", readNode(routing(monitor), true));
+    }
+
+    @Test
+    @DisplayName("При недоступности реплики чтение уходит на основную базу")
+    void unavailableReplicaFallsBackToPrimaryTest() {
+        ReplicaLagMonitor monitor = monitor("SELECT lag FROM missing_table");
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals("primary", readNode(routing(monitor), true));
+    }
+
+    @Test
+    @DisplayName("После изменения пользователя чтение закрепляется за основной базой до сброса кеша")
+    void cacheEvictionPinsPrimaryTest() {
+        ReplicaLagMonitor monitor = monitor("SELECT 0");
+        DataSource routing = routing(monitor);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        Cache cache = mock(Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        doAnswer(invocation -> {
+            assertEquals("primary", readNode(routing, true));
+            return null;
+        }).when(cache).evict(User.class, 1L);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("replicaLagMonitor", monitor);
+        EntityCacheEvictor evictor = new EntityCacheEvictor(entityManagerFactory,
+                beanFactory.getBeanProvider(ReplicaLagMonitor.class));
+
+        evictor.evictAfterCommit(User.class, 1L);
+
+        verify(cache).evict(User.class, 1L);
+        assertFalse(monitor.isReplicaReadable());
+        assertTrue(monitor.isReplicaUsable());
+        assertEquals("primary", readNode(routing, true));
+    }
+
+    @Test
+    @DisplayName("Закрепление за основной базой снимается по истечении окна")
+    void primaryPinExpiresTest() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "SELECT 0", 5, 0, new SimpleMeterRegistry());
+        monitor.checkLag();
+        monitor.pinPrimaryAfterWrite();
+        assertTrue(monitor.isReplicaReadable());
+        assertEquals("replica", readNode(routing(monitor), true));
+    }
+
+    private ReplicaLagMonitor monitor(String lagQuery) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, lagQuery, 5, 60_000, new SimpleMeterRegistry());
+        monitor.checkLag();
+        return monitor;
+    }
+
+    private DataSource routing(ReplicaLagMonitor monitor) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, monitor));
+    }
+
+    private String readNode(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> new JdbcTemplate(dataSource).queryForObject(SELECT_NODE, String.class));
+    }
+
+    private static DataSource h2(String name, String node) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbcTemplate.update("DELETE FROM node");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", node);
+        return dataSource;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.TransactionRollupDTO;
+import com.example.bankcards.entity.CardType;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.entity.TransactionType;
+import com.example.bankcards.service.TransactionAnalyticsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.bankcards.testConstants.JsonTestConstants.*;
+import static com.example.bankcards.testConstants.UserTestConstants.ROLE_ADMIN;
+import static com.example.bankcards.testConstants.UserTestConstants.ROLE_USER;
+import static globalConstants.EndpointConstants.TRANSACTION_ANALYTICS_ENDPOINT;
+import static globalConstants.MessageConstants.GET_TRANSACTION_ANALYTICS_MESSAGE;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Controller analytics tests")
+@ActiveProfiles("test")
+class AnalyticsControllerTests {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 15);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private TransactionAnalyticsService analyticsService;
+
+    @Test
+    @WithMockUser(roles = ROLE_ADMIN)
+    @DisplayName("Администратор получает сводку по операциям за период")
+    void getTransactionAnalyticsAsAdminTest() throws Exception {
+        TransactionRollupDTO rollup = new TransactionRollupDTO(DAY, Currency.RUB, CardType.DEBIT,
+                TransactionType.TRANSFER, 3, 1, new BigDecimal("0.2500"), new BigDecimal("300.00"), BigDecimal.ONE);
+        when(analyticsService.getDailyRollups(DAY.minusDays(6), DAY, Currency.RUB, null)).thenReturn(List.of(rollup));
+        mockMvc.perform(get(TRANSACTION_ANALYTICS_ENDPOINT)
+                        .param("from", DAY.minusDays(6).toString())
+                        .param("to", DAY.toString())
+                        .param("currency", "RUB"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_PATH_MESSAGE).value(GET_TRANSACTION_ANALYTICS_MESSAGE))
+                .andExpect(jsonPath(JSON_PATH_DATA + "[0].completedCount").value(3))
+                .andExpect(jsonPath(JSON_PATH_DATA + "[0].failureRate").value(0.25));
+    }
+
+    @Test
+    @WithMockUser(roles = ROLE_USER)
+    @DisplayName("Пользователь без роли ADMIN не получает сводку по операциям")
+    void getTransactionAnalyticsAsUserTest() throws Exception {
+        mockMvc.perform(get(TRANSACTION_ANALYTICS_ENDPOINT))
+                .andExpect(status().isForbidden());
+        verify(analyticsService, never()).getDailyRollups(any(), any(), any(), any());
+    }
+}
@@ -64,7 +64,7 @@ class AuthControllerTests {
     @Test
     @DisplayName("Успешная аутентификация с корректными учётными данными")
     void authenticateUserWithValidCredentialsTest() throws Exception {
-        when(authService.authenticate(any(LoginRequest.class))).thenReturn(loginResponse);
+        when(authService.authenticate(any(LoginRequest.class), any())).thenReturn(loginResponse);
         mockMvc.perform(post(LOGIN_ENDPOINT)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(validLoginRequest)))
@@ -72,13 +72,13 @@ class AuthControllerTests {
                 .andExpect(jsonPath(JSON_PATH_SUCCESS).value(true))
                 .andExpect(jsonPath(JSON_PATH_MESSAGE).value(LOGIN_SUCCESS_MESSAGE))
                 .andExpect(jsonPath(JSON_PATH_DATA_TOKEN).value(ACCESS_TOKEN));
-        verify(authService).authenticate(any(LoginRequest.class));
+        verify(authService).authenticate(any(LoginRequest.class), any());
     }
 
     @Test
     @DisplayName("Ошибка при входе с неверными учётными данными")
     void authenticateUserWithInvalidCredentialsTest() throws Exception {
-        when(authService.authenticate(any(LoginRequest.class)))
+        when(authService.authenticate(any(LoginRequest.class), any()))
                 .thenThrow(new AuthenticationException(INVALID_CREDENTIALS_MESSAGE));
         mockMvc.perform(post(LOGIN_ENDPOINT)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -96,7 +96,7 @@ class AuthControllerTests {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(invalidRequest)))
                 .andExpect(status().isBadRequest());
-        verify(authService, never()).authenticate(any());
+        verify(authService, never()).authenticate(any(), any());
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.*;
+import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.CardType;
 import com.example.bankcards.entity.Currency;
 import com.example.bankcards.entity.Role;
@@ -20,6 +21,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -30,11 +32,14 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static com.example.bankcards.testConstants.JsonTestConstants.*;
 import static com.example.bankcards.testConstants.UserTestConstants.*;
+import static globalConstants.CardStatusConstants.ACTIVE_STATUS_DESCRIPTION;
 import static globalConstants.EndpointConstants.*;
 import static globalConstants.MessageConstants.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -84,6 +89,7 @@ class CardControllerTests {
                 null,
                 true,
                 false,
+                CardStatus.ACTIVE,
                 LocalDateTime.now(),
                 1L,
                 TEST_FIRST_NAME + " " + TEST_LAST_NAME
@@ -124,6 +130,7 @@ class CardControllerTests {
     @DisplayName("Авторизованный пользователь успешно получает список своих карт")
     void getUserCardsWithAuthenticatedUserTest() throws Exception {
         List<CardDTO> cards = Arrays.asList(cardDTO);
+        when(cardService.getUserCardsETag(1L)).thenReturn(USER_CARDS_ETAG);
         when(cardService.getUserCards(1L)).thenReturn(cards);
         mockMvc.perform(get(CARDS_BASE_PATH)
                         .with(authentication(
@@ -134,6 +141,7 @@ class CardControllerTests {
                                 )
                         )))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, USER_CARDS_ETAG))
                 .andExpect(jsonPath(JSON_PATH_SUCCESS).value(true))
                 .andExpect(jsonPath(JSON_PATH_DATA_ARRAY_ID).value(1L));
         verify(cardService).getUserCards(1L);
@@ -141,14 +149,60 @@ class CardControllerTests {
 
     @Test
     @WithMockUser(roles = ROLE_ADMIN)
-    @DisplayName("Администратор успешно получает статус карты")
+    @DisplayName("Администратор успешно получает статус карты вместе с данными карты")
     void getCardStatusAsAdminTest() throws Exception {
-        CardDTO card = cardDTO.toBuilder().expiryDate(LocalDate.now().plusDays(10)).build();
-        when(cardService.getCardById(1L)).thenReturn(card);
+        LocalDate expiryDate = LocalDate.now().plusDays(10);
+        CardStatusResponse statusResponse = new CardStatusResponse(1L, CardStatus.ACTIVE.name(),
+                ACTIVE_STATUS_DESCRIPTION, true, false, false, true, expiryDate, 10L, cardDTO);
+        when(cardService.getCardStatusWithCard(1L)).thenReturn(statusResponse);
         mockMvc.perform(get(CARD_STATUS_ENDPOINT))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath(JSON_PATH_SUCCESS).value(true))
-                .andExpect(jsonPath(JSON_PATH_DATA_STATUS).exists());
+                .andExpect(jsonPath(JSON_PATH_DATA_STATUS).value(CardStatus.ACTIVE.name()))
+                .andExpect(jsonPath(JSON_PATH_DATA + ".card.id").value(1L))
+                .andExpect(jsonPath(JSON_PATH_DATA + ".card.cardNumber").value(CARD_NUMBER_MASKED));
+        verify(cardService, never()).getCardStatus(anyLong());
+    }
+
+    @Test
+    @WithMockUser(roles = ROLE_ADMIN)
+    @DisplayName("Краткий статус карты отдается без данных карты")
+    void getCardStatusSummaryAsAdminTest() throws Exception {
+        LocalDate expiryDate = LocalDate.now().plusDays(10);
+        CardStatusResponse statusResponse = new CardStatusResponse(1L, CardStatus.ACTIVE.name(),
+                ACTIVE_STATUS_DESCRIPTION, true, false, false, true, expiryDate, 10L, null);
+        when(cardService.getCardStatus(1L)).thenReturn(statusResponse);
+        mockMvc.perform(get(CARD_STATUS_SUMMARY_ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_PATH_DATA_STATUS).value(CardStatus.ACTIVE.name()))
+                .andExpect(jsonPath(JSON_PATH_DATA + ".cardId").value(1L))
+                .andExpect(jsonPath(JSON_PATH_DATA + ".card").doesNotExist());
+        verify(cardService, never()).getCardStatusWithCard(anyLong());
+        verify(cardService, never()).getCardById(anyLong());
+    }
+
+    @Test
+    @WithMockUser(roles = ROLE_ADMIN)
+    @DisplayName("Администратор получает число карт в каждом статусе")
+    void getStatusReportAsAdminTest() throws Exception {
+        Map<CardStatus, Long> report = new EnumMap<>(CardStatus.class);
+        report.put(CardStatus.ACTIVE, 5L);
+        report.put(CardStatus.EXPIRED, 2L);
+        when(cardService.getStatusReport()).thenReturn(report);
+        mockMvc.perform(get(CARD_STATUS_REPORT_ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_PATH_MESSAGE).value(GET_CARD_STATUS_REPORT_MESSAGE))
+                .andExpect(jsonPath(JSON_PATH_DATA + ".ACTIVE").value(5))
+                .andExpect(jsonPath(JSON_PATH_DATA + ".EXPIRED").value(2));
+    }
+
+    @Test
+    @WithMockUser(roles = ROLE_USER)
+    @DisplayName("Пользователь без роли ADMIN не получает отчет по статусам карт")
+    void getStatusReportAsUserTest() throws Exception {
+        mockMvc.perform(get(CARD_STATUS_REPORT_ENDPOINT))
+                .andExpect(status().isForbidden());
+        verify(cardService, never()).getStatusReport();
     }
 
     @Test
@@ -192,6 +246,24 @@ class CardControllerTests {
         verify(cardService).getCardById(1L);
     }
 
+    @Test
+    @WithMockUser(username = TEST_ADMIN, roles = ROLE_ADMIN)
+    @DisplayName("Параметр fields оставляет в данных карты только перечисленные поля")
+    void getCardByIdWithSparseFieldsetTest() throws Exception {
+        CardDTO fullCardDTO = cardDTO.toBuilder()
+                .cardHolderName(TEST_FIRST_NAME + " " + TEST_LAST_NAME)
+                .userFullName(TEST_FIRST_NAME + " " + TEST_LAST_NAME)
+                .build();
+        when(cardService.getCardById(1L)).thenReturn(fullCardDTO);
+        mockMvc.perform(get(CARD_BY_ID_ENDPOINT).param("fields", "id,balance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_PATH_SUCCESS).value(true))
+                .andExpect(jsonPath(JSON_PATH_DATA_ID).value(1L))
+                .andExpect(jsonPath(JSON_PATH_DATA_BALANCE).exists())
+                .andExpect(jsonPath(JSON_PATH_DATA_CARD_HOLDER_NAME).doesNotExist())
+                .andExpect(jsonPath(JSON_PATH_DATA_USER_FULL_NAME).doesNotExist());
+    }
+
     @Test
     @DisplayName("Владелец карты успешно получает её данные по ID")
     void getCardByIdAsOwnerTest() throws Exception {
@@ -267,6 +339,7 @@ class CardControllerTests {
     @Test
     @DisplayName("Владелец успешно запрашивает баланс своей карты")
     void getCardBalanceAsOwnerTest() throws Exception {
+        when(cardService.getCardETag(1L)).thenReturn(CARD_ETAG);
         when(cardService.getCardById(1L)).thenReturn(cardDTO);
         when(cardSecurity.isCardOwner(1L, 1L)).thenReturn(true);
         mockMvc.perform(get(CARD_BALANCE_ENDPOINT)
@@ -284,9 +357,30 @@ class CardControllerTests {
         verify(cardService).getCardById(1L);
     }
 
+    @Test
+    @DisplayName("Запрос баланса с актуальным If-None-Match получает 304 без загрузки карты")
+    void getCardBalanceNotModifiedTest() throws Exception {
+        when(cardService.getCardETag(1L)).thenReturn(CARD_ETAG);
+        when(cardSecurity.isCardOwner(1L, 1L)).thenReturn(true);
+        mockMvc.perform(get(CARD_BALANCE_ENDPOINT)
+                        .header(HttpHeaders.IF_NONE_MATCH, CARD_ETAG)
+                        .with(authentication(
+                                new UsernamePasswordAuthenticationToken(
+                                        testUserPrincipal,
+                                        null,
+                                        testUserPrincipal.getAuthorities()
+                                )
+                        )))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, CARD_ETAG))
+                .andExpect(content().string(""));
+        verify(cardService, never()).getCardById(anyLong());
+    }
+
     @Test
     @DisplayName("Пользователь успешно получает общий баланс по всем своим картам")
     void getTotalBalanceTest() throws Exception {
+        when(cardService.getUserCardsETag(1L)).thenReturn(USER_CARDS_ETAG);
         when(cardService.getTotalBalance(1L)).thenReturn(new BigDecimal("2500.00"));
         mockMvc.perform(get(TOTAL_BALANCE_ENDPOINT)
                         .with(authentication(
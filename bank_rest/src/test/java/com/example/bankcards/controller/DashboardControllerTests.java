@@ -0,0 +1,96 @@
+package com.example.bankcards.controller;
+
+import com.example.bankcards.dto.CardDTO;
+import com.example.bankcards.dto.DashboardDTO;
+import com.example.bankcards.dto.TransactionDTO;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.security.UserPrincipal;
+import com.example.bankcards.service.DashboardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.example.bankcards.testConstants.JsonTestConstants.*;
+import static com.example.bankcards.testConstants.TransactionTestConstants.TRANSACTION_ID;
+import static com.example.bankcards.testConstants.UserTestConstants.*;
+import static globalConstants.EndpointConstants.DASHBOARD_ENDPOINT;
+import static globalConstants.MessageConstants.GET_DASHBOARD_SUCCESS_MESSAGE;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Controller dashboard tests")
+@ActiveProfiles("test")
+class DashboardControllerTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private DashboardService dashboardService;
+    private UserPrincipal testUserPrincipal;
+
+    @BeforeEach
+    void setUp() {
+        User mockUserEntity = User.builder()
+                .id(1L)
+                .username(TEST_USERNAME)
+                .role(Role.ROLE_USER)
+                .password(TEST_PASSWORD)
+                .active(true)
+                .build();
+        testUserPrincipal = new UserPrincipal(mockUserEntity);
+    }
+
+    @Test
+    @DisplayName("Авторизованный пользователь получает данные главного экрана одним запросом")
+    void getDashboardTest() throws Exception {
+        CardDTO card = new CardDTO();
+        card.setId(1L);
+        card.setCurrency(Currency.USD);
+        card.setBalance(CARD_BALANCE);
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setTransactionId(TRANSACTION_ID);
+        transaction.setAmount(CARD_BALANCE);
+        DashboardDTO dashboard = new DashboardDTO(List.of(card),
+                List.of(new DashboardDTO.CurrencyTotal(Currency.USD, CARD_BALANCE, 1)), List.of(transaction));
+        when(dashboardService.getDashboard(1L, 5)).thenReturn(dashboard);
+        mockMvc.perform(get(DASHBOARD_ENDPOINT)
+                        .param("transactions", "5")
+                        .with(authentication(
+                                new UsernamePasswordAuthenticationToken(
+                                        testUserPrincipal,
+                                        null,
+                                        testUserPrincipal.getAuthorities()
+                                )
+                        )))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_PATH_SUCCESS).value(true))
+                .andExpect(jsonPath(JSON_PATH_MESSAGE).value(GET_DASHBOARD_SUCCESS_MESSAGE))
+                .andExpect(jsonPath(JSON_PATH_DATA + ".cards[0].id").value(1L))
+                .andExpect(jsonPath(JSON_PATH_DATA + ".totals[0].currency").value(Currency.USD.name()))
+                .andExpect(jsonPath(JSON_PATH_DATA + ".totals[0].activeCards").value(1))
+                .andExpect(jsonPath(JSON_PATH_DATA + ".recentTransactions[0].transactionId").value(TRANSACTION_ID));
+        verify(dashboardService).getDashboard(1L, 5);
+    }
+
+    @Test
+    @DisplayName("Неавторизованный запрос главного экрана отклоняется")
+    void getDashboardUnauthorizedTest() throws Exception {
+        mockMvc.perform(get(DASHBOARD_ENDPOINT))
+                .andExpect(status().is4xxClientError());
+        verifyNoInteractions(dashboardService);
+    }
+}
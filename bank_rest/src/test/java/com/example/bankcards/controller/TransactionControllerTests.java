@@ -5,9 +5,13 @@ import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.TransactionStatus;
 import com.example.bankcards.entity.TransactionType;
 import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.TooManyRequestsException;
 import com.example.bankcards.security.CardSecurity;
 import com.example.bankcards.security.TransactionSecurity;
 import com.example.bankcards.security.UserPrincipal;
+import com.example.bankcards.event.TransactionCompletedEvent;
+import com.example.bankcards.service.StatementExportService;
+import com.example.bankcards.service.TransactionEventHub;
 import com.example.bankcards.service.TransactionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,8 +27,11 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -36,6 +43,8 @@ import static com.example.bankcards.testConstants.UserTestConstants.*;
 import static com.example.bankcards.testConstants.JsonTestConstants.*;
 import static globalConstants.EndpointConstants.*;
 import static globalConstants.MessageConstants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
@@ -52,11 +61,15 @@ class TransactionControllerTests {
     @MockBean
     private TransactionService transactionService;
     @MockBean
+    private StatementExportService statementExportService;
+    @MockBean
     private CardSecurity cardSecurity;
     @MockBean
     private TransactionSecurity transactionSecurity;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private TransactionEventHub transactionEventHub;
     private TransactionDTO transactionDTO;
     private TransactionRequest transactionRequest;
     private OwnCardsTransferRequest ownCardsTransferRequest;
@@ -387,4 +400,81 @@ class TransactionControllerTests {
         verify(transactionService).cancelTransaction(1L);
         verify(transactionSecurity).isTransactionInitiator(1L, 1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Подписчик потока получает событие транзакции после коммита")
+    void streamTransactionsTest() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get(TRANSACTION_STREAM_ENDPOINT)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .with(authentication(
+                                new UsernamePasswordAuthenticationToken(
+                                        testUserPrincipal,
+                                        null,
+                                        testUserPrincipal.getAuthorities()
+                                )
+                        )))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        transactionEventHub.onTransactionCompleted(new TransactionCompletedEvent(transactionDTO, List.of()));
+        String expectedEvent = "event:transaction\nid:" + TRANSACTION_ID + "\ndata:";
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!mvcResult.getResponse().getContentAsString().contains(expectedEvent)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        String body = mvcResult.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(body.contains(expectedEvent));
+        assertTrue(body.contains(TEST_TRANSACTION_DESCRIPTION));
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, mvcResult.getResponse().getContentType());
+    }
+
+    @Test
+    @DisplayName("Выписка текущего пользователя выгружается потоком в NDJSON")
+    void exportStatementAsNdjsonTest() throws Exception {
+        StatementExportService.ExportPermit permit = mock(StatementExportService.ExportPermit.class);
+        when(statementExportService.acquireExportPermit()).thenReturn(permit);
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(2);
+            outputStream.write(STATEMENT_NDJSON_LINE.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(statementExportService).exportUserStatement(eq(1L), eq(StatementFormat.NDJSON), any());
+        MvcResult mvcResult = mockMvc.perform(get(STATEMENT_ENDPOINT)
+                        .param("format", "NDJSON")
+                        .with(authentication(
+                                new UsernamePasswordAuthenticationToken(
+                                        testUserPrincipal,
+                                        null,
+                                        testUserPrincipal.getAuthorities()
+                                )
+                        )))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(StatementFormat.NDJSON.getContentType()))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"statement-1.ndjson\""))
+                .andExpect(content().string(STATEMENT_NDJSON_LINE));
+        verify(statementExportService).exportUserStatement(eq(1L), eq(StatementFormat.NDJSON), any());
+        verify(permit, atLeastOnce()).close();
+    }
+
+    @Test
+    @DisplayName("Выписка не выгружается, если заняты все слоты выгрузки")
+    void exportStatementRejectedWhenBusyTest() throws Exception {
+        when(statementExportService.acquireExportPermit())
+                .thenThrow(new TooManyRequestsException(STATEMENT_EXPORT_BUSY_MESSAGE));
+        mockMvc.perform(get(STATEMENT_ENDPOINT)
+                        .param("format", "CSV")
+                        .with(authentication(
+                                new UsernamePasswordAuthenticationToken(
+                                        testUserPrincipal,
+                                        null,
+                                        testUserPrincipal.getAuthorities()
+                                )
+                        )))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value(STATEMENT_EXPORT_BUSY_MESSAGE));
+        verify(statementExportService, never()).exportUserStatement(any(), any(), any());
+    }
+}
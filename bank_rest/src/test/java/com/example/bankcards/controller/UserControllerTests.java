@@ -1,6 +1,8 @@
 package com.example.bankcards.controller;
 
 import com.example.bankcards.dto.CreateUserRequest;
+import com.example.bankcards.dto.KeysetPageResponse;
+import com.example.bankcards.dto.PageResponse;
 import com.example.bankcards.dto.UserDTO;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
@@ -20,7 +22,6 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
-import java.util.Arrays;
 import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -124,14 +125,45 @@ class UserControllerTests {
     @WithMockUser(username = TEST_ADMIN, roles = ROLE_ADMIN)
     @DisplayName("Администратор успешно получает список всех пользователей")
     void getAllUsersAsAdminTest() throws Exception {
-        List<UserDTO> users = Arrays.asList(userDTO);
-        when(userService.getAllUsers()).thenReturn(users);
+        PageResponse<UserDTO> users = new PageResponse<>(List.of(userDTO), 0, 20, 1);
+        when(userService.getUsers(null, 0, 20)).thenReturn(users);
         mockMvc.perform(get(USERS_BASE_PATH))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath(JSON_PATH_SUCCESS).value(true))
                 .andExpect(jsonPath(JSON_PATH_MESSAGE).value(GET_USERS_SUCCESS_MESSAGE))
-                .andExpect(jsonPath(JSON_PATH_DATA_ARRAY_ID).value(1L));
-        verify(userService).getAllUsers();
+                .andExpect(jsonPath(JSON_PATH_DATA_CONTENT_ID).value(1L))
+                .andExpect(jsonPath(JSON_PATH_DATA_TOTAL_ELEMENTS).value(1));
+        verify(userService).getUsers(null, 0, 20);
+    }
+
+    @Test
+    @WithMockUser(username = TEST_ADMIN, roles = ROLE_ADMIN)
+    @DisplayName("Параметр fields применяется к элементам страницы, не затрагивая поля пагинации")
+    void getAllUsersWithSparseFieldsetTest() throws Exception {
+        PageResponse<UserDTO> users = new PageResponse<>(List.of(userDTO), 0, 20, 1);
+        when(userService.getUsers(null, 0, 20)).thenReturn(users);
+        mockMvc.perform(get(USERS_BASE_PATH).param("fields", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_PATH_DATA_CONTENT_ID).value(1L))
+                .andExpect(jsonPath(JSON_PATH_DATA_CONTENT_ROLE).doesNotExist())
+                .andExpect(jsonPath(JSON_PATH_DATA_TOTAL_ELEMENTS).value(1));
+    }
+
+    @Test
+    @WithMockUser(username = TEST_ADMIN, roles = ROLE_ADMIN)
+    @DisplayName("Администратор получает страницу пользователей по курсору с поиском по префиксу")
+    void getUsersAfterAsAdminTest() throws Exception {
+        KeysetPageResponse<UserDTO> users = new KeysetPageResponse<>(List.of(userDTO), 1, true, 1L);
+        when(userService.getUsersAfter(0L, TEST_USERNAME, 1)).thenReturn(users);
+        mockMvc.perform(get(USERS_KEYSET_PATH)
+                        .param("afterId", "0")
+                        .param("search", TEST_USERNAME)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(JSON_PATH_SUCCESS).value(true))
+                .andExpect(jsonPath(JSON_PATH_DATA_CONTENT_ID).value(1L))
+                .andExpect(jsonPath(JSON_PATH_DATA_NEXT_CURSOR).value(1L));
+        verify(userService).getUsersAfter(0L, TEST_USERNAME, 1);
     }
 
     @Test
@@ -178,14 +210,14 @@ class UserControllerTests {
     @WithMockUser(username = TEST_ADMIN, roles = ROLE_ADMIN)
     @DisplayName("Администратор успешно получает список пользователей по конкретной роли")
     void getUsersByRoleAsAdminTest() throws Exception {
-        List<UserDTO> users = Arrays.asList(userDTO);
-        when(userService.getUsersByRole(Role.ROLE_USER)).thenReturn(users);
+        PageResponse<UserDTO> users = new PageResponse<>(List.of(userDTO), 0, 20, 1);
+        when(userService.getUsersByRole(Role.ROLE_USER, 0, 20)).thenReturn(users);
         mockMvc.perform(get(USERS_PATH_BY_ROLE))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath(JSON_PATH_SUCCESS).value(true))
                 .andExpect(jsonPath(JSON_PATH_MESSAGE).value(GET_USERS_SUCCESS_MESSAGE))
-                .andExpect(jsonPath(JSON_PATH_DATA_ARRAY_ROLE).value(Role.ROLE_USER.name()));
-        verify(userService).getUsersByRole(Role.ROLE_USER);
+                .andExpect(jsonPath(JSON_PATH_DATA_CONTENT_ROLE).value(Role.ROLE_USER.name()));
+        verify(userService).getUsersByRole(Role.ROLE_USER, 0, 20);
     }
 
     @Test
@@ -0,0 +1,125 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.entity.OutboxEvent;
+import com.example.bankcards.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Outbox Relay tests")
+class OutboxRelayTests {
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private ObjectProvider<OutboxEventSink> sinkProvider;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private OutboxEventSink firstSink;
+    @Mock
+    private OutboxEventSink secondSink;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay outboxRelay;
+    private List<OutboxEvent> events;
+
+    @BeforeEach
+    void setUp() {
+        when(sinkProvider.orderedStream()).thenReturn(Stream.of(firstSink, secondSink));
+        outboxRelay = new OutboxRelay(outboxEventRepository, sinkProvider, transactionManager, meterRegistry,
+                3, 10, 72, 3, 1000, 300000);
+        events = List.of(event(1L), event(2L), event(3L));
+        when(outboxEventRepository.findUnpublishedForUpdate(3)).thenReturn(events);
+    }
+
+    @Test
+    @DisplayName("Пачка доставляется всем sink'ам по порядку и помечается опубликованной")
+    void relayBatchTest() throws Exception {
+        assertEquals(3, outboxRelay.relayBatch());
+        InOrder inOrder = inOrder(firstSink, secondSink);
+        for (OutboxEvent event : events) {
+            inOrder.verify(firstSink).publish(OutboxMessage.from(event));
+            inOrder.verify(secondSink).publish(OutboxMessage.from(event));
+        }
+        inOrder.verify(firstSink).flush();
+        inOrder.verify(secondSink).flush();
+        assertTrue(events.stream().allMatch(event -> event.getPublishedAt() != null));
+        assertEquals(3.0, meterRegistry.get("outbox.relay.published").counter().count());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Ошибка sink'а останавливает пачку, событие остается неопубликованным")
+    void relayBatchStopsOnSinkFailureTest() throws Exception {
+        when(secondSink.name()).thenReturn("second");
+        lenient().doThrow(new IOException("disk full")).when(secondSink).publish(OutboxMessage.from(events.get(1)));
+        assertEquals(1, outboxRelay.relayBatch());
+        assertNotNull(events.get(0).getPublishedAt());
+        assertNull(events.get(1).getPublishedAt());
+        assertEquals(1, events.get(1).getAttempts());
+        assertEquals("second: disk full", events.get(1).getLastError());
+        assertNotNull(events.get(1).getNextAttemptAt());
+        assertNull(events.get(1).getParkedAt());
+        assertNull(events.get(2).getPublishedAt());
+        verify(firstSink, never()).publish(OutboxMessage.from(events.get(2)));
+        assertEquals(1.0, meterRegistry.get("outbox.relay.failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Ошибка сброса sink'а откатывает всю пачку")
+    void relayBatchRollsBackOnFlushFailureTest() throws Exception {
+        doThrow(new IOException("disk full")).when(firstSink).flush();
+        assertThrows(IllegalStateException.class, () -> outboxRelay.relayBatch());
+        assertTrue(events.stream().allMatch(event -> event.getPublishedAt() == null));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    @DisplayName("Пока не наступило время повтора первого события, пачка не доставляется")
+    void relayBatchWaitsForRetryBackoffTest() throws Exception {
+        events.get(0).setAttempts(1);
+        events.get(0).setNextAttemptAt(LocalDateTime.now().plusMinutes(1));
+        assertEquals(0, outboxRelay.relayBatch());
+        verify(firstSink, never()).publish(any());
+        assertNull(events.get(0).getPublishedAt());
+    }
+
+    @Test
+    @DisplayName("Событие, исчерпавшее попытки, откладывается и больше не задерживает очередь")
+    void relayBatchParksPoisonEventTest() throws Exception {
+        when(secondSink.name()).thenReturn("second");
+        lenient().doThrow(new IllegalArgumentException("bad payload")).when(secondSink).publish(OutboxMessage.from(events.get(1)));
+        events.get(1).setAttempts(2);
+        events.get(1).setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        assertEquals(2, outboxRelay.relayBatch());
+        assertEquals(3, events.get(1).getAttempts());
+        assertNotNull(events.get(1).getParkedAt());
+        assertNull(events.get(1).getPublishedAt());
+        assertNotNull(events.get(0).getPublishedAt());
+        assertNotNull(events.get(2).getPublishedAt());
+        assertEquals(1.0, meterRegistry.get("outbox.relay.parked").counter().count());
+    }
+
+    private OutboxEvent event(Long id) {
+        OutboxEvent event = new OutboxEvent("Transaction", "TXN" + id, "TransactionCompleted", "{}");
+        event.setId(id);
+        return event;
+    }
+}
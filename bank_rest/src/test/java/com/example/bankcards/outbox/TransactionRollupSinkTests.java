@@ -0,0 +1,159 @@
+package com.example.bankcards.outbox;
+
+import com.example.bankcards.dto.TransactionDTO;
+import com.example.bankcards.entity.*;
+import com.example.bankcards.event.TransactionCompletedEvent;
+import com.example.bankcards.event.TransactionFailedEvent;
+import com.example.bankcards.repository.TransactionRollupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Rollup Sink tests")
+class TransactionRollupSinkTests {
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 3, 15, 10, 30);
+    private static final TransactionRollupKey RUB_DEBIT_TRANSFER = new TransactionRollupKey(
+            CREATED_AT.toLocalDate(), Currency.RUB, CardType.DEBIT, TransactionType.TRANSFER);
+
+    @Mock
+    private TransactionRollupRepository rollupRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+    private TransactionRollupSink sink;
+
+    @BeforeEach
+    void setUp() {
+        sink = new TransactionRollupSink(rollupRepository, objectMapper);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+
+    @Test
+    @DisplayName("События пачки сворачиваются по корзинам и применяются одним обновлением на корзину")
+    void flushAggregatesBucketsTest() throws Exception {
+        when(rollupRepository.increment(eq(RUB_DEBIT_TRANSFER), anyLong(), anyLong(), any(), any(), any()))
+                .thenReturn(1);
+        sink.publish(completed(1L, "100.00", "1.00"));
+        sink.publish(completed(2L, "50.50", "0.51"));
+        sink.publish(failed(3L));
+        sink.flush();
+        verify(rollupRepository).increment(eq(RUB_DEBIT_TRANSFER), eq(2L), eq(1L),
+                eq(new BigDecimal("150.50")), eq(new BigDecimal("1.51")), any());
+        verify(rollupRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Для новой корзины создается строка сводки")
+    void flushCreatesMissingBucketTest() throws Exception {
+        when(rollupRepository.increment(any(), anyLong(), anyLong(), any(), any(), any())).thenReturn(0);
+        sink.publish(completed(1L, "100.00", "1.00"));
+        sink.flush();
+        ArgumentCaptor<TransactionRollup> captor = ArgumentCaptor.forClass(TransactionRollup.class);
+        verify(rollupRepository).save(captor.capture());
+        assertEquals(RUB_DEBIT_TRANSFER, captor.getValue().getId());
+        assertEquals(1L, captor.getValue().getCompletedCount());
+        assertEquals(new BigDecimal("100.00"), captor.getValue().getVolume());
+    }
+
+    @Test
+    @DisplayName("Повторная доставка события из откатившейся пачки не удваивает счетчики")
+    void redeliveredEventCountedOnceTest() throws Exception {
+        when(rollupRepository.increment(any(), anyLong(), anyLong(), any(), any(), any())).thenReturn(1);
+        sink.publish(completed(1L, "100.00", "1.00"));
+        sink.publish(completed(1L, "100.00", "1.00"));
+        sink.flush();
+        verify(rollupRepository).increment(eq(RUB_DEBIT_TRANSFER), eq(1L), eq(0L),
+                eq(new BigDecimal("100.00")), eq(new BigDecimal("1.00")), any());
+    }
+
+    @Test
+    @DisplayName("Чужие и поврежденные события пропускаются без остановки relay")
+    void ignoresUnrelatedAndBrokenEventsTest() {
+        sink.publish(new OutboxMessage(1L, "Card", "7", "CardReissueDue", "{}", CREATED_AT));
+        sink.publish(new OutboxMessage(2L, TransactionCompletedEvent.AGGREGATE_TYPE, "TXN2",
+                TransactionCompletedEvent.EVENT_TYPE, "{not json", CREATED_AT));
+        sink.flush();
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("Вклады откатившейся пачки не попадают в следующую пачку")
+    void rolledBackBatchDiscardedTest() throws Exception {
+        when(rollupRepository.increment(any(), anyLong(), anyLong(), any(), any(), any())).thenReturn(1);
+        sink.publish(completed(1L, "100.00", "1.00"));
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        TransactionSynchronizationManager.initSynchronization();
+        sink.publish(completed(2L, "50.00", "0.50"));
+        sink.flush();
+        verify(rollupRepository).increment(eq(RUB_DEBIT_TRANSFER), eq(1L), eq(0L),
+                eq(new BigDecimal("50.00")), eq(new BigDecimal("0.50")), any());
+    }
+
+    @Test
+    @DisplayName("Вне транзакции relay событие не принимается")
+    void publishOutsideTransactionTest() throws Exception {
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        OutboxMessage message = completed(1L, "100.00", "1.00");
+        assertThrows(IllegalStateException.class, () -> sink.publish(message));
+        sink.flush();
+        verifyNoInteractions(rollupRepository);
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+
+    private OutboxMessage completed(Long id, String amount, String commission) throws Exception {
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setTransactionId("TXN" + id);
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCommission(new BigDecimal(commission));
+        transaction.setFromCardId(1L);
+        transaction.setToCardId(2L);
+        TransactionCompletedEvent event = new TransactionCompletedEvent(transaction, List.of(
+                new TransactionCompletedEvent.BalanceChange(1L, 1L, BigDecimal.TEN, Currency.RUB, CardType.DEBIT),
+                new TransactionCompletedEvent.BalanceChange(2L, 2L, BigDecimal.TEN, Currency.USD, CardType.CREDIT)));
+        return new OutboxMessage(id, TransactionCompletedEvent.AGGREGATE_TYPE, "TXN" + id,
+                TransactionCompletedEvent.EVENT_TYPE, objectMapper.writeValueAsString(event), CREATED_AT);
+    }
+
+    private OutboxMessage failed(Long id) throws Exception {
+        TransactionFailedEvent event = new TransactionFailedEvent(TransactionType.TRANSFER, 1L, Currency.RUB,
+                CardType.DEBIT, new BigDecimal("5000.00"), "InsufficientFundsException", CREATED_AT);
+        return new OutboxMessage(id, TransactionFailedEvent.AGGREGATE_TYPE, "1",
+                TransactionFailedEvent.EVENT_TYPE, objectMapper.writeValueAsString(event), CREATED_AT);
+    }
+}
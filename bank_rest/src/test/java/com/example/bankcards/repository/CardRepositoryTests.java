@@ -0,0 +1,191 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.CardSearchRequest;
+import com.example.bankcards.entity.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.example.bankcards.testConstants.UserTestConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("Card repository tests")
+@ActiveProfiles("test")
+class CardRepositoryTests {
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private User owner;
+    private Card debitCard;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User(TEST_USERNAME, TEST_EMAIL, TEST_PASSWORD,
+                TEST_FIRST_NAME, TEST_LAST_NAME, TEST_PHONE_NUMBER, Role.ROLE_USER));
+        debitCard = cardRepository.save(card("4000000000001234", "Ivan Petrov", CardType.DEBIT));
+        cardRepository.save(card("5000000000005678", "Ivan_Sidorov", CardType.CREDIT));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardRepository.deleteAll(cardRepository.findByUserId(owner.getId()));
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    @DisplayName("Поиск по последним 4 цифрам номера возвращает только совпадающую карту")
+    void searchByLast4Test() {
+        CardSearchRequest request = new CardSearchRequest();
+        request.setCardNumber("1234");
+        Page<Card> result = search(request);
+        assertEquals(1, result.getTotalElements());
+        assertEquals(debitCard.getId(), result.getContent().get(0).getId());
+        assertEquals(TEST_USERNAME, result.getContent().get(0).getUser().getUsername());
+    }
+
+    @Test
+    @DisplayName("Поиск по началу имени держателя не зависит от регистра и экранирует '_'")
+    void searchByHolderNamePrefixTest() {
+        CardSearchRequest request = new CardSearchRequest();
+        request.setCardHolderName("ivan");
+        assertEquals(2, search(request).getTotalElements());
+        request.setCardHolderName("IVAN_");
+        Page<Card> escaped = search(request);
+        assertEquals(1, escaped.getTotalElements());
+        assertEquals(CardType.CREDIT, escaped.getContent().get(0).getCardType());
+    }
+
+    @Test
+    @DisplayName("Без фильтров возвращаются все карты пользователя, фильтры по типу комбинируются")
+    void searchWithOptionalFiltersTest() {
+        CardSearchRequest request = new CardSearchRequest();
+        assertEquals(2, search(request).getTotalElements());
+        request.setCardType(CardType.DEBIT);
+        request.setIsBlocked(false);
+        assertEquals(1, search(request).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Фильтр по статусу, проекция статуса и отчет читают колонку status")
+    void statusColumnQueriesTest() {
+        Card blocked = cardRepository.findById(debitCard.getId()).orElseThrow();
+        blocked.setIsBlocked(true);
+        blocked.setStatus(blocked.resolveStatus());
+        cardRepository.save(blocked);
+        CardSearchRequest request = new CardSearchRequest();
+        request.setStatus(CardStatus.BLOCKED);
+        Page<Card> result = search(request);
+        assertEquals(1, result.getTotalElements());
+        assertEquals(debitCard.getId(), result.getContent().get(0).getId());
+        CardRepository.CardStatusView view = cardRepository.findStatusById(debitCard.getId()).orElseThrow();
+        assertEquals(CardStatus.BLOCKED, view.getStatus());
+        assertTrue(view.getBlocked());
+        assertEquals(debitCard.getExpiryDate(), view.getExpiryDate());
+        Map<CardStatus, Long> counts = cardRepository.countByStatus().stream()
+                .collect(Collectors.toMap(CardRepository.StatusCount::getStatus, CardRepository.StatusCount::getCardCount));
+        assertEquals(1L, counts.get(CardStatus.BLOCKED));
+        assertTrue(counts.get(CardStatus.ACTIVE) >= 1L);
+    }
+
+    @Test
+    @DisplayName("Slice-выборка читает на одну строку больше и определяет наличие следующей страницы")
+    void findSliceTest() {
+        CardSearchRequest request = new CardSearchRequest();
+        Slice<Card> first = cardRepository.findSlice(CardSpecifications.userCardsSearch(owner.getId(), request),
+                PageRequest.of(0, 1, Sort.by("id")));
+        Slice<Card> second = cardRepository.findSlice(CardSpecifications.userCardsSearch(owner.getId(), request),
+                PageRequest.of(1, 1, Sort.by("id")));
+        assertEquals(List.of(debitCard.getId()), first.getContent().stream().map(Card::getId).toList());
+        assertTrue(first.hasNext());
+        assertEquals(1, second.getNumberOfElements());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    @DisplayName("Изменение карты увеличивает ее версию и сводную версию карт пользователя")
+    void cardVersionTest() {
+        long initialVersion = cardRepository.findVersionById(debitCard.getId()).orElseThrow();
+        long initialSum = cardRepository.getUserCardsVersion(owner.getId()).getVersionSum();
+        Card card = cardRepository.findById(debitCard.getId()).orElseThrow();
+        card.setIsBlocked(true);
+        cardRepository.save(card);
+        assertEquals(initialVersion + 1, cardRepository.findVersionById(debitCard.getId()).orElseThrow());
+        CardRepository.CardsVersion cardsVersion = cardRepository.getUserCardsVersion(owner.getId());
+        assertEquals(2, cardsVersion.getCardCount());
+        assertEquals(initialSum + 1, cardsVersion.getVersionSum());
+    }
+
+    @Test
+    @DisplayName("Истекшие активные карты переводятся в EXPIRED порциями с увеличением версии")
+    void markExpiredTest() {
+        Card expired = card("4000000000009999", "Ivan Petrov", CardType.DEBIT);
+        expired.setExpiryDate(LocalDate.now().minusDays(1));
+        expired = cardRepository.save(expired);
+        long initialVersion = expired.getVersion();
+        List<Long> ids = cardRepository.findExpiredActiveCardIds(LocalDate.now(), PageRequest.of(0, 10));
+        assertEquals(List.of(expired.getId()), ids);
+        Integer expiredCount = new TransactionTemplate(transactionManager).execute(status ->
+                cardRepository.markExpired(ids));
+        assertEquals(1, expiredCount);
+        Card updated = cardRepository.findById(expired.getId()).orElseThrow();
+        assertEquals(CardStatus.EXPIRED, updated.getStatus());
+        assertEquals(initialVersion + 1, updated.getVersion());
+        assertTrue(cardRepository.findExpiredActiveCardIds(LocalDate.now(), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Кандидаты на перевыпуск выбираются один раз до отметки reissue_requested_at")
+    void reissueCandidatesTest() {
+        Card expiring = card("4000000000008888", "Ivan Petrov", CardType.DEBIT);
+        expiring.setExpiryDate(LocalDate.now().plusDays(10));
+        expiring = cardRepository.save(expiring);
+        LocalDate horizon = LocalDate.now().plusDays(30);
+        List<Card> candidates = cardRepository.findReissueCandidates(horizon, PageRequest.of(0, 10));
+        assertEquals(List.of(expiring.getId()), candidates.stream().map(Card::getId).toList());
+        Long expiringId = expiring.getId();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                cardRepository.markReissueRequested(List.of(expiringId), LocalDateTime.now()));
+        assertTrue(cardRepository.findReissueCandidates(horizon, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    private Page<Card> search(CardSearchRequest request) {
+        return cardRepository.findAll(CardSpecifications.userCardsSearch(owner.getId(), request),
+                PageRequest.of(0, 10, Sort.by("id")));
+    }
+
+    private Card card(String number, String holderName, CardType cardType) {
+        Card card = new Card();
+        card.setCardNumber("enc-" + number);
+        card.setCardNumberLast4(number.substring(number.length() - 4));
+        card.setCardHolderName(holderName);
+        card.setExpiryDate(LocalDate.now().plusYears(4));
+        card.setCardType(cardType);
+        card.setCurrency(Currency.RUB);
+        card.setBalance(BigDecimal.ZERO);
+        card.setActive(true);
+        card.setIsBlocked(false);
+        card.setUser(owner);
+        return card;
+    }
+}
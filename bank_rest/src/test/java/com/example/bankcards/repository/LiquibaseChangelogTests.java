@@ -0,0 +1,59 @@
+package com.example.bankcards.repository;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.changelog.ChangeLogParameters;
+import liquibase.changelog.ChangeSet;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.parser.ChangeLogParserFactory;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Liquibase changelog tests")
+class LiquibaseChangelogTests {
+    private static final String MASTER_CHANGELOG = "db/changelog/db.changelog-master.xml";
+
+    @Test
+    @DisplayName("Журнал изменений разбирается и проходит валидацию Liquibase, все файлы подключены")
+    void changelogIsValidTest() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:liquibase-validation")) {
+            Database database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            ClassLoaderResourceAccessor resourceAccessor = new ClassLoaderResourceAccessor();
+            ChangeLogParserFactory.getInstance()
+                    .getParser(MASTER_CHANGELOG, resourceAccessor)
+                    .parse(MASTER_CHANGELOG, new ChangeLogParameters(database), resourceAccessor)
+                    .validate(database, new Contexts(), new LabelExpression());
+
+            // Разбор без базы данных: в список попадают и наборы изменений только для PostgreSQL
+            List<ChangeSet> changeSets = ChangeLogParserFactory.getInstance()
+                    .getParser(MASTER_CHANGELOG, resourceAccessor)
+                    .parse(MASTER_CHANGELOG, new ChangeLogParameters(), resourceAccessor)
+                    .getChangeSets();
+            Set<String> includedFiles = changeSets.stream()
+                    .map(changeSet -> changeSet.getFilePath().substring(changeSet.getFilePath().lastIndexOf('/') + 1))
+                    .collect(Collectors.toSet());
+            Set<String> changelogFiles = Arrays.stream(new PathMatchingResourcePatternResolver()
+                            .getResources("classpath:db/changelog/0*.yaml"))
+                    .map(Resource::getFilename)
+                    .collect(Collectors.toSet());
+            assertEquals(changelogFiles, includedFiles);
+            assertTrue(changeSets.stream().anyMatch(changeSet -> changeSet.getId().equals("015-create-transaction-ids")));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.OutboxEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "app.outbox.relay.enabled=false")
+@DisplayName("Outbox event repository tests")
+@ActiveProfiles("test")
+class OutboxEventRepositoryTests {
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Пачка содержит только неопубликованные и неотложенные события в порядке записи")
+    void findUnpublishedForUpdateTest() {
+        OutboxEvent published = event("TXN1");
+        published.setPublishedAt(LocalDateTime.now());
+        outboxEventRepository.save(published);
+        OutboxEvent parked = event("TXN0");
+        parked.setParkedAt(LocalDateTime.now());
+        outboxEventRepository.save(parked);
+        OutboxEvent second = outboxEventRepository.save(event("TXN2"));
+        OutboxEvent third = outboxEventRepository.save(event("TXN3"));
+        outboxEventRepository.save(event("TXN4"));
+        List<OutboxEvent> batch = new TransactionTemplate(transactionManager).execute(status ->
+                outboxEventRepository.findUnpublishedForUpdate(2));
+        assertEquals(List.of(second.getId(), third.getId()), batch.stream().map(OutboxEvent::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Очистка удаляет только опубликованные события старше срока хранения")
+    void deletePublishedBeforeTest() {
+        OutboxEvent old = event("TXN1");
+        old.setPublishedAt(LocalDateTime.now().minusDays(5));
+        outboxEventRepository.save(old);
+        OutboxEvent recent = event("TXN2");
+        recent.setPublishedAt(LocalDateTime.now());
+        outboxEventRepository.save(recent);
+        outboxEventRepository.save(event("TXN3"));
+        Integer deleted = new TransactionTemplate(transactionManager).execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusDays(3)));
+        assertEquals(1, deleted);
+        assertEquals(2, outboxEventRepository.count());
+    }
+
+    private OutboxEvent event(String aggregateId) {
+        return new OutboxEvent("Transaction", aggregateId, "TransactionCompleted", "{}");
+    }
+}
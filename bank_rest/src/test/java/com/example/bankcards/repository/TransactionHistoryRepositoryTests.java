@@ -0,0 +1,108 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction History Repository tests")
+class TransactionHistoryRepositoryTests {
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
+    private TransactionHistoryRepository transactionHistoryRepository;
+    private LocalDateTime hotSince;
+
+    @BeforeEach
+    void setUp() {
+        transactionHistoryRepository = new TransactionHistoryRepository(transactionRepository,
+                transactionArchiveRepository, 12);
+        hotSince = YearMonth.now().minusMonths(12).atDay(1).atStartOfDay();
+    }
+
+    @Test
+    @DisplayName("Если горячих секций хватает на лимит, старые секции и архив не читаются")
+    void recentPartitionsFillLimitTest() {
+        when(transactionRepository.findUserTransactionsSince(1L, hotSince, PageRequest.of(0, 2)))
+                .thenReturn(List.of(transaction("TXN1"), transaction("TXN2")));
+        List<Transaction> result = transactionHistoryRepository.findUserTransactions(1L, 2);
+        assertEquals(2, result.size());
+        verify(transactionRepository, never()).findUserTransactionsBefore(anyLong(), any(), any());
+        verifyNoInteractions(transactionArchiveRepository);
+    }
+
+    @Test
+    @DisplayName("Недостающие строки добираются из старых секций, затем из архива, в пределах лимита")
+    void olderTiersFillRemainderTest() {
+        when(transactionRepository.findUserTransactionsSince(1L, hotSince, PageRequest.of(0, 5)))
+                .thenReturn(List.of(transaction("TXN1")));
+        when(transactionRepository.findUserTransactionsBefore(1L, hotSince, PageRequest.of(0, 4)))
+                .thenReturn(List.of(transaction("TXN2"), transaction("TXN3")));
+        when(transactionArchiveRepository.findUserTransactions(1L, 2)).thenReturn(List.of(transaction("TXN4")));
+        List<Transaction> result = transactionHistoryRepository.findUserTransactions(1L, 5);
+        assertEquals(List.of("TXN1", "TXN2", "TXN3", "TXN4"),
+                result.stream().map(Transaction::getTransactionId).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Транзакция, перенесенная в архив, находится по id и по transactionId")
+    void lookupFallsBackToArchiveTest() {
+        Transaction archived = transaction("TXN200201ARCHIVED");
+        when(transactionRepository.findById(7L)).thenReturn(Optional.empty());
+        when(transactionArchiveRepository.findById(7L)).thenReturn(Optional.of(archived));
+        when(transactionRepository.findByTransactionIdInPartition("TXN200201ARCHIVED")).thenReturn(Optional.empty());
+        when(transactionArchiveRepository.findByTransactionId("TXN200201ARCHIVED")).thenReturn(Optional.of(archived));
+        assertSame(archived, transactionHistoryRepository.findById(7L).orElseThrow());
+        assertSame(archived, transactionHistoryRepository.findByTransactionId("TXN200201ARCHIVED").orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Горячая транзакция находится без обращения к архиву")
+    void lookupPrefersHotPartitionsTest() {
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction("TXN1")));
+        assertTrue(transactionHistoryRepository.findById(1L).isPresent());
+        verifyNoInteractions(transactionArchiveRepository);
+    }
+
+    @Test
+    @DisplayName("Выписка начинается с архива, затем идут секции; закрытие потока закрывает оба курсора")
+    void statementStreamsArchiveThenHotTest() {
+        AtomicBoolean archiveClosed = new AtomicBoolean();
+        AtomicBoolean hotClosed = new AtomicBoolean();
+        when(transactionArchiveRepository.streamUserTransactions(1L))
+                .thenReturn(Stream.of(transaction("TXN-OLD")).onClose(() -> archiveClosed.set(true)));
+        when(transactionRepository.streamStatement(1L))
+                .thenReturn(Stream.of(transaction("TXN-NEW")).onClose(() -> hotClosed.set(true)));
+        List<String> ids;
+        try (Stream<Transaction> statement = transactionHistoryRepository.streamUserStatement(1L)) {
+            ids = statement.map(Transaction::getTransactionId).collect(Collectors.toList());
+        }
+        assertEquals(List.of("TXN-OLD", "TXN-NEW"), ids);
+        assertTrue(archiveClosed.get());
+        assertTrue(hotClosed.get());
+    }
+
+    private static Transaction transaction(String transactionId) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(transactionId);
+        return transaction;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.entity.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "app.outbox.relay.enabled=false")
+@DisplayName("Transaction rollup repository tests")
+@ActiveProfiles("test")
+class TransactionRollupRepositoryTests {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 15);
+
+    @Autowired
+    private TransactionRollupRepository rollupRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Дельты прибавляются к существующей корзине, для отсутствующей обновление возвращает 0")
+    void incrementTest() {
+        TransactionRollupKey key = key(DAY, Currency.RUB);
+        rollupRepository.save(new TransactionRollup(key, 2, 1, new BigDecimal("200.00"),
+                new BigDecimal("2.00"), LocalDateTime.now()));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer updated = transactionTemplate.execute(status -> rollupRepository.increment(key, 3, 1,
+                new BigDecimal("300.00"), new BigDecimal("3.00"), LocalDateTime.now()));
+        Integer missing = transactionTemplate.execute(status -> rollupRepository.increment(key(DAY, Currency.USD),
+                1, 0, BigDecimal.ONE, BigDecimal.ZERO, LocalDateTime.now()));
+        assertEquals(1, updated);
+        assertEquals(0, missing);
+        TransactionRollup rollup = rollupRepository.findById(key).orElseThrow();
+        assertEquals(5L, rollup.getCompletedCount());
+        assertEquals(2L, rollup.getFailedCount());
+        assertEquals(0, new BigDecimal("500.00").compareTo(rollup.getVolume()));
+        assertEquals(0, new BigDecimal("5.00").compareTo(rollup.getCommission()));
+    }
+
+    @Test
+    @DisplayName("Отчет читает только корзины указанного периода в порядке дат")
+    void findByBucketDateBetweenTest() {
+        for (LocalDate date : List.of(DAY.minusDays(10), DAY.plusDays(1), DAY)) {
+            rollupRepository.save(new TransactionRollup(key(date, Currency.RUB), 1, 0, BigDecimal.TEN,
+                    BigDecimal.ZERO, LocalDateTime.now()));
+        }
+        List<TransactionRollup> rollups = rollupRepository.findByBucketDateBetween(DAY.minusDays(1), DAY.plusDays(1));
+        assertEquals(List.of(DAY, DAY.plusDays(1)),
+                rollups.stream().map(rollup -> rollup.getId().getBucketDate()).toList());
+    }
+
+    private TransactionRollupKey key(LocalDate date, Currency currency) {
+        return new TransactionRollupKey(date, currency, CardType.DEBIT, TransactionType.TRANSFER);
+    }
+}
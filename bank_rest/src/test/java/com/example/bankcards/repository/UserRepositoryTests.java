@@ -0,0 +1,91 @@
+package com.example.bankcards.repository;
+
+import com.example.bankcards.dto.UserDTO;
+import com.example.bankcards.entity.Role;
+import com.example.bankcards.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.bankcards.testConstants.UserTestConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@DisplayName("User repository tests")
+@ActiveProfiles("test")
+class UserRepositoryTests {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private User savedUser;
+
+    @BeforeEach
+    void setUp() {
+        savedUser = userRepository.save(new User(TEST_USERNAME, TEST_EMAIL, TEST_PASSWORD,
+                TEST_FIRST_NAME, TEST_LAST_NAME, TEST_PHONE_NUMBER, Role.ROLE_USER));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(savedUser.getId());
+    }
+
+    @Test
+    @DisplayName("Повторный поиск по username обслуживается кешем натуральных идентификаторов без запросов к базе")
+    void findByUsernameFromCacheTest() {
+        Optional<User> first = userRepository.findByUsername(TEST_USERNAME);
+        statistics.clear();
+        Optional<User> second = userRepository.findByUsername(TEST_USERNAME);
+        assertTrue(first.isPresent());
+        assertEquals(savedUser.getId(), second.orElseThrow().getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getNaturalIdCacheHitCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    @DisplayName("Поиск по несуществующему username возвращает пустой результат")
+    void findByUnknownUsernameTest() {
+        assertTrue(userRepository.findByUsername("unknown-user").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Префиксный поиск находит пользователя по username или email и экранирует символы шаблона")
+    void findUserPageByPrefixTest() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+        Page<UserDTO> byUsername = userRepository.findUserPageByPrefix("testu%", pageable);
+        Page<UserDTO> byEmail = userRepository.findUserPageByPrefix("test@%", pageable);
+        Page<UserDTO> wildcard = userRepository.findUserPageByPrefix("\\%%", pageable);
+        assertEquals(1, byUsername.getTotalElements());
+        assertEquals(TEST_EMAIL, byUsername.getContent().get(0).getEmail());
+        assertEquals(1, byEmail.getTotalElements());
+        assertEquals(0, wildcard.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Keyset-выборка возвращает пользователей после курсора")
+    void findUsersAfterTest() {
+        List<UserDTO> fromStart = userRepository.findUsersAfter(0L, PageRequest.of(0, 10));
+        List<UserDTO> afterSaved = userRepository.findUsersAfter(savedUser.getId(), PageRequest.of(0, 10));
+        assertTrue(fromStart.stream().anyMatch(user -> user.getId().equals(savedUser.getId())));
+        assertTrue(afterSaved.stream().noneMatch(user -> user.getId() <= savedUser.getId()));
+    }
+}
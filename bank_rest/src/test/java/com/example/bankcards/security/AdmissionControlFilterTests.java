@@ -0,0 +1,63 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.config.ApplicationProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static globalConstants.EndpointConstants.TRANSFER_ENDPOINT;
+import static globalConstants.MessageConstants.SERVICE_OVERLOADED_MESSAGE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Admission Control Filter tests")
+class AdmissionControlFilterTests {
+    private AdmissionController admissionController;
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getAdmissionControl().setInitialLimit(1);
+        properties.getAdmissionControl().setMinLimit(1);
+        admissionController = new AdmissionController(properties, new SimpleMeterRegistry(), 10);
+        filter = new AdmissionControlFilter(admissionController, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    @DisplayName("Запрос сверх предела получает 503 с Retry-After, пока первый еще выполняется")
+    void rejectWhileLimitExhaustedTest() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain slowChain = (request, response) -> {
+            MockHttpServletResponse second = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("POST", TRANSFER_ENDPOINT), second, new MockFilterChain());
+            nested.set(second);
+        };
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", TRANSFER_ENDPOINT), first, slowChain);
+        assertEquals(200, first.getStatus());
+        assertEquals(503, nested.get().getStatus());
+        assertEquals("1", nested.get().getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(nested.get().getContentAsString().contains(SERVICE_OVERLOADED_MESSAGE));
+        assertEquals(0, admissionController.limitFor(EndpointClass.TRANSFER).getInFlight());
+    }
+
+    @Test
+    @DisplayName("Место освобождается и при исключении в обработке запроса")
+    void releaseOnExceptionTest() {
+        FilterChain failingChain = (request, response) -> {
+            throw new IllegalStateException("ошибка контроллера");
+        };
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("POST", TRANSFER_ENDPOINT), new MockHttpServletResponse(), failingChain));
+        assertEquals(0, admissionController.limitFor(EndpointClass.TRANSFER).getInFlight());
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.config.ApplicationProperties;
+import com.example.bankcards.util.AdaptiveConcurrencyLimit;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Admission Controller tests")
+class AdmissionControllerTests {
+    private static final long BASE_RTT = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdmissionController admissionController;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getAdmissionControl().setInitialLimit(4);
+        properties.getAdmissionControl().setMinLimit(2);
+        properties.getAdmissionControl().setMaxLimit(20);
+        admissionController = new AdmissionController(properties, meterRegistry, 10);
+    }
+
+    @Test
+    @DisplayName("Сверх предела запросы отклоняются сразу, освобожденное место снова доступно")
+    void rejectAboveLimitTest() {
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, admissionController.tryAcquire(EndpointClass.TRANSFER));
+        }
+        assertEquals(0, admissionController.tryAcquire(EndpointClass.TRANSFER));
+        assertEquals(1, admissionController.tryAcquire(EndpointClass.READ));
+        admissionController.release(EndpointClass.TRANSFER);
+        assertEquals(4, admissionController.tryAcquire(EndpointClass.TRANSFER));
+        assertEquals(1.0, meterRegistry.get("http.admission.rejected").tag("class", "transfer").counter().count());
+        assertEquals(4.0, meterRegistry.get("http.admission.in.flight").tag("class", "transfer").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Сумма запросов всех классов не превышает общий предел, выведенный из размера пула")
+    void globalLimitFollowsPoolSizeTest() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getAdmissionControl().setInitialLimit(10);
+        properties.getAdmissionControl().setRequestsPerConnection(2);
+        AdmissionController controller = new AdmissionController(properties, new SimpleMeterRegistry(), 3);
+        assertEquals(6, controller.getGlobalLimit());
+        assertEquals(6, controller.limitFor(EndpointClass.READ).getLimit());
+        int admitted = 0;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            for (int i = 0; i < 3; i++) {
+                if (controller.tryAcquire(endpointClass) > 0) {
+                    admitted++;
+                }
+            }
+        }
+        assertEquals(6, admitted);
+        assertEquals(0, controller.limitFor(EndpointClass.READ).getInFlight());
+        controller.release(EndpointClass.LOGIN);
+        assertTrue(controller.tryAcquire(EndpointClass.READ) > 0);
+    }
+
+    @Test
+    @DisplayName("Общий предел учитывает все пулы Hikari, включая пул реплики")
+    void globalLimitSumsAllPoolsTest() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("primaryDataSource", hikari(3));
+        beanFactory.addBean("replicaDataSource", hikari(4));
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getAdmissionControl().setRequestsPerConnection(2);
+        AdmissionController controller = new AdmissionController(properties, new SimpleMeterRegistry(),
+                beanFactory.getBeanProvider(HikariDataSource.class));
+        assertEquals(14, controller.getGlobalLimit());
+
+        // Незаданный размер пула Hikari до запуска читается как -1 и означает размер по умолчанию
+        beanFactory.addBean("replicaDataSource", new HikariDataSource());
+        controller = new AdmissionController(properties, new SimpleMeterRegistry(),
+                beanFactory.getBeanProvider(HikariDataSource.class));
+        assertEquals(26, controller.getGlobalLimit());
+    }
+
+    @Test
+    @DisplayName("Явно заданный общий предел важнее размера пула")
+    void explicitGlobalLimitTest() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getAdmissionControl().setGlobalLimit(7);
+        assertEquals(7, new AdmissionController(properties, new SimpleMeterRegistry(), 10).getGlobalLimit());
+        assertEquals(7, new AdmissionController(properties, new SimpleMeterRegistry(), 0).getGlobalLimit());
+
+        properties.getAdmissionControl().setGlobalLimit(null);
+        assertThrows(IllegalStateException.class,
+                () -> new AdmissionController(properties, new SimpleMeterRegistry(), 0));
+    }
+
+    @Test
+    @DisplayName("Рост задержки под нагрузкой снижает предел")
+    void limitShrinksWhenLatencyGrowsTest() {
+        AdaptiveConcurrencyLimit limit = admissionController.limitFor(EndpointClass.READ);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(BASE_RTT, 4);
+        }
+        int stable = limit.getLimit();
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(BASE_RTT * 10, stable);
+        }
+        assertTrue(limit.getLimit() < stable, "предел должен снизиться: " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 2);
+        assertEquals(limit.getLimit(), meterRegistry.get("http.admission.limit").tag("class", "read").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Предел растет при стабильной задержке только если запросы его используют")
+    void limitGrowsOnlyWhenUtilizedTest() {
+        AdaptiveConcurrencyLimit limit = admissionController.limitFor(EndpointClass.WRITE);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(BASE_RTT, 1);
+        }
+        assertEquals(4, limit.getLimit());
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(BASE_RTT, limit.getLimit());
+        }
+        assertTrue(limit.getLimit() > 4, "предел должен вырасти: " + limit.getLimit());
+        assertTrue(limit.getLimit() <= 20);
+    }
+
+    private static HikariDataSource hikari(int maximumPoolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        return dataSource;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.bankcards.testConstants.UserTestConstants.TEST_PASSWORD;
+import static com.example.bankcards.testConstants.UserTestConstants.WRONG_PASSWORD;
+import static globalConstants.MessageConstants.AUTH_SERVICE_BUSY_MESSAGE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bounded Password Encoder tests")
+class BoundedPasswordEncoderTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    @DisplayName("Хеширование и проверка пароля выполняются через пул и учитываются в метриках")
+    void encodeAndMatchesTest() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, 5000, meterRegistry);
+        String hash = encoder.encode(TEST_PASSWORD);
+        assertTrue(encoder.matches(TEST_PASSWORD, hash));
+        assertFalse(encoder.matches(WRONG_PASSWORD, hash));
+        assertEquals(1, meterRegistry.get("auth.password.hashing.duration").tag("operation", "encode")
+                .timer().count());
+        assertEquals(2, meterRegistry.get("auth.password.hashing.duration").tag("operation", "matches")
+                .timer().count());
+    }
+
+    @Test
+    @DisplayName("При заполненном пуле запрос сразу отклоняется")
+    void rejectWhenSaturatedTest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        encoder = new BoundedPasswordEncoder(blocking, 1, 0, 5000, meterRegistry);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> encoder.encode(TEST_PASSWORD));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> encoder.encode(TEST_PASSWORD));
+        assertEquals(AUTH_SERVICE_BUSY_MESSAGE, exception.getMessage());
+        assertEquals(1.0, meterRegistry.get("auth.password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+    }
+}
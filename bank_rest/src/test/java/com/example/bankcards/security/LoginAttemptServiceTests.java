@@ -0,0 +1,83 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.config.ApplicationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Login Attempt Service tests")
+class LoginAttemptServiceTests {
+    private static final int MAX_ATTEMPTS = 5;
+    private static final String TARGET_USERNAME = "victim";
+
+    private LoginAttemptService loginAttemptService;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setMaxLoginAttempts(MAX_ATTEMPTS);
+        // По две записи на сегмент: переполнение достигается несколькими именами
+        applicationProperties.getSecurity().setLoginAttemptsCapacity(128);
+        loginAttemptService = new LoginAttemptService(applicationProperties);
+    }
+
+    @Test
+    @DisplayName("Блокировка срабатывает после исчерпания попыток")
+    void lockAfterMaxAttemptsTest() {
+        for (int i = 0; i < MAX_ATTEMPTS - 1; i++) {
+            loginAttemptService.loginFailed(TARGET_USERNAME, null);
+        }
+        assertFalse(loginAttemptService.isBlocked(TARGET_USERNAME, null));
+        loginAttemptService.loginFailed(TARGET_USERNAME, null);
+        assertTrue(loginAttemptService.isBlocked("Victim", null));
+    }
+
+    @Test
+    @DisplayName("Поток новых имен из того же сегмента не сбрасывает активную блокировку")
+    void lockSurvivesSegmentSprayTest() {
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            loginAttemptService.loginFailed(TARGET_USERNAME, null);
+        }
+        for (String username : collidingUsernames(TARGET_USERNAME, 100)) {
+            loginAttemptService.loginFailed(username, null);
+        }
+        assertTrue(loginAttemptService.isBlocked(TARGET_USERNAME, null));
+    }
+
+    @Test
+    @DisplayName("При переполнении сегмента вытесняются незаблокированные записи")
+    void unlockedEntriesEvictedTest() {
+        String suspect = "suspect";
+        for (int i = 0; i < MAX_ATTEMPTS - 1; i++) {
+            loginAttemptService.loginFailed(suspect, null);
+        }
+        for (String username : collidingUsernames(suspect, 10)) {
+            loginAttemptService.loginFailed(username, null);
+        }
+        loginAttemptService.loginFailed(suspect, null);
+        assertFalse(loginAttemptService.isBlocked(suspect, null));
+    }
+
+    private static List<String> collidingUsernames(String target, int count) {
+        int stripe = stripeOf(target);
+        List<String> usernames = new ArrayList<>(count);
+        for (int i = 0; usernames.size() < count; i++) {
+            String candidate = "spray" + i;
+            if (stripeOf(candidate) == stripe) {
+                usernames.add(candidate);
+            }
+        }
+        return usernames;
+    }
+
+    // Повторяет распределение ключей по 64 сегментам в LoginAttemptService
+    private static int stripeOf(String username) {
+        int hash = ("u:" + username).hashCode();
+        return (hash ^ (hash >>> 16)) & 63;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.config.ApplicationProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static globalConstants.EndpointConstants.*;
+import static globalConstants.MessageConstants.RATE_LIMIT_EXCEEDED_MESSAGE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Rate Limit Filter tests")
+class RateLimitFilterTests {
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getRateLimit().setLogin(new ApplicationProperties.RateLimit.Limit(2, 1));
+        properties.getRateLimit().setTransfer(new ApplicationProperties.RateLimit.Limit(1, 1));
+        filter = new RateLimitFilter(new RequestRateLimiter(properties, new SimpleMeterRegistry()),
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Вход ограничивается по IP, лишний запрос получает 429 и Retry-After")
+    void loginLimitedByIpTest() throws Exception {
+        assertEquals(200, perform(request("POST", LOGIN_ENDPOINT, "10.0.0.1")).getStatus());
+        assertEquals(200, perform(request("POST", LOGIN_ENDPOINT, "10.0.0.1")).getStatus());
+        MockHttpServletResponse rejected = perform(request("POST", LOGIN_ENDPOINT, "10.0.0.1"));
+        assertEquals(429, rejected.getStatus());
+        assertEquals("60", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(rejected.getContentAsString().contains(RATE_LIMIT_EXCEEDED_MESSAGE));
+        assertEquals(200, perform(request("POST", LOGIN_ENDPOINT, "10.0.0.2")).getStatus());
+    }
+
+    @Test
+    @DisplayName("Переводы ограничиваются по пользователю и не расходуют лимит чтения")
+    void transferLimitedByUserTest() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        assertEquals(200, perform(request("POST", TRANSFER_ENDPOINT, "10.0.0.1")).getStatus());
+        assertEquals(429, perform(request("POST", TRANSFER_BETWEEN_OWN_CARDS_ENDPOINT, "10.0.0.2")).getStatus());
+        assertEquals(200, perform(request("GET", GET_TRANSACTIONS_ENDPOINT, "10.0.0.1")).getStatus());
+    }
+
+    @Test
+    @DisplayName("Запросы вне /api/ не ограничиваются")
+    void nonApiRequestsNotLimitedTest() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, perform(request("GET", "/actuator/health", "10.0.0.1")).getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Классы эндпоинтов определяются по пути и методу")
+    void classifyTest() {
+        assertEquals(EndpointClass.TRANSFER,
+                EndpointClass.of(request("POST", DEPOSIT_ENDPOINT, null)));
+        assertEquals(EndpointClass.READ,
+                EndpointClass.of(request("GET", CARDS_BASE_PATH, null)));
+        assertEquals(EndpointClass.WRITE,
+                EndpointClass.of(request("PUT", BLOCK_CARD_ENDPOINT, null)));
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (remoteAddr != null) {
+            request.setRemoteAddr(remoteAddr);
+        }
+        return request;
+    }
+}
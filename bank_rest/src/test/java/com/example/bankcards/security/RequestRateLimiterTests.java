@@ -0,0 +1,72 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.example.bankcards.security.EndpointClass.READ;
+import static com.example.bankcards.security.EndpointClass.TRANSFER;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Request Rate Limiter tests")
+class RequestRateLimiterTests {
+    private static final long START = 1_000_000_000_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RequestRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getRateLimit().setTransfer(new ApplicationProperties.RateLimit.Limit(3, 60));
+        rateLimiter = new RequestRateLimiter(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Корзина пропускает запросы в пределах емкости и возвращает время ожидания после")
+    void burstThenRejectTest() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(TRANSFER, "u:1", START));
+        }
+        long wait = rateLimiter.tryAcquire(TRANSFER, "u:1", START);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+        assertEquals(1.0, meterRegistry.get("http.rate.limit.rejected").tag("class", "transfer").counter().count());
+    }
+
+    @Test
+    @DisplayName("Токены возвращаются в корзину со временем")
+    void refillTest() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(TRANSFER, "u:1", START);
+        }
+        long later = START + TimeUnit.SECONDS.toNanos(1);
+        assertEquals(0, rateLimiter.tryAcquire(TRANSFER, "u:1", later));
+        assertTrue(rateLimiter.tryAcquire(TRANSFER, "u:1", later) > 0);
+    }
+
+    @Test
+    @DisplayName("Корзины пользователей и классов эндпоинтов независимы")
+    void independentBucketsTest() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(TRANSFER, "u:1", START);
+        }
+        assertEquals(0, rateLimiter.tryAcquire(TRANSFER, "u:2", START));
+        assertEquals(0, rateLimiter.tryAcquire(READ, "u:1", START));
+    }
+
+    @Test
+    @DisplayName("Очистка удаляет только снова заполнившиеся корзины")
+    void evictIdleBucketsTest() {
+        long now = System.nanoTime();
+        rateLimiter.tryAcquire(READ, "u:1", now - TimeUnit.MINUTES.toNanos(5));
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire(TRANSFER, "u:2", now + TimeUnit.MINUTES.toNanos(5));
+        }
+        rateLimiter.evictIdleBuckets();
+        assertEquals(1, rateLimiter.bucketCount());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.bankcards.security;
+
+import com.example.bankcards.entity.RevokedToken;
+import com.example.bankcards.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Token Revocation List tests")
+class TokenRevocationListTests {
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationList = new TokenRevocationList(revokedTokenRepository, transactionManager, meterRegistry, 3_600_000);
+    }
+
+    @Test
+    @DisplayName("Отозванный токен сохраняется в БД и сразу отклоняется без запроса к БД")
+    void revokeTest() {
+        String tokenId = UUID.randomUUID().toString();
+        assertFalse(tokenRevocationList.isRevoked(tokenId));
+        tokenRevocationList.revoke(tokenId, LocalDateTime.now().plusHours(1));
+        assertTrue(tokenRevocationList.isRevoked(tokenId));
+        assertFalse(tokenRevocationList.isRevoked(UUID.randomUUID().toString()));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        verifyNoMoreInteractions(revokedTokenRepository);
+        assertEquals(1.0, meterRegistry.get("auth.tokens.revoked").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Токены без jti или с нестандартным jti не считаются отозванными")
+    void tokenWithoutIdTest() {
+        assertFalse(tokenRevocationList.isRevoked(null));
+        tokenRevocationList.revoke("not-a-uuid", LocalDateTime.now().plusHours(1));
+        assertFalse(tokenRevocationList.isRevoked("not-a-uuid"));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    @DisplayName("При старте и синхронизации подтягиваются отзывы других экземпляров")
+    void loadTest() {
+        String tokenId = UUID.randomUUID().toString();
+        when(revokedTokenRepository.findActiveRevokedSince(any(), any())).thenReturn(
+                List.of(new RevokedToken(tokenId, LocalDateTime.now().plusHours(1), LocalDateTime.now())));
+        tokenRevocationList.load();
+        assertTrue(tokenRevocationList.isRevoked(tokenId));
+    }
+
+    @Test
+    @DisplayName("Истекшие записи удаляются из памяти и из БД")
+    void pruneExpiredTest() {
+        String expired = UUID.randomUUID().toString();
+        String active = UUID.randomUUID().toString();
+        tokenRevocationList.revoke(expired, LocalDateTime.now().minusSeconds(1));
+        tokenRevocationList.revoke(active, LocalDateTime.now().plusHours(1));
+        tokenRevocationList.pruneExpired();
+        assertFalse(tokenRevocationList.isRevoked(expired));
+        assertTrue(tokenRevocationList.isRevoked(active));
+        assertEquals(1, tokenRevocationList.size());
+        verify(revokedTokenRepository).deleteExpired(any());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.bankcards.service;
 
+import com.example.bankcards.config.ApplicationProperties;
 import com.example.bankcards.dto.LoginRequest;
 import com.example.bankcards.dto.LoginResponse;
 import com.example.bankcards.entity.Role;
@@ -8,21 +9,30 @@ import com.example.bankcards.exception.AuthenticationException;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.repository.UserRepository;
 import com.example.bankcards.security.JwtTokenProvider;
+import com.example.bankcards.security.LoginAttemptService;
+import com.example.bankcards.security.TokenRevocationList;
 import com.example.bankcards.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.Optional;
 
 import static com.example.bankcards.testConstants.TokenTestConstants.*;
@@ -44,6 +54,10 @@ class AuthServiceTests {
     private UserRepository userRepository;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+    @Spy
+    private LoginAttemptService loginAttemptService = new LoginAttemptService(new ApplicationProperties());
     @InjectMocks
     private AuthService authService;
     private User testUser;
@@ -80,7 +94,7 @@ class AuthServiceTests {
                 .thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(testUserPrincipal);
         when(jwtTokenProvider.generateToken(authentication)).thenReturn(ACCESS_TOKEN);
-        LoginResponse response = authService.authenticate(validLoginRequest);
+        LoginResponse response = authService.authenticate(validLoginRequest, TEST_CLIENT_IP);
         assertNotNull(response);
         assertEquals(ACCESS_TOKEN, response.getToken());
         assertEquals("Bearer", response.getType());
@@ -100,11 +114,47 @@ class AuthServiceTests {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenThrow(new BadCredentialsException("Неверные учетные данные"));
         AuthenticationException exception = assertThrows(AuthenticationException.class,
-                () -> authService.authenticate(invalidLoginRequest));
+                () -> authService.authenticate(invalidLoginRequest, TEST_CLIENT_IP));
         assertEquals(AUTH_INVALID_CREDENTIALS_MESSAGE, exception.getMessage());
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
     }
 
+    @Test
+    @DisplayName("После исчерпания попыток вход блокируется без проверки пароля")
+    void authenticateLockedAfterMaxAttemptsTest() {
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Неверные учетные данные"));
+        for (int i = 0; i < 5; i++) {
+            assertThrows(AuthenticationException.class,
+                    () -> authService.authenticate(invalidLoginRequest, TEST_CLIENT_IP));
+        }
+        LockedException exception = assertThrows(LockedException.class,
+                () -> authService.authenticate(validLoginRequest, TEST_CLIENT_IP));
+        assertEquals(AUTH_TOO_MANY_ATTEMPTS_MESSAGE, exception.getMessage());
+        verify(authenticationManager, times(5)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+    }
+
+    @Test
+    @DisplayName("Успешный вход сбрасывает счетчик неудачных попыток")
+    void authenticateSuccessResetsAttemptsTest() {
+        Authentication authentication = mock(Authentication.class);
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Неверные учетные данные"))
+                .thenThrow(new BadCredentialsException("Неверные учетные данные"))
+                .thenThrow(new BadCredentialsException("Неверные учетные данные"))
+                .thenThrow(new BadCredentialsException("Неверные учетные данные"))
+                .thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(testUserPrincipal);
+        when(jwtTokenProvider.generateToken(authentication)).thenReturn(ACCESS_TOKEN);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(AuthenticationException.class,
+                    () -> authService.authenticate(invalidLoginRequest, TEST_CLIENT_IP));
+        }
+        authService.authenticate(validLoginRequest, TEST_CLIENT_IP);
+        assertFalse(loginAttemptService.isBlocked(TEST_USERNAME, null));
+        verify(loginAttemptService).loginSucceeded(TEST_USERNAME);
+    }
+
     @Test
     @DisplayName("Успешная смена пароля при верном текущем пароле")
     void changePasswordWithValidDataTest() {
@@ -234,4 +284,28 @@ class AuthServiceTests {
         authService.logout(VALID_TOKEN);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Отозванный при выходе токен не проходит проверку и не обновляется")
+    void revokedTokenIsRejectedTest() {
+        String tokenId = "6f1c3f4e-2d7a-4b8e-9c1d-0a2b3c4d5e6f";
+        when(jwtTokenProvider.validateToken(OLD_TOKEN)).thenReturn(true);
+        when(jwtTokenProvider.getTokenIdFromToken(OLD_TOKEN)).thenReturn(tokenId);
+        when(tokenRevocationList.isRevoked(tokenId)).thenReturn(true);
+        assertFalse(authService.validateToken(OLD_TOKEN));
+        assertThrows(AuthenticationException.class, () -> authService.refreshToken(OLD_TOKEN));
+        verify(jwtTokenProvider, never()).generateToken(any(Authentication.class));
+    }
+
+    @Test
+    @DisplayName("При выходе из системы токен отзывается до истечения его срока")
+    void logoutRevokesTokenTest() {
+        String tokenId = "6f1c3f4e-2d7a-4b8e-9c1d-0a2b3c4d5e6f";
+        Date expiration = new Date(System.currentTimeMillis() / 1000 * 1000 + 60_000);
+        Claims claims = Jwts.claims().setId(tokenId).setExpiration(expiration);
+        when(jwtTokenProvider.parseClaims(VALID_TOKEN)).thenReturn(claims);
+        authService.logout(VALID_TOKEN);
+        verify(tokenRevocationList).revoke(tokenId,
+                LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault()));
+    }
+}
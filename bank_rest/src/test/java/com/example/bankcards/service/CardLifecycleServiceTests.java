@@ -0,0 +1,92 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardType;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.event.CardReissueDueEvent;
+import com.example.bankcards.outbox.OutboxWriter;
+import com.example.bankcards.repository.CardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Card Lifecycle Service tests")
+class CardLifecycleServiceTests {
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 15);
+
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private OutboxWriter outboxWriter;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CardLifecycleService cardLifecycleService;
+
+    @BeforeEach
+    void setUp() {
+        cardLifecycleService = new CardLifecycleService(cardRepository, outboxWriter, transactionManager,
+                meterRegistry, 2, 10, 30);
+    }
+
+    @Test
+    @DisplayName("Истекшие карты переводятся в EXPIRED порциями, пока порция заполнена целиком")
+    void expireCardsInBatchesTest() {
+        when(cardRepository.findExpiredActiveCardIds(eq(TODAY), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(cardRepository.markExpired(List.of(1L, 2L))).thenReturn(2);
+        when(cardRepository.markExpired(List.of(3L))).thenReturn(1);
+        assertEquals(3, cardLifecycleService.expireCards(TODAY));
+        verify(cardRepository, times(2)).findExpiredActiveCardIds(eq(TODAY), any(Pageable.class));
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(3.0, meterRegistry.get("cards.lifecycle.expired").counter().count());
+    }
+
+    @Test
+    @DisplayName("Для карт, истекающих в ближайшие дни, в outbox пишется событие перевыпуска")
+    void requestReissuesTest() {
+        Card card = card(7L, TODAY.plusDays(20));
+        when(cardRepository.findReissueCandidates(eq(TODAY.plusDays(30)), any(Pageable.class)))
+                .thenReturn(List.of(card));
+        assertEquals(1, cardLifecycleService.requestReissues(TODAY));
+        verify(outboxWriter).append(CardReissueDueEvent.AGGREGATE_TYPE, "7", CardReissueDueEvent.EVENT_TYPE,
+                new CardReissueDueEvent(7L, 1L, TODAY.plusDays(20), CardType.DEBIT, Currency.RUB));
+        verify(cardRepository).markReissueRequested(eq(List.of(7L)), any());
+    }
+
+    @Test
+    @DisplayName("Без кандидатов ничего не пишется и не обновляется")
+    void requestReissuesWithoutCandidatesTest() {
+        when(cardRepository.findReissueCandidates(any(), any(Pageable.class))).thenReturn(List.of());
+        assertEquals(0, cardLifecycleService.requestReissues(TODAY));
+        verifyNoInteractions(outboxWriter);
+        verify(cardRepository, never()).markReissueRequested(any(), any());
+    }
+
+    private Card card(Long id, LocalDate expiryDate) {
+        Card card = new Card();
+        card.setId(id);
+        card.setExpiryDate(expiryDate);
+        card.setCardType(CardType.DEBIT);
+        card.setCurrency(Currency.RUB);
+        card.setUser(User.builder().id(1L).build());
+        return card;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.util.CardNumberHasher;
+import com.example.bankcards.util.Luhn;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Card Number Allocator tests")
+class CardNumberAllocatorTests {
+    @Mock
+    private CardRepository cardRepository;
+    @Mock
+    private Executor executor;
+    private final CardNumberHasher cardNumberHasher = new CardNumberHasher("test-blind-index-key");
+
+    @Test
+    @DisplayName("Номера карт проходят проверку Луна и начинаются с BIN из настроенных диапазонов")
+    void generateCardNumberTest() {
+        CardNumberAllocator allocator = allocator(List.of("220220", "510000-559999"), 10, executor);
+        assertTrue(Luhn.isValid("79927398713"));
+        for (int i = 0; i < 1000; i++) {
+            String cardNumber = allocator.generateCardNumber();
+            assertEquals(16, cardNumber.length());
+            assertTrue(Luhn.isValid(cardNumber), cardNumber);
+            int bin = Integer.parseInt(cardNumber.substring(0, 6));
+            assertTrue(bin == 220220 || (bin >= 510000 && bin <= 559999), cardNumber);
+        }
+    }
+
+    @Test
+    @DisplayName("В резерв не попадают номера, уже выпущенные на карты")
+    void refillSkipsExistingNumbersTest() {
+        Set<String> existing = new HashSet<>();
+        when(cardRepository.findExistingCardNumberHashes(anyCollection())).thenAnswer(invocation -> {
+            if (!existing.isEmpty()) {
+                return List.of();
+            }
+            Collection<String> hashes = invocation.getArgument(0);
+            String first = hashes.iterator().next();
+            existing.add(first);
+            return List.of(first);
+        });
+        CardNumberAllocator allocator = allocator(List.of("400000-499999"), 5, executor);
+        allocator.refill();
+        assertEquals(5, allocator.reservoirSize());
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            CardNumberAllocator.IssuedCardNumber cardNumber = allocator.allocate();
+            assertEquals(cardNumberHasher.hash(cardNumber.number()), cardNumber.hash());
+            assertFalse(existing.contains(cardNumber.hash()));
+            assertTrue(issued.add(cardNumber.number()));
+        }
+        verify(executor, atLeastOnce()).execute(any());
+    }
+
+    @Test
+    @DisplayName("При пустом резерве номер генерируется в запросе, а пополнение уходит в фон")
+    void allocateWhenReservoirIsEmptyTest() {
+        when(cardRepository.findExistingCardNumberHashes(anyCollection())).thenReturn(List.of());
+        CardNumberAllocator allocator = allocator(List.of("400000-499999"), 5, executor);
+        CardNumberAllocator.IssuedCardNumber cardNumber = allocator.allocate();
+        assertTrue(Luhn.isValid(cardNumber.number()));
+        assertEquals(cardNumber.number().substring(12), cardNumber.last4());
+        verify(cardRepository).findExistingCardNumberHashes(Set.of(cardNumber.hash()));
+        verify(executor).execute(any());
+    }
+
+    @Test
+    @DisplayName("Некорректный диапазон BIN отклоняется при старте")
+    void invalidBinRangeTest() {
+        assertThrows(IllegalArgumentException.class, () -> allocator(List.of("4000"), 5, executor));
+        assertThrows(IllegalArgumentException.class, () -> allocator(List.of("559999-510000"), 5, executor));
+        assertThrows(IllegalArgumentException.class, () -> allocator(List.of("400000-4999999"), 5, executor));
+    }
+
+    private CardNumberAllocator allocator(List<String> binRanges, int capacity, Executor executor) {
+        return new CardNumberAllocator(cardRepository, cardNumberHasher, new SimpleMeterRegistry(), executor,
+                binRanges, capacity, 2, capacity, true);
+    }
+}
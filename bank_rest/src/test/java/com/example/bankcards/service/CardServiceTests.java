@@ -2,9 +2,11 @@ package com.example.bankcards.service;
 
 import com.example.bankcards.dto.CardDTO;
 import com.example.bankcards.dto.CardSearchRequest;
+import com.example.bankcards.dto.CardStatusResponse;
 import com.example.bankcards.dto.CreateCardRequest;
 import com.example.bankcards.dto.PageResponse;
 import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardStatus;
 import com.example.bankcards.entity.CardType;
 import com.example.bankcards.entity.Currency;
 import com.example.bankcards.entity.User;
@@ -19,22 +21,28 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.example.bankcards.testConstants.MessageTestConstants.*;
 import static com.example.bankcards.testConstants.UserTestConstants.*;
+import static globalConstants.CardStatusConstants.BLOCKED_STATUS_DESCRIPTION;
 import static globalConstants.MessageConstants.CANNOT_DEACTIVATE_WITH_BALANCE_MESSAGE;
 import static globalConstants.MessageConstants.CARD_ALREADY_BLOCKED_MESSAGE;
 import static org.junit.jupiter.api.Assertions.*;
@@ -52,8 +60,12 @@ class CardServiceTests {
     private DataMasker dataMasker;
     @Mock
     private DataEncryptor dataEncryptor;
+    @Mock
+    private CardNumberAllocator cardNumberAllocator;
     @InjectMocks
     private CardService cardService;
+    private static final CardNumberAllocator.IssuedCardNumber ISSUED_CARD_NUMBER =
+            new CardNumberAllocator.IssuedCardNumber(CARD_NUMBER, CARD_NUMBER_HASH);
     private User testUser;
     private Card testCard;
     private CreateCardRequest createCardRequest;
@@ -87,7 +99,8 @@ class CardServiceTests {
     @DisplayName("Успешное создание дебетовой карты для существующего пользователя")
     void createCardWithValidRequestTest() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(dataEncryptor.encrypt(anyString())).thenReturn("encryptedCardNumber");
+        when(cardNumberAllocator.allocate()).thenReturn(ISSUED_CARD_NUMBER);
+        when(dataEncryptor.encrypt(CARD_NUMBER)).thenReturn("encryptedCardNumber");
         when(cardRepository.save(any(Card.class))).thenReturn(testCard);
         when(dataEncryptor.decrypt(anyString())).thenReturn(CARD_NUMBER);
         when(dataMasker.maskCardNumber(CARD_NUMBER)).thenReturn(CARD_NUMBER_MASKED);
@@ -98,7 +111,8 @@ class CardServiceTests {
         assertEquals(CardType.DEBIT, result.getCardType());
         assertEquals(Currency.RUB, result.getCurrency());
         verify(userRepository).findById(1L);
-        verify(cardRepository).save(any(Card.class));
+        verify(cardRepository).save(argThat(card -> card.getCardNumberLast4().equals(CARD_NUMBER_LAST4)
+                && card.getCardNumberHash().equals(ISSUED_CARD_NUMBER.hash())));
     }
 
     @Test
@@ -126,6 +140,7 @@ class CardServiceTests {
         savedCard.setUser(user);
         savedCard.setCreditLimit(new BigDecimal("10000.00")); // ← важно!
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(cardNumberAllocator.allocate()).thenReturn(ISSUED_CARD_NUMBER);
         when(dataEncryptor.encrypt(anyString())).thenReturn(ENCRYPTED_CARD_NUMBER);
         when(cardRepository.save(any(Card.class))).thenReturn(savedCard);
         when(dataEncryptor.decrypt(ENCRYPTED_CARD_NUMBER)).thenReturn(CARD_NUMBER);
@@ -202,7 +217,7 @@ class CardServiceTests {
         CardDTO result = cardService.blockCard(1L);
         assertTrue(result.getIsBlocked());
         verify(cardRepository).findById(1L);
-        verify(cardRepository).save(any(Card.class));
+        verify(cardRepository).save(argThat(card -> card.getStatus() == CardStatus.BLOCKED));
     }
 
     @Test
@@ -276,7 +291,7 @@ class CardServiceTests {
         CardDTO result = cardService.deactivateCard(1L);
         assertFalse(result.getActive());
         verify(cardRepository).findById(1L);
-        verify(cardRepository).save(any(Card.class));
+        verify(cardRepository).save(argThat(card -> card.getStatus() == CardStatus.DEACTIVATED));
     }
 
     @Test
@@ -330,15 +345,51 @@ class CardServiceTests {
         CardSearchRequest searchRequest = new CardSearchRequest();
         Pageable pageable = mock(Pageable.class);
         Page<Card> cardPage = new PageImpl<>(Arrays.asList(testCard));
-        when(cardRepository.findUserCardsWithFilters(eq(1L), isNull(), isNull(), isNull(), isNull(), isNull(), eq(pageable)))
-                .thenReturn(cardPage);
+        when(cardRepository.findAll(ArgumentMatchers.<Specification<Card>>any(), eq(pageable))).thenReturn(cardPage);
         when(dataEncryptor.decrypt(ENCRYPTED_CARD_NUMBER)).thenReturn(CARD_NUMBER);
         when(dataMasker.maskCardNumber(CARD_NUMBER)).thenReturn(CARD_NUMBER_MASKED);
         PageResponse<CardDTO> result = cardService.searchUserCards(1L, searchRequest, pageable);
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
         assertEquals(1L, result.getContent().get(0).getId());
-        verify(cardRepository).findUserCardsWithFilters(eq(1L), isNull(), isNull(), isNull(), isNull(), isNull(), eq(pageable));
+        verify(cardRepository).findAll(ArgumentMatchers.<Specification<Card>>any(), eq(pageable));
+    }
+
+    @Test
+    @DisplayName("Поиск карт в режиме slice не выполняет подсчет и возвращает только hasNext")
+    void searchUserCardsSliceTest() {
+        CardSearchRequest searchRequest = new CardSearchRequest();
+        searchRequest.setIncludeTotal(false);
+        Pageable pageable = PageRequest.of(0, 1);
+        when(cardRepository.findSlice(ArgumentMatchers.<Specification<Card>>any(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(testCard), pageable, true));
+        when(dataEncryptor.decrypt(ENCRYPTED_CARD_NUMBER)).thenReturn(CARD_NUMBER);
+        when(dataMasker.maskCardNumber(CARD_NUMBER)).thenReturn(CARD_NUMBER_MASKED);
+        PageResponse<CardDTO> result = cardService.searchUserCards(1L, searchRequest, pageable);
+        assertEquals(1, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertNull(result.getTotalElements());
+        assertNull(result.getTotalPages());
+        verify(cardRepository, never()).findAll(ArgumentMatchers.<Specification<Card>>any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("ETag карты строится по ее версии без загрузки сущности")
+    void getCardETagTest() {
+        when(cardRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+        assertEquals(CARD_ETAG, cardService.getCardETag(1L));
+        verify(cardRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("ETag карт пользователя меняется вместе со сводной версией карт")
+    void getUserCardsETagTest() {
+        CardRepository.CardsVersion cardsVersion = mock(CardRepository.CardsVersion.class);
+        when(cardsVersion.getCardCount()).thenReturn(2L);
+        when(cardsVersion.getVersionSum()).thenReturn(5L);
+        when(cardsVersion.getMaxId()).thenReturn(7L);
+        when(cardRepository.getUserCardsVersion(1L)).thenReturn(cardsVersion);
+        assertEquals(USER_CARDS_ETAG, cardService.getUserCardsETag(1L));
     }
 
     @Test
@@ -361,6 +412,72 @@ class CardServiceTests {
         assertEquals(TOTAL_CARD_BALANCE, result);
     }
 
+    @Test
+    @DisplayName("Статус карты читается проекцией без расшифровки номера")
+    void getCardStatusTest() {
+        CardRepository.CardStatusView view = statusView(CardStatus.BLOCKED, LocalDate.now().plusDays(30));
+        when(cardRepository.findStatusById(1L)).thenReturn(Optional.of(view));
+        CardStatusResponse response = cardService.getCardStatus(1L);
+        assertEquals(CardStatus.BLOCKED.name(), response.getStatus());
+        assertEquals(BLOCKED_STATUS_DESCRIPTION, response.getStatusDescription());
+        assertFalse(response.getValid());
+        assertEquals(30L, response.getDaysUntilExpiry());
+        assertNull(response.getCard());
+        verifyNoInteractions(dataEncryptor);
+        verify(cardRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Активная карта с прошедшим сроком считается истекшей до ночной проверки")
+    void getCardStatusExpiredBeforeSweepTest() {
+        CardRepository.CardStatusView view = statusView(CardStatus.ACTIVE, LocalDate.now().minusDays(1));
+        when(cardRepository.findStatusById(1L)).thenReturn(Optional.of(view));
+        CardStatusResponse response = cardService.getCardStatus(1L);
+        assertEquals(CardStatus.EXPIRED.name(), response.getStatus());
+        assertTrue(response.getExpired());
+        assertFalse(response.getValid());
+    }
+
+    @Test
+    @DisplayName("Полный статус карты содержит данные карты, как и до перехода на хранимый статус")
+    void getCardStatusWithCardTest() {
+        testCard.setStatus(CardStatus.BLOCKED);
+        testCard.setIsBlocked(true);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        when(dataEncryptor.decrypt(ENCRYPTED_CARD_NUMBER)).thenReturn(CARD_NUMBER);
+        when(dataMasker.maskCardNumber(CARD_NUMBER)).thenReturn(CARD_NUMBER_MASKED);
+        CardStatusResponse response = cardService.getCardStatusWithCard(1L);
+        assertEquals(CardStatus.BLOCKED.name(), response.getStatus());
+        assertEquals(BLOCKED_STATUS_DESCRIPTION, response.getStatusDescription());
+        assertFalse(response.getValid());
+        assertNotNull(response.getCard());
+        assertEquals(CARD_NUMBER_MASKED, response.getCard().getCardNumber());
+        verify(cardRepository, never()).findStatusById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Отчет по статусам содержит все статусы, отсутствующие - с нулем")
+    void getStatusReportTest() {
+        CardRepository.StatusCount active = mock(CardRepository.StatusCount.class);
+        when(active.getStatus()).thenReturn(CardStatus.ACTIVE);
+        when(active.getCardCount()).thenReturn(7L);
+        when(cardRepository.countByStatus()).thenReturn(List.of(active));
+        Map<CardStatus, Long> report = cardService.getStatusReport();
+        assertEquals(CardStatus.values().length, report.size());
+        assertEquals(7L, report.get(CardStatus.ACTIVE));
+        assertEquals(0L, report.get(CardStatus.EXPIRED));
+    }
+
+    private CardRepository.CardStatusView statusView(CardStatus status, LocalDate expiryDate) {
+        CardRepository.CardStatusView view = mock(CardRepository.CardStatusView.class);
+        when(view.getId()).thenReturn(1L);
+        when(view.getStatus()).thenReturn(status);
+        when(view.getActive()).thenReturn(true);
+        when(view.getBlocked()).thenReturn(status == CardStatus.BLOCKED);
+        when(view.getExpiryDate()).thenReturn(expiryDate);
+        return view;
+    }
+
     @Test
     @DisplayName("Если баланс не найден, getTotalBalance возвращает ZERO")
     void getTotalBalanceWhenNoCardsTest() {
@@ -0,0 +1,84 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.CardDTO;
+import com.example.bankcards.dto.DashboardDTO;
+import com.example.bankcards.dto.TransactionDTO;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.example.bankcards.testConstants.TransactionTestConstants.TRANSACTION_ID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Dashboard Service tests")
+class DashboardServiceTests {
+    @Mock
+    private CardService cardService;
+    @Mock
+    private TransactionService transactionService;
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = new DashboardService(cardService, transactionService, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Главный экран содержит карты, итоги по валютам активных карт и последние транзакции")
+    void getDashboardTest() {
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setTransactionId(TRANSACTION_ID);
+        List<CardDTO> cards = List.of(
+                card(1L, Currency.RUB, "100.00", true),
+                card(2L, Currency.RUB, "50.50", true),
+                card(3L, Currency.USD, "10.00", true),
+                card(4L, Currency.RUB, "1000.00", false));
+        when(cardService.getUserCards(1L)).thenReturn(cards);
+        when(transactionService.getRecentUserTransactions(1L, 5)).thenReturn(List.of(transaction));
+        DashboardDTO dashboard = dashboardService.getDashboard(1L, 5);
+        assertEquals(cards, dashboard.getCards());
+        assertEquals(List.of(
+                new DashboardDTO.CurrencyTotal(Currency.USD, new BigDecimal("10.00"), 1),
+                new DashboardDTO.CurrencyTotal(Currency.RUB, new BigDecimal("150.50"), 2)), dashboard.getTotals());
+        assertEquals(List.of(transaction), dashboard.getRecentTransactions());
+    }
+
+    @Test
+    @DisplayName("Число последних транзакций ограничено сверху")
+    void getDashboardLimitsTransactionsTest() {
+        when(cardService.getUserCards(1L)).thenReturn(List.of());
+        when(transactionService.getRecentUserTransactions(1L, DashboardService.MAX_RECENT_TRANSACTIONS))
+                .thenReturn(List.of());
+        DashboardDTO dashboard = dashboardService.getDashboard(1L, 1000);
+        assertTrue(dashboard.getTotals().isEmpty());
+        verify(transactionService).getRecentUserTransactions(1L, DashboardService.MAX_RECENT_TRANSACTIONS);
+    }
+
+    @Test
+    @DisplayName("Ошибка параллельного запроса пробрасывается без обертки")
+    void getDashboardPropagatesErrorTest() {
+        when(cardService.getUserCards(1L)).thenReturn(List.of());
+        when(transactionService.getRecentUserTransactions(1L, 10))
+                .thenThrow(new ResourceNotFoundException("User", "id", "1"));
+        assertThrows(ResourceNotFoundException.class, () -> dashboardService.getDashboard(1L, 10));
+    }
+
+    private CardDTO card(Long id, Currency currency, String balance, boolean active) {
+        CardDTO card = new CardDTO();
+        card.setId(id);
+        card.setCurrency(currency);
+        card.setBalance(new BigDecimal(balance));
+        card.setActive(active);
+        return card;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.exception.ValidationException;
+import com.example.bankcards.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+
+import static com.example.bankcards.testConstants.TransactionTestConstants.FX_RATES_LOCATION;
+import static globalConstants.MessageConstants.AMOUNT_TOO_LARGE_MESSAGE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FX Rate Service tests")
+class FxRateServiceTests {
+    private FxRateService fxRateService;
+
+    @BeforeEach
+    void setUp() {
+        fxRateService = new FxRateService(new DefaultResourceLoader(), FX_RATES_LOCATION);
+    }
+
+    @Test
+    @DisplayName("Конвертация в ту же валюту возвращает исходную сумму")
+    void convertSameCurrencyTest() {
+        Money amount = Money.of(new BigDecimal("100.00"));
+        assertSame(amount, fxRateService.convert(amount, Currency.RUB, Currency.RUB));
+        assertEquals(BigDecimal.ONE.setScale(Money.RATE_SCALE), fxRateService.getRate(Currency.RUB, Currency.RUB));
+    }
+
+    @Test
+    @DisplayName("Конвертация USD -> RUB выполняется по курсу из таблицы")
+    void convertUsdToRubTest() {
+        Money converted = fxRateService.convert(Money.of(new BigDecimal("100.00")), Currency.USD, Currency.RUB);
+        assertEquals(new BigDecimal("9250.00"), converted.toBigDecimal());
+        assertEquals(new BigDecimal("92.50000000"), fxRateService.getRate(Currency.USD, Currency.RUB));
+    }
+
+    @Test
+    @DisplayName("Конвертация в минимальных единицах округляется по HALF_UP")
+    void convertRoundsHalfUpTest() {
+        // 100.00 RUB * 0.01081081 = 1.081081 USD -> 1.08
+        assertEquals(108L, fxRateService.convert(Money.ofMinor(10_000L), Currency.RUB, Currency.USD).getMinorUnits());
+        // 50.00 RUB * 0.01081081 = 0.5405405 USD -> 0.54
+        assertEquals(54L, fxRateService.convert(Money.ofMinor(5_000L), Currency.RUB, Currency.USD).getMinorUnits());
+        // 0.01 USD * 92.5 = 0.925 RUB -> 0.93
+        assertEquals(93L, fxRateService.convert(Money.ofMinor(1L), Currency.USD, Currency.RUB).getMinorUnits());
+    }
+
+    @Test
+    @DisplayName("Конвертация возвращает сумму вместе с курсом, по которому она посчитана")
+    void exchangeReturnsAppliedRateTest() {
+        FxRateService.Conversion conversion = fxRateService.exchange(Money.of(new BigDecimal("100.00")),
+                Currency.USD, Currency.RUB);
+        assertEquals(new BigDecimal("9250.00"), conversion.amount().toBigDecimal());
+        assertEquals(new BigDecimal("92.50000000"), conversion.rate());
+    }
+
+    @Test
+    @DisplayName("Крупная сумма конвертируется без переполнения промежуточного произведения")
+    void convertLargeAmountTest() {
+        // 1 000 000 000.00 USD * 92.5: произведение в минимальных единицах на курс не помещается в long
+        Money converted = fxRateService.convert(Money.ofMinor(100_000_000_000L), Currency.USD, Currency.RUB);
+        assertEquals(9_250_000_000_000L, converted.getMinorUnits());
+    }
+
+    @Test
+    @DisplayName("Сумма, которая после конвертации не помещается в long, отклоняется как ошибка валидации")
+    void convertOverflowIsValidationErrorTest() {
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> fxRateService.convert(Money.ofMinor(Long.MAX_VALUE / 10), Currency.USD, Currency.RUB));
+        assertEquals(AMOUNT_TOO_LARGE_MESSAGE, exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Без файла курсов доступна только конвертация в ту же валюту")
+    void missingRatesFileTest() {
+        FxRateService emptyService = new FxRateService(new DefaultResourceLoader(), "classpath:fx/missing.properties");
+        assertFalse(emptyService.hasRate(Currency.USD, Currency.RUB));
+        assertTrue(emptyService.hasRate(Currency.RUB, Currency.RUB));
+        assertThrows(ValidationException.class,
+                () -> emptyService.convert(Money.ofMinor(1_000L), Currency.USD, Currency.RUB));
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.ReplicaLagMonitor;
+import com.example.bankcards.dto.StatementFormat;
+import com.example.bankcards.entity.*;
+import com.example.bankcards.exception.TooManyRequestsException;
+import com.example.bankcards.repository.TransactionHistoryRepository;
+import com.example.bankcards.util.DataEncryptor;
+import com.example.bankcards.util.DataMasker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static com.example.bankcards.testConstants.MessageTestConstants.TEST_TRANSFER_DESCRIPTION;
+import static globalConstants.MessageConstants.STATEMENT_EXPORT_BUSY_MESSAGE;
+import static globalConstants.MessageConstants.STATEMENT_EXPORT_REPLICA_UNAVAILABLE_MESSAGE;
+import static com.example.bankcards.testConstants.TransactionTestConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Statement Export Service tests")
+class StatementExportServiceTests {
+    @Mock
+    private TransactionHistoryRepository transactionHistoryRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private ReplicaLagMonitor replicaLagMonitor;
+    private final DataMasker dataMasker = new DataMasker();
+    private DataEncryptor dataEncryptor;
+    private StatementExportService statementExportService;
+    private Transaction transfer;
+    private Transaction deposit;
+
+    @BeforeEach
+    void setUp() {
+        dataEncryptor = new DataEncryptor(ENCRYPTION_TEST_KEY);
+        statementExportService = newService(null);
+
+        User owner = User.builder().id(1L).build();
+        User receiver = User.builder().id(2L).build();
+        Card fromCard = new Card();
+        fromCard.setId(1L);
+        fromCard.setUser(owner);
+        fromCard.setCardNumber(dataEncryptor.encrypt(TEST_FROM_CARD_NUMBER));
+        Card toCard = new Card();
+        toCard.setId(2L);
+        toCard.setUser(receiver);
+        toCard.setCardNumber(dataEncryptor.encrypt(TEST_TO_CARD_NUMBER));
+
+        transfer = new Transaction();
+        transfer.setTransactionId(TRANSACTION_ID);
+        transfer.setAmount(new BigDecimal("100.00"));
+        transfer.setCommission(new BigDecimal("1.00"));
+        transfer.setConvertedAmount(new BigDecimal("100.00"));
+        transfer.setExchangeRate(new BigDecimal("1.00000000"));
+        transfer.setType(TransactionType.TRANSFER);
+        transfer.setStatus(TransactionStatus.COMPLETED);
+        transfer.setDescription(TEST_TRANSFER_DESCRIPTION);
+        transfer.setCreatedAt(LocalDateTime.of(2024, 1, 15, 10, 30));
+        transfer.setFromCard(fromCard);
+        transfer.setToCard(toCard);
+
+        deposit = new Transaction();
+        deposit.setTransactionId(ANOTHER_TRANSACTION_ID);
+        deposit.setAmount(new BigDecimal("50.00"));
+        deposit.setCommission(BigDecimal.ZERO);
+        deposit.setType(TransactionType.DEPOSIT);
+        deposit.setStatus(TransactionStatus.COMPLETED);
+        deposit.setDescription("Пополнение, \"касса\"");
+        deposit.setCreatedAt(LocalDateTime.of(2024, 1, 16, 9, 0));
+        deposit.setToCard(fromCard);
+    }
+
+    @Test
+    @DisplayName("Выписка в CSV содержит заголовок, маскированные карты и экранированные поля")
+    void exportCsvTest() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(transactionHistoryRepository.streamUserStatement(1L))
+                .thenReturn(Stream.of(transfer, deposit).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long rows = statementExportService.exportUserStatement(1L, StatementFormat.CSV, outputStream);
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("transactionId,createdAt,direction"));
+        String maskedFromCard = dataMasker.maskCardNumber(TEST_FROM_CARD_NUMBER);
+        String maskedToCard = dataMasker.maskCardNumber(TEST_TO_CARD_NUMBER);
+        assertEquals(TRANSACTION_ID + ",2024-01-15T10:30,OUT,TRANSFER,COMPLETED,100.00,1.00,100.00,1.00000000,"
+                + maskedFromCard + "," + maskedToCard + "," + TEST_TRANSFER_DESCRIPTION, lines[1]);
+        assertEquals(ANOTHER_TRANSACTION_ID + ",2024-01-16T09:00,IN,DEPOSIT,COMPLETED,50.00,0,,,,"
+                + maskedFromCard + ",\"Пополнение, \"\"касса\"\"\"", lines[2]);
+        assertTrue(closed.get());
+        verify(entityManager).detach(transfer);
+        verify(entityManager).detach(deposit);
+    }
+
+    @Test
+    @DisplayName("Выписка в NDJSON содержит по одному JSON-объекту на строку")
+    void exportNdjsonTest() throws Exception {
+        when(transactionHistoryRepository.streamUserStatement(1L)).thenReturn(Stream.of(transfer, deposit));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        statementExportService.exportUserStatement(1L, StatementFormat.NDJSON, outputStream);
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(TRANSACTION_ID, objectMapper.readTree(lines[0]).get("transactionId").asText());
+        assertEquals("OUT", objectMapper.readTree(lines[0]).get("direction").asText());
+        assertEquals("IN", objectMapper.readTree(lines[1]).get("direction").asText());
+        assertTrue(objectMapper.readTree(lines[1]).get("fromCard").isNull());
+    }
+
+    @Test
+    @DisplayName("Сверх лимита одновременных выгрузок запрос отклоняется, закрытое разрешение освобождает слот")
+    void exportPermitLimitTest() {
+        StatementExportService.ExportPermit first = statementExportService.acquireExportPermit();
+        StatementExportService.ExportPermit second = statementExportService.acquireExportPermit();
+        assertEquals(2, statementExportService.getActiveExports());
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> statementExportService.acquireExportPermit());
+        assertEquals(STATEMENT_EXPORT_BUSY_MESSAGE, exception.getMessage());
+
+        first.close();
+        first.close();
+        assertEquals(1, statementExportService.getActiveExports());
+        statementExportService.acquireExportPermit().close();
+        second.close();
+        assertEquals(0, statementExportService.getActiveExports());
+    }
+
+    @Test
+    @DisplayName("При недоступной реплике выгрузка отклоняется, а не уходит в основной пул")
+    void exportRejectedWhenReplicaUnusableTest() {
+        StatementExportService replicaBacked = newService(replicaLagMonitor);
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(false);
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                replicaBacked::acquireExportPermit);
+        assertEquals(STATEMENT_EXPORT_REPLICA_UNAVAILABLE_MESSAGE, exception.getMessage());
+        assertEquals(0, replicaBacked.getActiveExports());
+
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(true);
+        replicaBacked.acquireExportPermit().close();
+    }
+
+    @Test
+    @DisplayName("Слот выгрузки возвращается, если исполнитель отклонил асинхронную задачу")
+    void exportPermitReleasedWhenTaskRejectedTest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        WebAsyncManager asyncManager = asyncManager(request, new TaskExecutorAdapter(task -> {
+            throw new RejectedExecutionException("Очередь исполнителя заполнена");
+        }));
+        StatementExportService.ExportPermit permit = statementExportService.acquireExportPermit();
+        asyncManager.registerCallableInterceptor(permit, permit);
+        asyncManager.startCallableProcessing(() -> fail("Отклоненная задача не должна выполняться"));
+        assertEquals(1, statementExportService.getActiveExports());
+
+        request.getAsyncContext().complete();
+        assertEquals(0, statementExportService.getActiveExports());
+    }
+
+    @Test
+    @DisplayName("Слот выгрузки возвращается по таймауту, если тело ответа так и не запустилось")
+    void exportPermitReleasedOnTimeoutTest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        WebAsyncManager asyncManager = asyncManager(request, new TaskExecutorAdapter(task -> {
+        }));
+        StatementExportService.ExportPermit permit = statementExportService.acquireExportPermit();
+        asyncManager.registerCallableInterceptor(permit, permit);
+        asyncManager.startCallableProcessing(() -> fail("Задача не должна была запуститься"));
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        asyncContext.complete();
+        assertEquals(0, statementExportService.getActiveExports());
+        statementExportService.acquireExportPermit().close();
+    }
+
+    private WebAsyncManager asyncManager(MockHttpServletRequest request, AsyncTaskExecutor executor) {
+        request.setAsyncSupported(true);
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+        asyncManager.setTaskExecutor(executor);
+        return asyncManager;
+    }
+
+    @SuppressWarnings("unchecked")
+    private StatementExportService newService(ReplicaLagMonitor monitor) {
+        ObjectProvider<ReplicaLagMonitor> monitorProvider = mock(ObjectProvider.class);
+        when(monitorProvider.getIfAvailable()).thenReturn(monitor);
+        return new StatementExportService(transactionHistoryRepository, entityManager, dataEncryptor, dataMasker,
+                new ObjectMapper().findAndRegisterModules(), monitorProvider, new SimpleMeterRegistry(), 2);
+    }
+}
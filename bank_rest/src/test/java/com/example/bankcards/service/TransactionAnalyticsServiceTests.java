@@ -0,0 +1,65 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransactionRollupDTO;
+import com.example.bankcards.entity.*;
+import com.example.bankcards.exception.ValidationException;
+import com.example.bankcards.repository.TransactionRollupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static globalConstants.MessageConstants.ANALYTICS_INVALID_PERIOD_MESSAGE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Analytics Service tests")
+class TransactionAnalyticsServiceTests {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 15);
+
+    @Mock
+    private TransactionRollupRepository rollupRepository;
+    @InjectMocks
+    private TransactionAnalyticsService analyticsService;
+
+    @Test
+    @DisplayName("Сводка содержит долю отказов и отфильтрована по валюте")
+    void getDailyRollupsTest() {
+        when(rollupRepository.findByBucketDateBetween(DAY, DAY)).thenReturn(List.of(
+                rollup(Currency.RUB, 3, 1),
+                rollup(Currency.USD, 5, 0)));
+        List<TransactionRollupDTO> result = analyticsService.getDailyRollups(DAY, DAY, Currency.RUB, null);
+        assertEquals(1, result.size());
+        TransactionRollupDTO dto = result.get(0);
+        assertEquals(DAY, dto.getDate());
+        assertEquals(3L, dto.getCompletedCount());
+        assertEquals(1L, dto.getFailedCount());
+        assertEquals(new BigDecimal("0.2500"), dto.getFailureRate());
+        assertEquals(new BigDecimal("300.00"), dto.getVolume());
+    }
+
+    @Test
+    @DisplayName("Начало периода позже конца отклоняется без обращения к БД")
+    void invalidPeriodTest() {
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> analyticsService.getDailyRollups(DAY, DAY.minusDays(1), null, null));
+        assertEquals(ANALYTICS_INVALID_PERIOD_MESSAGE, exception.getMessage());
+        assertThrows(ValidationException.class, () -> analyticsService.getDailyRollups(
+                DAY.minusDays(TransactionAnalyticsService.MAX_PERIOD_DAYS), DAY, null, null));
+        verifyNoInteractions(rollupRepository);
+    }
+
+    private TransactionRollup rollup(Currency currency, long completed, long failed) {
+        return new TransactionRollup(new TransactionRollupKey(DAY, currency, CardType.DEBIT, TransactionType.TRANSFER),
+                completed, failed, BigDecimal.valueOf(completed * 100).setScale(2), BigDecimal.ONE,
+                LocalDateTime.now());
+    }
+}
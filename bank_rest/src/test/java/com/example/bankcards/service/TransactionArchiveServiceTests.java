@@ -0,0 +1,67 @@
+package com.example.bankcards.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Archive Service tests")
+class TransactionArchiveServiceTests {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private TransactionArchiveService transactionArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        transactionArchiveService = new TransactionArchiveService(jdbcTemplate, transactionManager, 12, 3);
+    }
+
+    @Test
+    @DisplayName("В архив переносятся только секции старше горячего периода")
+    void archiveColdPartitionsTest() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "transactions_y2023m05", "transactions_y2023m06", "transactions_y2024m06", "transactions_default"));
+        when(jdbcTemplate.update(anyString())).thenReturn(10);
+        int archived = transactionArchiveService.archiveColdPartitions(YearMonth.of(2024, 6));
+        assertEquals(1, archived);
+        verify(jdbcTemplate).update(contains("FROM transactions_y2023m05"));
+        verify(jdbcTemplate).execute("ALTER TABLE transactions DETACH PARTITION transactions_y2023m05");
+        verify(jdbcTemplate).execute("DROP TABLE transactions_y2023m05");
+        verify(jdbcTemplate, never()).execute(contains("transactions_y2023m06"));
+        verify(jdbcTemplate, never()).execute(contains("transactions_default"));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Секции создаются на текущий и следующие месяцы")
+    void createUpcomingPartitionsTest() {
+        transactionArchiveService.createUpcomingPartitions(YearMonth.of(2024, 11));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), eq("2024-11-01"));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), eq("2025-02-01"));
+        verify(jdbcTemplate, times(4)).queryForObject(anyString(), eq(String.class), anyString());
+    }
+
+    @Test
+    @DisplayName("Строки из секции по умолчанию раскладываются по секциям своих месяцев")
+    void drainDefaultPartitionTest() {
+        when(jdbcTemplate.queryForList(contains("FROM transactions_default"), eq(String.class)))
+                .thenReturn(List.of("2022-01-01", "2030-07-01"));
+        assertEquals(2, transactionArchiveService.drainDefaultPartition());
+        verify(jdbcTemplate).queryForObject(contains("create_transactions_partition"), eq(String.class), eq("2022-01-01"));
+        verify(jdbcTemplate).queryForObject(contains("create_transactions_partition"), eq(String.class), eq("2030-07-01"));
+    }
+}
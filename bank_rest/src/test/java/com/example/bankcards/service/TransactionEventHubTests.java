@@ -0,0 +1,93 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.dto.TransactionDTO;
+import com.example.bankcards.entity.CardType;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.event.TransactionCompletedEvent;
+import com.example.bankcards.exception.TooManyRequestsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static com.example.bankcards.testConstants.TransactionTestConstants.TRANSACTION_ID;
+import static globalConstants.MessageConstants.TRANSACTION_STREAM_LIMIT_MESSAGE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Event Hub tests")
+class TransactionEventHubTests {
+    @Mock
+    private ExecutorService dispatcher;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TransactionEventHub transactionEventHub;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+        transactionEventHub = new TransactionEventHub(objectMapper, meterRegistry, 2, 1, 60000, dispatcher);
+    }
+
+    @Test
+    @DisplayName("Число одновременных подписок пользователя ограничено")
+    void subscribeOverLimitTest() {
+        transactionEventHub.subscribe(1L);
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> transactionEventHub.subscribe(1L));
+        assertEquals(TRANSACTION_STREAM_LIMIT_MESSAGE, exception.getMessage());
+        assertNotNull(transactionEventHub.subscribe(2L));
+        assertEquals(2.0, meterRegistry.get("transactions.stream.subscribers").gauge().value());
+    }
+
+    @Test
+    @DisplayName("При переполнении буфера подписчика вытесняются самые старые события")
+    void dropOldestWhenBufferIsFullTest() {
+        transactionEventHub.subscribe(1L);
+        for (int i = 0; i < 3; i++) {
+            transactionEventHub.onTransactionCompleted(new TransactionCompletedEvent(transaction(1L, null), List.of()));
+        }
+        ArgumentCaptor<Runnable> drainCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(dispatcher).execute(drainCaptor.capture());
+        assertEquals(1.0, meterRegistry.get("transactions.stream.dropped").counter().count());
+        drainCaptor.getValue().run();
+        assertEquals(2.0, meterRegistry.get("transactions.stream.delivered").counter().count());
+    }
+
+    @Test
+    @DisplayName("События получают только участники транзакции и владельцы карт")
+    void publishOnlyToParticipantsTest() {
+        transactionEventHub.subscribe(3L);
+        TransactionCompletedEvent.BalanceChange balance =
+                new TransactionCompletedEvent.BalanceChange(1L, 1L, new BigDecimal("900.00"), Currency.RUB,
+                        CardType.DEBIT);
+        transactionEventHub.onTransactionCompleted(new TransactionCompletedEvent(transaction(1L, 2L),
+                List.of(balance)));
+        verify(dispatcher, never()).execute(any());
+        transactionEventHub.subscribe(2L);
+        transactionEventHub.onTransactionCompleted(new TransactionCompletedEvent(transaction(1L, 2L),
+                List.of(balance)));
+        verify(dispatcher, times(1)).execute(any());
+    }
+
+    private TransactionDTO transaction(Long fromUserId, Long toUserId) {
+        TransactionDTO transaction = new TransactionDTO();
+        transaction.setTransactionId(TRANSACTION_ID);
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setFromUserId(fromUserId);
+        transaction.setToUserId(toUserId);
+        return transaction;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.CardType;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.entity.TransactionType;
+import com.example.bankcards.event.TransactionFailedEvent;
+import com.example.bankcards.outbox.OutboxWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Failure Recorder tests")
+class TransactionFailureRecorderTests {
+    @Mock
+    private OutboxWriter outboxWriter;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private final List<Runnable> submitted = new ArrayList<>();
+    private TransactionFailureRecorder transactionFailureRecorder;
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        transactionFailureRecorder = new TransactionFailureRecorder(outboxWriter, transactionManager, submitted::add);
+        card = new Card();
+        card.setId(7L);
+        card.setCurrency(Currency.RUB);
+        card.setCardType(CardType.DEBIT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Внутри транзакции операции отказ записывается только после ее завершения и в другом потоке")
+    void recordAfterRollbackTest() {
+        TransactionSynchronizationManager.initSynchronization();
+        transactionFailureRecorder.record(TransactionType.TRANSFER, card, new BigDecimal("100.00"),
+                new IllegalStateException());
+        verifyNoInteractions(outboxWriter, transactionManager);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verifyNoInteractions(outboxWriter);
+
+        submitted.forEach(Runnable::run);
+        verify(outboxWriter).append(eq(TransactionFailedEvent.AGGREGATE_TYPE), eq("7"),
+                eq(TransactionFailedEvent.EVENT_TYPE), any(TransactionFailedEvent.class));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Ошибка записи отказа не выходит за пределы задачи")
+    void appendFailureIsSwallowedTest() {
+        doThrow(new IllegalStateException("outbox недоступен")).when(outboxWriter).append(any(), any(), any(), any());
+        transactionFailureRecorder.record(TransactionType.DEPOSIT, card, BigDecimal.TEN, new IllegalStateException());
+        submitted.forEach(Runnable::run);
+        verify(transactionManager).rollback(any());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.entity.Transaction;
+import com.example.bankcards.repository.TransactionArchiveRepository;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Секционирование transactions (005, 015) проверяется на PostgreSQL: H2 не поддерживает
+ * секции, триггеры на PL/pgSQL и перенос строк из секции по умолчанию. Без Docker тесты пропускаются.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Transaction partitioning tests")
+class TransactionPartitioningTests {
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionArchiveService transactionArchiveService;
+    private static TransactionArchiveRepository transactionArchiveRepository;
+    private static long userId;
+    private static long cardId;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(),
+                POSTGRES.getUsername(), POSTGRES.getPassword());
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.xml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionArchiveService = new TransactionArchiveService(jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), 12, 1);
+        transactionArchiveRepository = new TransactionArchiveRepository(jdbcTemplate, true);
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password, first_name, last_name) " +
+                "VALUES ('partition_user', 'partition@example.com', 'x', 'Иван', 'Иванов') RETURNING id", Long.class);
+        cardId = jdbcTemplate.queryForObject("INSERT INTO cards (card_number, card_holder_name, expiry_date, " +
+                        "card_type, currency, user_id) VALUES ('encrypted', 'IVAN IVANOV', ?, 'DEBIT', 'RUB', ?) RETURNING id",
+                Long.class, LocalDate.now().plusYears(3), userId);
+    }
+
+    @Test
+    @DisplayName("Номер транзакции уникален во всех секциях, а не только в пределах created_at")
+    void transactionIdIsGloballyUniqueTest() {
+        LocalDateTime now = LocalDateTime.now();
+        insertTransaction("TXN-UNIQUE-1", now);
+        assertThrows(DataIntegrityViolationException.class, () -> insertTransaction("TXN-UNIQUE-1", now.plusMonths(1)));
+        assertEquals(1, countTransactions("TXN-UNIQUE-1"));
+    }
+
+    @Test
+    @DisplayName("Строки из секции по умолчанию переносятся при создании секции их месяца")
+    void defaultPartitionIsDrainedBeforePartitionCreationTest() {
+        insertTransaction("TXN-DEFAULT-1", LocalDateTime.of(2001, 5, 10, 12, 0));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions_default WHERE transaction_id = 'TXN-DEFAULT-1'", Integer.class));
+        assertTrue(transactionArchiveService.drainDefaultPartition() >= 1);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transactions_default WHERE transaction_id = 'TXN-DEFAULT-1'", Integer.class));
+        assertEquals(1, countTransactions("TXN-DEFAULT-1"));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction_ids WHERE transaction_id = 'TXN-DEFAULT-1'", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Старые секции уходят в архив, история читается из архива, номера остаются занятыми")
+    void coldPartitionsAreArchivedTest() {
+        insertTransaction("TXN-ARCHIVE-1", LocalDateTime.of(2002, 3, 15, 9, 30));
+        transactionArchiveService.drainDefaultPartition();
+        assertTrue(transactionArchiveService.archiveColdPartitions(YearMonth.now()) >= 1);
+        assertEquals(0, countTransactions("TXN-ARCHIVE-1"));
+
+        List<Transaction> archived = transactionArchiveRepository.findUserTransactions(userId, 100);
+        Transaction transaction = archived.stream()
+                .filter(t -> t.getTransactionId().equals("TXN-ARCHIVE-1"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(cardId, transaction.getFromCard().getId());
+        assertEquals(userId, transaction.getFromCard().getUser().getId());
+        assertEquals(transaction.getId(), transactionArchiveRepository.findById(transaction.getId())
+                .orElseThrow().getId());
+        assertEquals(transaction.getId(), transactionArchiveRepository.findByTransactionId("TXN-ARCHIVE-1")
+                .orElseThrow().getId());
+        try (Stream<Transaction> statement = transactionArchiveRepository.streamUserTransactions(userId)) {
+            assertTrue(statement.anyMatch(t -> t.getTransactionId().equals("TXN-ARCHIVE-1")));
+        }
+        assertThrows(DataIntegrityViolationException.class,
+                () -> insertTransaction("TXN-ARCHIVE-1", LocalDateTime.now()));
+    }
+
+    private void insertTransaction(String transactionId, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO transactions (transaction_id, amount, type, status, created_at, from_card_id) " +
+                "VALUES (?, 100.00, 'DEPOSIT', 'COMPLETED', ?, ?)", transactionId, createdAt, cardId);
+    }
+
+    private int countTransactions(String transactionId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE transaction_id = ?",
+                Integer.class, transactionId);
+    }
+}
@@ -5,18 +5,24 @@ import com.example.bankcards.dto.OwnCardsTransferRequest;
 import com.example.bankcards.dto.TransactionDTO;
 import com.example.bankcards.dto.TransactionRequest;
 import com.example.bankcards.entity.*;
+import com.example.bankcards.event.TransactionCompletedEvent;
 import com.example.bankcards.exception.*;
+import com.example.bankcards.outbox.OutboxWriter;
 import com.example.bankcards.repository.CardRepository;
+import com.example.bankcards.repository.TransactionHistoryRepository;
 import com.example.bankcards.repository.TransactionRepository;
 import com.example.bankcards.util.DataMasker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -42,6 +48,18 @@ class TransactionServiceTests {
     private CardRepository cardRepository;
     @Mock
     private DataMasker dataMasker;
+    @Spy
+    private FxRateService fxRateService = new FxRateService(new DefaultResourceLoader(), FX_RATES_LOCATION);
+    @Mock
+    private TransferLimitService transferLimitService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private OutboxWriter outboxWriter;
+    @Mock
+    private TransactionFailureRecorder transactionFailureRecorder;
+    @Mock
+    private TransactionHistoryRepository transactionHistoryRepository;
     @InjectMocks
     private TransactionService transactionService;
     private User testUser;
@@ -128,7 +146,7 @@ class TransactionServiceTests {
         testTransaction.setFromCard(fromCard);
         testTransaction.setToCard(toCard);
         testTransaction.setCreatedAt(LocalDateTime.now());
-        ReflectionTestUtils.setField(transactionService, "commissionRate", new BigDecimal("0.01"));
+        transactionService.setCommissionRate(new BigDecimal("0.01"));
     }
 
     @Test
@@ -152,6 +170,16 @@ class TransactionServiceTests {
         verify(cardRepository).findById(1L);
         verify(cardRepository).findByCardNumber(TEST_TO_CARD_NUMBER);
         verify(transactionRepository).save(any(Transaction.class));
+        ArgumentCaptor<TransactionCompletedEvent> eventCaptor = ArgumentCaptor.forClass(TransactionCompletedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        TransactionCompletedEvent event = eventCaptor.getValue();
+        assertSame(result, event.transaction());
+        assertEquals(2, event.balances().size());
+        assertEquals(new TransactionCompletedEvent.BalanceChange(testUser.getId(), fromCard.getId(),
+                fromCard.getBalance(), fromCard.getCurrency(), fromCard.getCardType()), event.balances().get(0));
+        assertEquals(toUser.getId(), event.balances().get(1).userId());
+        verify(outboxWriter).append(TransactionCompletedEvent.AGGREGATE_TYPE, TRANSACTION_ID,
+                TransactionCompletedEvent.EVENT_TYPE, event);
     }
 
     @Test
@@ -193,6 +221,21 @@ class TransactionServiceTests {
         assertTrue(exception.getMessage().contains(INSUFFICIENT_FUNDS_MESSAGE));
         verify(cardRepository).findById(1L);
         verify(cardRepository).findByCardNumber(TEST_TO_CARD_NUMBER);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verifyNoInteractions(outboxWriter);
+        verify(transactionFailureRecorder).record(TransactionType.TRANSFER, fromCard,
+                new BigDecimal("5000.00"), exception);
+    }
+
+    @Test
+    @DisplayName("Ошибка записи отказа не подменяет исключение операции")
+    void transferFailureRecorderErrorTest() {
+        transactionRequest.setAmount(new BigDecimal("5000.00"));
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findByCardNumber(TEST_TO_CARD_NUMBER)).thenReturn(Optional.of(toCard));
+        doThrow(new IllegalStateException("outbox недоступен")).when(transactionFailureRecorder)
+                .record(any(), any(), any(), any());
+        assertThrows(InsufficientFundsException.class, () -> transactionService.transferMoney(transactionRequest));
     }
 
     @Test
@@ -250,52 +293,80 @@ class TransactionServiceTests {
     }
 
     @Test
-    @DisplayName("Получение транзакций пользователя возвращает список")
+    @DisplayName("История пользователя ограничена history-limit и читается через историю с архивом")
     void getUserTransactionsTest() {
-        when(transactionRepository.findAllUserTransactions(1L)).thenReturn(Arrays.asList(testTransaction));
+        transactionService.setHistoryLimit(50);
+        when(transactionHistoryRepository.findUserTransactions(1L, 50)).thenReturn(Arrays.asList(testTransaction));
         when(dataMasker.maskCardNumber(TEST_FROM_CARD_NUMBER)).thenReturn(UserTestConstants.CARD_NUMBER_MASKED);
         when(dataMasker.maskCardNumber(TEST_TO_CARD_NUMBER)).thenReturn(UserTestConstants.CARD_NUMBER_MASKED);
         List<TransactionDTO> result = transactionService.getUserTransactions(1L);
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(TransactionTestConstants.TRANSACTION_ID, result.get(0).getTransactionId());
-        verify(transactionRepository).findAllUserTransactions(1L);
+        verify(transactionHistoryRepository).findUserTransactions(1L, 50);
+    }
+
+    @Test
+    @DisplayName("Последние транзакции пользователя запрашиваются с ограничением количества")
+    void getRecentUserTransactionsTest() {
+        when(transactionHistoryRepository.findUserTransactions(1L, 5)).thenReturn(List.of(testTransaction));
+        when(dataMasker.maskCardNumber(TEST_FROM_CARD_NUMBER)).thenReturn(UserTestConstants.CARD_NUMBER_MASKED);
+        when(dataMasker.maskCardNumber(TEST_TO_CARD_NUMBER)).thenReturn(UserTestConstants.CARD_NUMBER_MASKED);
+        List<TransactionDTO> result = transactionService.getRecentUserTransactions(1L, 5);
+        assertEquals(1, result.size());
+        assertEquals(TransactionTestConstants.TRANSACTION_ID, result.get(0).getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Архивная транзакция находится по transactionId")
+    void getArchivedTransactionByTransactionIdTest() {
+        Transaction archived = new Transaction();
+        archived.setId(2L);
+        archived.setTransactionId("TXN202001ARCHIVED");
+        archived.setAmount(new BigDecimal("10.00"));
+        archived.setType(TransactionType.DEPOSIT);
+        archived.setStatus(TransactionStatus.COMPLETED);
+        archived.setCreatedAt(LocalDateTime.of(2020, 1, 15, 10, 0));
+        when(transactionHistoryRepository.findByTransactionId("TXN202001ARCHIVED")).thenReturn(Optional.of(archived));
+        TransactionDTO result = transactionService.getTransactionByTransactionId("TXN202001ARCHIVED");
+        assertEquals(2L, result.getId());
+        verify(transactionRepository, never()).findByTransactionIdInPartition(anyString());
     }
 
     @Test
     @DisplayName("Получение транзакции по ID возвращает TransactionDTO")
     void getTransactionByIdWithValidIdTest() {
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(testTransaction));
+        when(transactionHistoryRepository.findById(1L)).thenReturn(Optional.of(testTransaction));
         when(dataMasker.maskCardNumber(TEST_FROM_CARD_NUMBER)).thenReturn(UserTestConstants.CARD_NUMBER_MASKED);
         when(dataMasker.maskCardNumber(TEST_TO_CARD_NUMBER)).thenReturn(UserTestConstants.CARD_NUMBER_MASKED);
         TransactionDTO result = transactionService.getTransactionById(1L);
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals(TransactionTestConstants.TRANSACTION_ID, result.getTransactionId());
-        verify(transactionRepository).findById(1L);
+        verify(transactionHistoryRepository).findById(1L);
     }
 
     @Test
     @DisplayName("Получение несуществующей транзакции по ID выбрасывает исключение")
     void getTransactionByIdWithInvalidIdTest() {
-        when(transactionRepository.findById(999L)).thenReturn(Optional.empty());
+        when(transactionHistoryRepository.findById(999L)).thenReturn(Optional.empty());
         TransactionNotFoundException exception = assertThrows(TransactionNotFoundException.class,
                 () -> transactionService.getTransactionById(999L));
         assertTrue(exception.getMessage().contains("999"));
-        verify(transactionRepository).findById(999L);
+        verify(transactionHistoryRepository).findById(999L);
     }
 
     @Test
     @DisplayName("Получение транзакции по transactionId возвращает TransactionDTO")
     void getTransactionByTransactionIdWithValidIdTest() {
-        when(transactionRepository.findByTransactionId(TransactionTestConstants.TRANSACTION_ID)).
+        when(transactionHistoryRepository.findByTransactionId(TransactionTestConstants.TRANSACTION_ID)).
                 thenReturn(Optional.of(testTransaction));
         when(dataMasker.maskCardNumber(TEST_FROM_CARD_NUMBER)).thenReturn(UserTestConstants.CARD_NUMBER_MASKED);
         when(dataMasker.maskCardNumber(TEST_TO_CARD_NUMBER)).thenReturn(UserTestConstants.CARD_NUMBER_MASKED);
         TransactionDTO result = transactionService.getTransactionByTransactionId(TransactionTestConstants.TRANSACTION_ID);
         assertNotNull(result);
         assertEquals(TransactionTestConstants.TRANSACTION_ID, result.getTransactionId());
-        verify(transactionRepository).findByTransactionId(TransactionTestConstants.TRANSACTION_ID);
+        verify(transactionHistoryRepository).findByTransactionId(TransactionTestConstants.TRANSACTION_ID);
     }
 
     @Test
@@ -388,6 +459,7 @@ class TransactionServiceTests {
         Card creditCardLowLimit = new Card();
         creditCardLowLimit.setId(4L);
         creditCardLowLimit.setCardType(CardType.CREDIT);
+        creditCardLowLimit.setCurrency(Currency.RUB);
         creditCardLowLimit.setCreditLimit(new BigDecimal("1000.00"));
         creditCardLowLimit.setBalance(new BigDecimal("-900.00"));
         creditCardLowLimit.setActive(true);
@@ -424,4 +496,49 @@ class TransactionServiceTests {
                 () -> transactionService.transferMoney(transactionRequest));
         assertTrue(exception.getMessage().contains(CANNOT_TRANSFER_TO_SAME_CARD_MESSAGE));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Перевод на карту в другой валюте зачисляет сконвертированную сумму")
+    void transferMoneyToCardInAnotherCurrencyTest() {
+        toCard.setCurrency(Currency.USD);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findByCardNumber(TEST_TO_CARD_NUMBER)).thenReturn(Optional.of(toCard));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(dataMasker.maskCardNumber(anyString())).thenReturn(UserTestConstants.CARD_NUMBER_MASKED);
+        TransactionDTO result = transactionService.transferMoney(transactionRequest);
+        assertEquals(new BigDecimal("1.08"), result.getConvertedAmount());
+        assertEquals(new BigDecimal("0.01081081"), result.getExchangeRate());
+        assertEquals(new BigDecimal("899.00"), fromCard.getBalance());
+        assertEquals(new BigDecimal("501.08"), toCard.getBalance());
+        // Курс сохраняется из той же конвертации, а не перечитывается из снимка
+        verify(fxRateService).exchange(any(), eq(Currency.RUB), eq(Currency.USD));
+        verify(fxRateService, never()).getRate(any(), any());
+    }
+
+    @Test
+    @DisplayName("Перевод суммы с точностью больше двух знаков выбрасывает исключение")
+    void transferWithSubMinorAmountTest() {
+        transactionRequest.setAmount(new BigDecimal("10.005"));
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findByCardNumber(TEST_TO_CARD_NUMBER)).thenReturn(Optional.of(toCard));
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> transactionService.transferMoney(transactionRequest));
+        assertTrue(exception.getMessage().contains(AMOUNT_PRECISION_MESSAGE));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    @DisplayName("Перевод сверх лимита выбрасывает исключение и не меняет балансы")
+    void transferMoneyOverLimitTest() {
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findByCardNumber(TEST_TO_CARD_NUMBER)).thenReturn(Optional.of(toCard));
+        doThrow(new TransferLimitExceededException(DAILY_CARD_LIMIT_EXCEEDED_MESSAGE))
+                .when(transferLimitService).checkAndRecord(eq(fromCard), any());
+        TransferLimitExceededException exception = assertThrows(TransferLimitExceededException.class,
+                () -> transactionService.transferMoney(transactionRequest));
+        assertEquals(DAILY_CARD_LIMIT_EXCEEDED_MESSAGE, exception.getMessage());
+        assertEquals(CARD_BALANCE, fromCard.getBalance());
+        verify(cardRepository, never()).save(any(Card.class));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+}
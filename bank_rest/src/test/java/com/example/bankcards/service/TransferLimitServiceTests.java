@@ -0,0 +1,143 @@
+package com.example.bankcards.service;
+
+import com.example.bankcards.config.ApplicationProperties;
+import com.example.bankcards.entity.Card;
+import com.example.bankcards.entity.Currency;
+import com.example.bankcards.entity.User;
+import com.example.bankcards.exception.TransferLimitExceededException;
+import com.example.bankcards.repository.TransactionRepository;
+import com.example.bankcards.repository.TransactionRepository.TransferUsage;
+import com.example.bankcards.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.bankcards.testConstants.TransactionTestConstants.FX_RATES_LOCATION;
+import static globalConstants.MessageConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transfer Limit Service tests")
+class TransferLimitServiceTests {
+    @Mock
+    private TransactionRepository transactionRepository;
+    private TransferLimitService transferLimitService;
+    private Card rubCard;
+    private Card usdCard;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties properties = new ApplicationProperties();
+        properties.getBank().setMaxTransferAmount(5000.0);
+        properties.getBank().setDailyTransferLimitPerCard(1000.0);
+        properties.getBank().setDailyTransferLimitPerUser(1500.0);
+        properties.getBank().setMaxTransfersPerMinutePerCard(3);
+        properties.getBank().setMaxTransfersPerMinutePerUser(5);
+        FxRateService fxRateService = new FxRateService(new DefaultResourceLoader(), FX_RATES_LOCATION);
+        transferLimitService = new TransferLimitService(transactionRepository, fxRateService, properties);
+
+        User user = User.builder().id(1L).build();
+        rubCard = new Card();
+        rubCard.setId(1L);
+        rubCard.setCurrency(Currency.RUB);
+        rubCard.setUser(user);
+        usdCard = new Card();
+        usdCard.setId(2L);
+        usdCard.setCurrency(Currency.USD);
+        usdCard.setUser(user);
+    }
+
+    @Test
+    @DisplayName("Перевод больше максимальной суммы отклоняется без обращения к базе")
+    void transferAboveMaxAmountTest() {
+        TransferLimitExceededException exception = assertThrows(TransferLimitExceededException.class,
+                () -> transferLimitService.checkAndRecord(rubCard, money("5000.01")));
+        assertEquals(MAX_TRANSFER_AMOUNT_EXCEEDED_MESSAGE, exception.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @DisplayName("Превышение числа переводов по карте в минуту отклоняется")
+    void transfersPerMinuteLimitTest() {
+        stubUsage(List.of(), List.of());
+        for (int i = 0; i < 3; i++) {
+            transferLimitService.checkAndRecord(rubCard, money("10.00"));
+        }
+        TransferLimitExceededException exception = assertThrows(TransferLimitExceededException.class,
+                () -> transferLimitService.checkAndRecord(rubCard, money("10.00")));
+        assertEquals(TRANSFER_RATE_LIMIT_EXCEEDED_MESSAGE, exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Отклоненный перевод не занимает дневной лимит карты")
+    void dailyCardLimitTest() {
+        stubUsage(List.of(), List.of());
+        transferLimitService.checkAndRecord(rubCard, money("600.00"));
+        TransferLimitExceededException exception = assertThrows(TransferLimitExceededException.class,
+                () -> transferLimitService.checkAndRecord(rubCard, money("500.00")));
+        assertEquals(DAILY_CARD_LIMIT_EXCEEDED_MESSAGE, exception.getMessage());
+        assertDoesNotThrow(() -> transferLimitService.checkAndRecord(rubCard, money("400.00")));
+    }
+
+    @Test
+    @DisplayName("Счетчики восстанавливаются из базы один раз при первом переводе")
+    void seedFromTransactionsTest() {
+        stubUsage(List.of(usage(LocalDateTime.now().minusHours(1), "900.00", Currency.RUB)), List.of());
+        transferLimitService.checkAndRecord(rubCard, money("50.00"));
+        TransferLimitExceededException exception = assertThrows(TransferLimitExceededException.class,
+                () -> transferLimitService.checkAndRecord(rubCard, money("100.00")));
+        assertEquals(DAILY_CARD_LIMIT_EXCEEDED_MESSAGE, exception.getMessage());
+        verify(transactionRepository, times(1)).findCardTransferUsage(eq(1L), any(), any(), any());
+        verify(transactionRepository, times(1)).findUserTransferUsage(eq(1L), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Дневной лимит пользователя считается по всем картам в валюте банка")
+    void dailyUserLimitAcrossCurrenciesTest() {
+        stubUsage(List.of(), List.of());
+        transferLimitService.checkAndRecord(rubCard, money("925.00"));
+        // 10 USD = 925.00 RUB, вместе с первым переводом 1850.00 RUB при лимите 1500.00
+        TransferLimitExceededException exception = assertThrows(TransferLimitExceededException.class,
+                () -> transferLimitService.checkAndRecord(usdCard, money("10.00")));
+        assertEquals(DAILY_USER_LIMIT_EXCEEDED_MESSAGE, exception.getMessage());
+    }
+
+    private void stubUsage(List<TransferUsage> cardUsage, List<TransferUsage> userUsage) {
+        when(transactionRepository.findCardTransferUsage(any(), any(), any(), any())).thenReturn(cardUsage);
+        when(transactionRepository.findUserTransferUsage(any(), any(), any(), any())).thenReturn(userUsage);
+    }
+
+    private static Money money(String amount) {
+        return Money.of(new BigDecimal(amount));
+    }
+
+    private static TransferUsage usage(LocalDateTime createdAt, String amount, Currency currency) {
+        return new TransferUsage() {
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public BigDecimal getAmount() {
+                return new BigDecimal(amount);
+            }
+
+            @Override
+            public Currency getCurrency() {
+                return currency;
+            }
+        };
+    }
+}
@@ -1,12 +1,15 @@
 package com.example.bankcards.service;
 
 import com.example.bankcards.dto.CreateUserRequest;
+import com.example.bankcards.dto.KeysetPageResponse;
+import com.example.bankcards.dto.PageResponse;
 import com.example.bankcards.dto.UserDTO;
 import com.example.bankcards.entity.Role;
 import com.example.bankcards.entity.User;
 import com.example.bankcards.exception.UserNotFoundException;
 import com.example.bankcards.exception.ValidationException;
 import com.example.bankcards.repository.UserRepository;
+import com.example.bankcards.util.EntityCacheEvictor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,10 +17,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,6 +40,8 @@ class UserServiceTests {
     private UserRepository userRepository;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private EntityCacheEvictor entityCacheEvictor;
     @InjectMocks
     private UserService userService;
     private User testUser;
@@ -123,21 +128,22 @@ class UserServiceTests {
     }
 
     @Test
-    @DisplayName("Получение всех пользователей возвращает пустой список, если нет пользователей")
-    void getAllUsersWhenNoUsersTest() {
-        when(userRepository.findAll()).thenReturn(List.of());
-        List<UserDTO> result = userService.getAllUsers();
-        assertTrue(result.isEmpty());
-        verify(userRepository).findAll();
+    @DisplayName("Получение страницы пользователей возвращает пустую страницу, если нет пользователей")
+    void getUsersWhenNoUsersTest() {
+        when(userRepository.findUserPage(any(Pageable.class))).thenReturn(Page.empty());
+        PageResponse<UserDTO> result = userService.getUsers(null, 0, 20);
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(0L, result.getTotalElements());
+        verify(userRepository, never()).findUserPageByPrefix(anyString(), any(Pageable.class));
     }
 
     @Test
-    @DisplayName("Получение пользователей по роли возвращает пустой список, если нет совпадений")
+    @DisplayName("Получение пользователей по роли возвращает пустую страницу, если нет совпадений")
     void getUsersByRoleWhenNoUsersTest() {
-        when(userRepository.findByRole(Role.ROLE_ADMIN)).thenReturn(List.of());
-        List<UserDTO> result = userService.getUsersByRole(Role.ROLE_ADMIN);
-        assertTrue(result.isEmpty());
-        verify(userRepository).findByRole(Role.ROLE_ADMIN);
+        when(userRepository.findUserPageByRole(eq(Role.ROLE_ADMIN), any(Pageable.class))).thenReturn(Page.empty());
+        PageResponse<UserDTO> result = userService.getUsersByRole(Role.ROLE_ADMIN, 0, 20);
+        assertTrue(result.getContent().isEmpty());
+        verify(userRepository).findUserPageByRole(eq(Role.ROLE_ADMIN), any(Pageable.class));
     }
 
     @Test
@@ -219,24 +225,59 @@ class UserServiceTests {
     }
 
     @Test
-    @DisplayName("Получение всех пользователей возвращает список UserDTO")
-    void getAllUsersTest() {
-        when(userRepository.findAll()).thenReturn(Arrays.asList(testUser, anotherUser));
-        List<UserDTO> result = userService.getAllUsers();
-        assertEquals(2, result.size());
-        assertEquals(TEST_USERNAME, result.get(0).getUsername());
-        assertEquals(ANOTHER_USERNAME, result.get(1).getUsername());
-        verify(userRepository).findAll();
+    @DisplayName("Получение страницы пользователей возвращает DTO и общее количество")
+    void getUsersTest() {
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("id"));
+        when(userRepository.findUserPage(pageable))
+                .thenReturn(new PageImpl<>(List.of(toDTO(testUser), toDTO(anotherUser)), pageable, 5));
+        PageResponse<UserDTO> result = userService.getUsers(" ", 1, 2);
+        assertEquals(2, result.getContent().size());
+        assertEquals(TEST_USERNAME, result.getContent().get(0).getUsername());
+        assertEquals(ANOTHER_USERNAME, result.getContent().get(1).getUsername());
+        assertEquals(5L, result.getTotalElements());
+        assertEquals(Integer.valueOf(3), result.getTotalPages());
+        verify(userRepository).findUserPage(pageable);
+    }
+
+    @Test
+    @DisplayName("Поиск пользователей по префиксу экранирует символы шаблона LIKE и ограничивает размер страницы")
+    void getUsersWithSearchTest() {
+        when(userRepository.findUserPageByPrefix(anyString(), any(Pageable.class))).thenReturn(Page.empty());
+        userService.getUsers(" Test_U%", 0, 10_000);
+        verify(userRepository).findUserPageByPrefix("test\\_u\\%%", PageRequest.of(0, 100, Sort.by("id")));
     }
 
     @Test
-    @DisplayName("Получение пользователей по роли возвращает отфильтрованный список")
+    @DisplayName("Получение пользователей по роли возвращает отфильтрованную страницу")
     void getUsersByRoleTest() {
-        when(userRepository.findByRole(Role.ROLE_USER)).thenReturn(Arrays.asList(testUser, anotherUser));
-        List<UserDTO> result = userService.getUsersByRole(Role.ROLE_USER);
-        assertEquals(2, result.size());
-        assertTrue(result.stream().allMatch(user -> user.getRole() == Role.ROLE_USER));
-        verify(userRepository).findByRole(Role.ROLE_USER);
+        when(userRepository.findUserPageByRole(eq(Role.ROLE_USER), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(toDTO(testUser), toDTO(anotherUser))));
+        PageResponse<UserDTO> result = userService.getUsersByRole(Role.ROLE_USER, 0, 20);
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.getContent().stream().allMatch(user -> user.getRole() == Role.ROLE_USER));
+        verify(userRepository).findUserPageByRole(eq(Role.ROLE_USER), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Keyset-выборка читает лишнюю строку и возвращает курсор следующей страницы")
+    void getUsersAfterWithNextPageTest() {
+        when(userRepository.findUsersAfter(0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(toDTO(testUser), toDTO(anotherUser)));
+        KeysetPageResponse<UserDTO> result = userService.getUsersAfter(null, null, 1);
+        assertEquals(1, result.getContent().size());
+        assertTrue(result.isHasNext());
+        assertEquals(testUser.getId(), result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Keyset-выборка на последней странице не возвращает курсор")
+    void getUsersAfterLastPageTest() {
+        when(userRepository.findUsersAfterByPrefix("ano%", 1L, PageRequest.of(0, 51)))
+                .thenReturn(List.of(toDTO(anotherUser)));
+        KeysetPageResponse<UserDTO> result = userService.getUsersAfter(1L, "Ano", 50);
+        assertEquals(1, result.getContent().size());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
     }
 
     @Test
@@ -255,6 +296,7 @@ class UserServiceTests {
         verify(userRepository).existsByEmail(UPDATE_EMAIL);
         verify(passwordEncoder).encode(NEW_PASSWORD);
         verify(userRepository).save(any(User.class));
+        verify(entityCacheEvictor).evictAfterCommit(User.class, 1L);
     }
 
     @Test
@@ -322,6 +364,7 @@ class UserServiceTests {
         userService.deleteUser(1L);
         verify(userRepository).findById(1L);
         verify(userRepository).save(argThat(user -> !user.getActive()));
+        verify(entityCacheEvictor).evictAfterCommit(User.class, 1L);
     }
 
     @Test
@@ -354,4 +397,9 @@ class UserServiceTests {
         assertEquals(USER_NOT_FOUND_BY_ID, exception.getMessage());
         verify(userRepository, never()).save(any(User.class));
     }
-}
\ No newline at end of file
+
+    private static UserDTO toDTO(User user) {
+        return new UserDTO(user.getId(), user.getUsername(), user.getEmail(), user.getFirstName(),
+                user.getLastName(), user.getPhoneNumber(), user.getRole(), user.getActive(), user.getCreatedAt());
+    }
+}
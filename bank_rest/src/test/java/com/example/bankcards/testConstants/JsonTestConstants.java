@@ -12,14 +12,18 @@ public class JsonTestConstants {
     public static final String JSON_PATH_DATA_ID = JSON_PATH_DATA + ".id";
     public static final String JSON_PATH_DATA_STATUS = JSON_PATH_DATA + ".status";
     public static final String JSON_PATH_DATA_BALANCE = JSON_PATH_DATA + ".balance";
+    public static final String JSON_PATH_DATA_CARD_HOLDER_NAME = JSON_PATH_DATA + ".cardHolderName";
+    public static final String JSON_PATH_DATA_USER_FULL_NAME = JSON_PATH_DATA + ".userFullName";
     public static final String JSON_PATH_DATA_CURRENCY = JSON_PATH_DATA + ".currency";
     public static final String JSON_PATH_DATA_TRANSACTION_ID = JSON_PATH_DATA + ".transactionId";
     public static final String JSON_PATH_DATA_USERNAME = JSON_PATH_DATA + ".username";
 
     // Поля в массивах
     public static final String JSON_PATH_DATA_ARRAY_ID = "$.data[0].id";
-    public static final String JSON_PATH_DATA_ARRAY_ROLE = "$.data[0].role";
 
     // Поля в пагинированных или вложенных структурах
     public static final String JSON_PATH_DATA_CONTENT_ID = JSON_PATH_DATA + ".content[0].id";
+    public static final String JSON_PATH_DATA_CONTENT_ROLE = JSON_PATH_DATA + ".content[0].role";
+    public static final String JSON_PATH_DATA_TOTAL_ELEMENTS = JSON_PATH_DATA + ".totalElements";
+    public static final String JSON_PATH_DATA_NEXT_CURSOR = JSON_PATH_DATA + ".nextCursor";
 }
\ No newline at end of file
@@ -9,4 +9,5 @@ public class TokenTestConstants {
     public static final String BEARER_OLD_TOKEN = BEARER_TOKEN_TYPE + OLD_TOKEN;
     public static final String BEARER_VALID_TOKEN = BEARER_TOKEN_TYPE + VALID_TOKEN;
     public static final String BEARER_INVALID_TOKEN = BEARER_TOKEN_TYPE + INVALID_TOKEN;
+    public static final String TEST_CLIENT_IP = "192.168.1.10";
 }
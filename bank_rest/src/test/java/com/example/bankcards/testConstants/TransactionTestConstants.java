@@ -14,5 +14,8 @@ public class TransactionTestConstants {
     public static final BigDecimal TO_CARD_BALANCE = new BigDecimal("500.00");
     public static final String CREDIT_CARD_NUMBER = "1111222233334444";
     public static final BigDecimal CREDIT_CARD_LIMIT = new BigDecimal("5000.00");
+    public static final String FX_RATES_LOCATION = "classpath:fx/rates.properties";
+    public static final String STATEMENT_NDJSON_LINE = "{\"transactionId\":\"TXN123456789\"}\n";
+    public static final String ENCRYPTION_TEST_KEY = "bankcards2024secretkey12345678901234567890";
 
 }
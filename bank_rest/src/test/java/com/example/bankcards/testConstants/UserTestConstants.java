@@ -32,9 +32,13 @@ public class UserTestConstants {
     // Данные карты
     public static final String CARD_NUMBER = "1234567890123456";
     public static final String CARD_NUMBER_MASKED = "**** **** **** 3456";
+    public static final String CARD_NUMBER_LAST4 = "3456";
+    public static final String CARD_NUMBER_HASH = "5f1c9a3e0b7d24e6a8c1f03b9d5e7a2c4b6d8f0e1a3c5e7b9d1f3a5c7e9b0d2f";
     public static final String ENCRYPTED_CARD_NUMBER = "encrypted123";
     public static final BigDecimal CARD_BALANCE = new BigDecimal("1000.00");
     public static final BigDecimal TOTAL_CARD_BALANCE = new BigDecimal("2500.50");
+    public static final String CARD_ETAG = "\"card-1-3\"";
+    public static final String USER_CARDS_ETAG = "\"cards-1-2-5-7\"";
 
     // Сортировка
     public static final String SORT_CREATED_AT_DESC = "createdAt,desc";